@@ -0,0 +1,50 @@
+package petstore.benchmarks;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Responses built in memory, so the benchmarks measure the client side without any network.
+ */
+public final class CannedResponses {
+
+    private CannedResponses() {
+    }
+
+    public static Response response(int statusCode, String body) {
+        return new ResponseBuilder()
+                .setStatusCode(statusCode)
+                .setStatusLine("HTTP/1.1 " + statusCode)
+                .setContentType(ContentType.JSON)
+                .setBody(body)
+                .build();
+    }
+
+    /**
+     * Filter that ends the RestAssured filter chain with the given response instead of sending the request.
+     */
+    public static Filter answering(int statusCode, String body) {
+        return (requestSpec, responseSpec, ctx) -> response(statusCode, body);
+    }
+
+    /**
+     * A pet/findByStatus?status=available body with the given number of pets.
+     */
+    public static String findByStatusBody(int pets) {
+        var array = new JSONArray();
+        for (var i = 0; i < pets; i++) {
+            array.put(new JSONObject()
+                    .put("id", 1_000_000L + i)
+                    .put("category", new JSONObject().put("id", 898888).put("name", "category"))
+                    .put("name", "doggie" + i)
+                    .put("photoUrls", new JSONArray().put("string"))
+                    .put("tags", new JSONArray().put(new JSONObject().put("id", 677).put("name", "someName")))
+                    .put("status", "available"));
+        }
+        return array.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package petstore.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import petstore.data.IdSpace;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entity IDs drawn by several load workers at once: one shared counter against per-thread blocks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class IdAllocationBenchmark {
+
+    private final AtomicLong counter = new AtomicLong();
+    private final IdSpace ids = new IdSpace(1L << 52, 4096);
+
+    @Benchmark
+    public long sharedCounter() {
+        return counter.incrementAndGet();
+    }
+
+    @Benchmark
+    public long idSpace() {
+        return ids.next();
+    }
+}
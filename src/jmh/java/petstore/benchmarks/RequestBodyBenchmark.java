@@ -0,0 +1,89 @@
+package petstore.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petstore.PetStoreRequests;
+import petstore.data.PayloadBuffer;
+import petstore.data.Payloads;
+import petstore.plan.Plans;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing the request bodies the scenarios send, as the UTF-8 bytes that go on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestBodyBenchmark {
+
+    private long id = 1_000_000;
+    private final PayloadBuffer buffer = new PayloadBuffer(512);
+
+    @Benchmark
+    public byte[] orderBodyString() {
+        return PetStoreRequests.orderBody(++id, 1, 1, "placed").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] orderBodyPlan() {
+        //What the load mode sends: the plan's step rendered from the thread's run, with a fresh order id
+        return Plans.PLACE_ORDER.steps().get(0).call(Plans.PLACE_ORDER.localRun(null)).body().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] petBodyString() {
+        return PetStoreRequests.petBody(++id, 898888, "category", "new_dog").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] userBodyString() {
+        var userId = ++id;
+        return Payloads.user(buffer.clear(), userId, "rostestuser" + userId, "testuserfirstname", "testuserlastname",
+                "testuser123@gmail.com", "test345167", "12121212").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] petBodyJsonObject() {
+        return new JSONObject()
+                .put("id", ++id)
+                .put("category", new JSONObject().put("id", 898888).put("name", "category"))
+                .put("name", "new_dog")
+                .put("photoUrls", new JSONArray().put("string"))
+                .put("tags", new JSONArray().put(new JSONObject().put("id", 677).put("name", "someName")))
+                .put("status", "available")
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    //Template rendering into a reused buffer; -prof gc should show no allocation per body
+
+    @Benchmark
+    public int orderBodyTemplate() {
+        return Payloads.order(buffer.clear(), ++id, 1, 1, "placed").length();
+    }
+
+    @Benchmark
+    public int petBodyTemplate() {
+        return Payloads.pet(buffer.clear(), ++id, 898888, "category", "new_dog").length();
+    }
+
+    @Benchmark
+    public int userBodyTemplate() {
+        return Payloads.user(buffer.clear(), ++id, "rostestuser", "testuserfirstname", "testuserlastname",
+                "testuser123@gmail.com", "test345167", "12121212").length();
+    }
+}
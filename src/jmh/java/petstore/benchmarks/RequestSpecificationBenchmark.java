@@ -0,0 +1,80 @@
+package petstore.benchmarks;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import petstore.PetStoreRequests;
+import petstore.client.ConnectionPoolSettings;
+import petstore.client.PetStoreClient;
+import petstore.plan.Plans;
+import petstore.plan.ScenarioPlan;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side overhead of RestAssured per request: creating the specification and running a
+ * request through the whole pipeline up to the point where it would be sent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestSpecificationBenchmark {
+
+    private static final String BASE_URI = "http://127.0.0.1:9/v2/";
+
+    private PetStoreClient client;
+    private Filter order;
+    private Filter findByStatus;
+
+    @Setup
+    public void setUp() {
+        client = new PetStoreClient(BASE_URI, ConnectionPoolSettings.fromSettings());
+        order = CannedResponses.answering(200, PetStoreRequests.orderBody(6178881, 1, 1, "placed"));
+        findByStatus = CannedResponses.answering(200, CannedResponses.findByStatusBody(10));
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public RequestSpecification perTestSpecification() {
+        //What every test method used to do before the shared specification
+        return RestAssured.given().baseUri(BASE_URI).header("Content-Type", "application/json; charset=utf8");
+    }
+
+    @Benchmark
+    public RequestSpecification sharedSpecificationCopy() {
+        return client.request();
+    }
+
+    @Benchmark
+    public Response placeOrderPipeline() {
+        return send(Plans.PLACE_ORDER, order);
+    }
+
+    @Benchmark
+    public Response findByStatusPipeline() {
+        return send(Plans.FIND_AVAILABLE, findByStatus);
+    }
+
+    private Response send(ScenarioPlan plan, Filter answer) {
+        return plan.steps().get(0).call(plan.localRun(null)).send(client.request().filter(answer));
+    }
+}
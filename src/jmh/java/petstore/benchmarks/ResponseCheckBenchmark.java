@@ -0,0 +1,64 @@
+package petstore.benchmarks;
+
+import io.restassured.response.Response;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking a pet/findByStatus response the way _2_petFindByStatusTest does it,
+ * against parsing the body and checking every element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseCheckBenchmark {
+
+    @Param({"10", "1000", "20000"})
+    public int pets;
+
+    private String body;
+
+    @Setup
+    public void setUp() {
+        body = CannedResponses.findByStatusBody(pets);
+    }
+
+    @Benchmark
+    public boolean asStringContains() {
+        Response response = CannedResponses.response(200, body);
+        return response.statusCode() == 200 && response.asString().contains("available");
+    }
+
+    @Benchmark
+    public boolean jsonPathEveryStatus() {
+        Response response = CannedResponses.response(200, body);
+        return response.jsonPath().getList("status", String.class).stream().allMatch("available"::equals);
+    }
+
+    @Benchmark
+    public boolean orgJsonEveryStatus() {
+        Response response = CannedResponses.response(200, body);
+        var array = new JSONArray(response.asString());
+        for (var i = 0; i < array.length(); i++) {
+            if (!"available".equals(array.getJSONObject(i).optString("status"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package petstore.load;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import petstore.client.ConnectionPoolSettings;
+import petstore.client.PetStoreClient;
+import petstore.benchmarks.CannedResponses;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client CPU per scenario iteration: rendering each step of the compiled plan, the RestAssured pipeline
+ * and the response check of every step, with canned responses in place of the server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScenarioBenchmark {
+
+    @Param({"PLACE_ORDER", "FIND_BY_STATUS", "ADD_AND_UPDATE_PET", "USER_OPERATIONS", "ORDER_LIFECYCLE"})
+    public LoadScenario scenario;
+
+    private PetStoreClient client;
+    private final String listBody = CannedResponses.findByStatusBody(10);
+
+    @Setup
+    public void setUp() {
+        client = new PetStoreClient("http://127.0.0.1:9/v2/", ConnectionPoolSettings.fromSettings());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public void iteration(Blackhole blackhole) {
+        var plan = scenario.plan();
+        var run = plan.localRun(null);
+        for (var step : plan.steps()) {
+            var call = step.call(run);
+            //Steps with a body get it echoed, as the store does, so checks and extractions find their values
+            var body = call.body() == null ? listBody : call.body();
+            var response = call.send(client.request().filter(CannedResponses.answering(step.expectedStatus(), body)));
+            blackhole.consume(step.streamsList()
+                    ? step.checkList(response.statusCode(), response.asInputStream())
+                    : step.check(run, response.statusCode(), response.asString()));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package petstore;
+
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One pet store request, independent of the HTTP engine that sends it: method, path template
+ * relative to the base URI (e.g. "store/order/{orderId}"), its path parameters and the JSON body,
+ * or null for none. {@link #send(RequestSpecification)} sends it with RestAssured, the async client
+ * sends the same call with the JDK HttpClient.
+ */
+public record ApiCall(String method, String path, List<Object> pathParams, String body) {
+
+    private static final Pattern PATH_PARAM = Pattern.compile("\\{[^}/]+}");
+
+    public ApiCall {
+        pathParams = List.copyOf(pathParams);
+    }
+
+    public static ApiCall of(String method, String path, Object... pathParams) {
+        return new ApiCall(method, path, List.of(pathParams), null);
+    }
+
+    public ApiCall withBody(String json) {
+        return new ApiCall(method, path, pathParams, json);
+    }
+
+    /**
+     * The key latency is recorded under, e.g. "DELETE store/order/{orderId}"; matches the PetStoreRequests constants.
+     */
+    public String endpoint() {
+        var query = path.indexOf('?');
+        return method + " " + (query < 0 ? path : path.substring(0, query));
+    }
+
+    /**
+     * The path with its parameters filled in and URL-encoded, e.g. "store/order/11111".
+     */
+    public String expandedPath() {
+        var matcher = PATH_PARAM.matcher(path);
+        var expanded = new StringBuilder();
+        var index = 0;
+        while (matcher.find()) {
+            if (index >= pathParams.size()) {
+                throw new IllegalStateException("No value for " + matcher.group() + " in " + path);
+            }
+            var value = URLEncoder.encode(String.valueOf(pathParams.get(index++)), StandardCharsets.UTF_8).replace("+", "%20");
+            matcher.appendReplacement(expanded, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+
+    public Response send(RequestSpecification request) {
+        if (body != null) {
+            request.body(body);
+        }
+        return request.request(method, path, pathParams.toArray());
+    }
+}
@@ -0,0 +1,39 @@
+package petstore;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import petstore.client.AsyncPetStoreClient;
+import petstore.plan.AsyncPlanRunner;
+import petstore.plan.Plans;
+import petstore.stub.PetStoreStub;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Independent PetStoreTests plans run together on the non-blocking client, so they are
+ * in flight at the same time instead of each holding a thread.
+ */
+public class AsyncPetStoreTests {
+
+    private final String petStoreBaseUri = PetStoreStub.uriOrStub(Settings.petStoreUri());
+
+    @Test(groups = {"Functional", "Async"}, description = "Verify independent find, delete order and delete user checks hold while in flight together")
+    public void independentChecksInFlightTest() {
+
+        //Arrange
+        var runner = new AsyncPlanRunner(AsyncPetStoreClient.forBaseUri(petStoreBaseUri));
+
+        //Act
+        var findByStatus = runner.run(Plans.FIND_AVAILABLE);
+        var deleteMissingOrder = runner.run(Plans.DELETE_MISSING_ORDER);
+        var deleteMissingUser = runner.run(Plans.DELETE_MISSING_USER);
+        CompletableFuture.allOf(findByStatus, deleteMissingOrder, deleteMissingUser).join();
+
+        //Assert
+        for (var run : List.of(findByStatus, deleteMissingOrder, deleteMissingUser)) {
+            var result = run.join();
+            Assert.assertTrue(result.passed(), result.describe());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package petstore;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import petstore.client.PetStoreClient;
+import petstore.data.DataKind;
+import petstore.data.PetStoreDataProviders;
+import petstore.plan.PlanResult;
+import petstore.plan.PlanRunner;
+import petstore.stub.PetStoreStub;
+
+import java.util.Map;
+
+public class DataDrivenTests {
+
+    private final String petStoreBaseUri = PetStoreStub.uriOrStub(Settings.petStoreUri());
+
+    //Every row runs the plan of its kind, the one the data feed pushes whole sheets through
+    private PlanResult run(DataKind kind, Map<String, String> row) {
+        var runner = new PlanRunner(PetStoreClient.forBaseUri(petStoreBaseUri), null);
+        return runner.run(kind.plan(), kind.bind(kind.plan().newRun(), row));
+    }
+
+    @Test(groups = {"Functional", "DataDriven"}, dataProvider = "pets", dataProviderClass = PetStoreDataProviders.class, description = "Verify pets from the data sheet can be added to the store")
+    public void addPetFromDataTest(Map<String, String> pet) {
+
+        //Act
+        var result = run(DataKind.PET, pet);
+
+        //Assert
+        Assert.assertTrue(result.passed(), result.describe());
+    }
+
+    @Test(groups = {"Functional", "DataDriven"}, dataProvider = "orders", dataProviderClass = PetStoreDataProviders.class, description = "Verify orders from the data sheet can be placed")
+    public void placeOrderFromDataTest(Map<String, String> order) {
+
+        //Act
+        var result = run(DataKind.ORDER, order);
+
+        //Assert
+        Assert.assertTrue(result.passed(), result.describe());
+    }
+
+    @Test(groups = {"Functional", "DataDriven"}, dataProvider = "users", dataProviderClass = PetStoreDataProviders.class, description = "Verify users from the data sheet can be created")
+    public void createUserFromDataTest(Map<String, String> user) {
+
+        //Act
+        var result = run(DataKind.USER, user);
+
+        //Assert
+        Assert.assertTrue(result.passed(), result.describe());
+    }
+}
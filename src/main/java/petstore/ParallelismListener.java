@@ -0,0 +1,27 @@
+package petstore;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * Lets the thread count of a suite be set per run with petstore.threads (e.g. -Dpetstore.threads=8)
+ * instead of editing the suite file; "cores" uses the number of available processors.
+ */
+public class ParallelismListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        var threads = Settings.get("petstore.threads", null);
+        if (threads == null) {
+            return;
+        }
+        var threadCount = threads.equalsIgnoreCase("cores")
+                ? Runtime.getRuntime().availableProcessors()
+                : Integer.parseInt(threads);
+        for (var suite : suites) {
+            suite.setThreadCount(threadCount);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package petstore;
+
+/**
+ * Pet store requests outside the plans as engine-neutral {@link ApiCall}s, for the seeder and the visibility probe.
+ */
+public final class PetStoreCalls {
+
+    private PetStoreCalls() {
+    }
+
+    public static ApiCall placeOrder(long orderId, long petId, int quantity, String status) {
+        return ApiCall.of("POST", "store/order").withBody(PetStoreRequests.orderBody(orderId, petId, quantity, status));
+    }
+
+    public static ApiCall findByStatus(String status) {
+        return ApiCall.of("GET", "pet/findByStatus?status=" + status);
+    }
+
+    public static ApiCall addPet(long petId, long categoryId, String categoryName, String petName) {
+        return ApiCall.of("POST", "pet").withBody(PetStoreRequests.petBody(petId, categoryId, categoryName, petName));
+    }
+
+    public static ApiCall updatePet(long petId, long categoryId, String categoryName, String petName, String status) {
+        return ApiCall.of("PUT", "pet").withBody(PetStoreRequests.petBody(petId, categoryId, categoryName, petName, status));
+    }
+
+    public static ApiCall getPet(Object petId) {
+        return ApiCall.of("GET", "pet/{petId}", petId);
+    }
+
+    public static ApiCall deletePet(Object petId) {
+        return ApiCall.of("DELETE", "pet/{petId}", petId);
+    }
+
+    public static ApiCall createUsersWithArray(String usersBody) {
+        return ApiCall.of("POST", "user/createWithArray").withBody(usersBody);
+    }
+
+    public static ApiCall createUsersWithList(String usersBody) {
+        return ApiCall.of("POST", "user/createWithList").withBody(usersBody);
+    }
+}
@@ -0,0 +1,61 @@
+package petstore;
+
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import petstore.data.PayloadBuffer;
+import petstore.data.Payloads;
+
+/**
+ * Endpoint keys of the pet store API, as latency is recorded under them, and the bulk requests the seeder sends with
+ * RestAssured. The functional tests and the load mode go through the plans in {@link petstore.plan.Plans} instead.
+ */
+public final class PetStoreRequests {
+
+    public static final String PLACE_ORDER = "POST store/order";
+    public static final String GET_ORDER = "GET store/order/{orderId}";
+    public static final String DELETE_ORDER = "DELETE store/order/{orderId}";
+    public static final String FIND_BY_STATUS = "GET pet/findByStatus";
+    public static final String ADD_PET = "POST pet";
+    public static final String UPDATE_PET = "PUT pet";
+    public static final String CREATE_USER = "POST user";
+    public static final String CREATE_USERS_WITH_ARRAY = "POST user/createWithArray";
+    public static final String CREATE_USERS_WITH_LIST = "POST user/createWithList";
+    public static final String GET_USER = "GET user/{username}";
+    public static final String LOGIN_USER = "GET user/login";
+    public static final String LOGOUT_USER = "GET user/logout";
+    public static final String UPDATE_USER = "PUT user/{username}";
+    public static final String DELETE_USER = "DELETE user/{username}";
+
+    private static final ThreadLocal<PayloadBuffer> buffers = ThreadLocal.withInitial(() -> new PayloadBuffer(512));
+
+    private PetStoreRequests() {
+    }
+
+    public static Response placeOrder(RequestSpecification request, long orderId, long petId, int quantity, String status) {
+        return PetStoreCalls.placeOrder(orderId, petId, quantity, status).send(request);
+    }
+
+    public static Response addPet(RequestSpecification request, long petId, long categoryId, String categoryName, String petName) {
+        return PetStoreCalls.addPet(petId, categoryId, categoryName, petName).send(request);
+    }
+
+    public static Response createUsersWithArray(RequestSpecification request, String usersBody) {
+        return PetStoreCalls.createUsersWithArray(usersBody).send(request);
+    }
+
+    public static Response createUsersWithList(RequestSpecification request, String usersBody) {
+        return PetStoreCalls.createUsersWithList(usersBody).send(request);
+    }
+
+    public static String orderBody(long orderId, long petId, int quantity, String status) {
+        return Payloads.order(buffers.get().clear(), orderId, petId, quantity, status).toString();
+    }
+
+    public static String petBody(long petId, long categoryId, String categoryName, String petName) {
+        return Payloads.pet(buffers.get().clear(), petId, categoryId, categoryName, petName).toString();
+    }
+
+    public static String petBody(long petId, long categoryId, String categoryName, String petName, String status) {
+        return Payloads.pet(buffers.get().clear(), petId, categoryId, categoryName, petName, status).toString();
+    }
+}
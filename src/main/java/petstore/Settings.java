@@ -0,0 +1,80 @@
+package petstore;
+
+import java.time.Duration;
+
+/**
+ * Reads run settings from system properties first (e.g. -Dpetstore.load.rps=50),
+ * then from the matching environment variable (PETSTORE_LOAD_RPS).
+ */
+public final class Settings {
+
+    private Settings() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        var value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(key.toUpperCase().replace('.', '_'));
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        return Long.parseLong(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        return Double.parseDouble(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Durations are given in ISO-8601 form (PT30S), as plain seconds (30) or with an ms or s suffix (250ms).
+     */
+    public static Duration getDuration(String key, Duration defaultValue) {
+        var value = get(key, null);
+        return value == null ? defaultValue : parseDuration(value);
+    }
+
+    /**
+     * Parses a duration written the way {@link #getDuration(String, Duration)} accepts it.
+     */
+    public static Duration parseDuration(String value) {
+        var text = value.trim();
+        if (text.startsWith("P") || text.startsWith("p")) {
+            return Duration.parse(text);
+        }
+        if (text.endsWith("ms")) {
+            return Duration.ofNanos((long) (Double.parseDouble(text.substring(0, text.length() - 2)) * 1_000_000));
+        }
+        if (text.endsWith("s")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return Duration.ofMillis((long) (Double.parseDouble(text) * 1000));
+    }
+
+    /**
+     * Parses a byte count given plainly (512) or with a k or m suffix (64k, 1.5m).
+     */
+    public static long parseBytes(String value) {
+        var text = value.trim().toLowerCase();
+        if (text.endsWith("k")) {
+            return (long) (Double.parseDouble(text.substring(0, text.length() - 1)) * 1024);
+        }
+        if (text.endsWith("m")) {
+            return (long) (Double.parseDouble(text.substring(0, text.length() - 1)) * 1024 * 1024);
+        }
+        return Long.parseLong(text);
+    }
+
+    public static String petStoreUri() {
+        return System.getenv("PETSTOREURI");
+    }
+}
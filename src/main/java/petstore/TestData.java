@@ -0,0 +1,21 @@
+package petstore;
+
+import petstore.data.IdSpace;
+
+/**
+ * Unique IDs and names for test entities, so parallel methods and repeated or concurrent runs
+ * against the same store do not collide on the same records. IDs come from {@link IdSpace#shared()}.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static long uniqueId() {
+        return IdSpace.shared().next();
+    }
+
+    public static String uniqueName(String prefix) {
+        return prefix + uniqueId();
+    }
+}
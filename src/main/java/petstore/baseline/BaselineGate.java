@@ -0,0 +1,43 @@
+package petstore.baseline;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Fails the build when a run of this build regressed: reads every baseline-*.json diff in the report
+ * directory (first argument, default target) and exits with status 1 if any of them lists a regression.
+ * Runs in the verify phase of the perf-gate profile, after surefire has ignored the test outcomes.
+ */
+public final class BaselineGate {
+
+    private BaselineGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var directory = Path.of(args.length > 0 ? args[0] : "target");
+        var regressions = 0;
+        try (var reports = Files.newDirectoryStream(directory, "baseline-*.json")) {
+            for (var path : reports) {
+                var report = new JSONObject(Files.readString(path));
+                var comparisons = report.getJSONArray("comparisons");
+                for (var i = 0; i < comparisons.length(); i++) {
+                    var comparison = comparisons.getJSONObject(i);
+                    if (comparison.getString("verdict").equals(RegressionReport.Verdict.REGRESSED.name())) {
+                        regressions++;
+                        System.out.printf("REGRESSED %s %s %s: %.2f against baseline %.2f +/- %.2f%n",
+                                report.getString("source"), comparison.getString("endpoint"), comparison.getString("metric"),
+                                comparison.getDouble("current"), comparison.getDouble("baseline"), comparison.getDouble("band"));
+                    }
+                }
+            }
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " performance regression(s) against the stored baseline");
+            System.exit(1);
+        }
+        System.out.println("No performance regressions against the stored baseline");
+    }
+}
@@ -0,0 +1,110 @@
+package petstore.baseline;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where run results are stored, what they are keyed by and how a regression is told apart from noise.
+ *
+ * @param revision    git revision of the tree under test; "unknown" outside a checkout
+ * @param environment target the numbers belong to, by default the host of PETSTOREURI ("stub" without one)
+ * @param window      number of most recent stored runs that form the baseline
+ * @param minRuns     baseline runs needed before anything is flagged
+ * @param percentiles latency percentiles compared per endpoint
+ * @param sigmas      width of the noise band in standard deviations of the baseline runs
+ * @param tolerance   relative change that is never flagged, however quiet the baseline was
+ * @param minDeltaMs  absolute latency change that is never flagged
+ * @param minErrorRateDelta absolute error rate change (0.01 is one percentage point) that is never flagged
+ * @param minSamples  endpoints with fewer calls in the current run are not compared
+ * @param keep        runs kept per environment and source; older ones are deleted
+ */
+public record BaselineSettings(boolean enabled, Path directory, Path reportDirectory, String revision, String environment,
+                               int window, int minRuns, List<Double> percentiles, double sigmas, double tolerance,
+                               double minDeltaMs, double minErrorRateDelta, long minSamples, int keep) {
+
+    public BaselineSettings {
+        if (window < 1 || minRuns < 1 || keep < window) {
+            throw new IllegalArgumentException("Baseline window and minimum runs must be positive and no more runs than kept");
+        }
+        if (sigmas < 0 || tolerance < 0 || minDeltaMs < 0 || minErrorRateDelta < 0) {
+            throw new IllegalArgumentException("Baseline noise thresholds must not be negative");
+        }
+        percentiles = List.copyOf(percentiles);
+    }
+
+    public static BaselineSettings fromSettings() {
+        return new BaselineSettings(
+                Settings.getBoolean("petstore.baseline.enabled", true),
+                Path.of(Settings.get("petstore.baseline.dir", ".perf-baselines")),
+                Path.of(Settings.get("petstore.baseline.reportDir", "target")),
+                Settings.get("petstore.baseline.revision", gitRevision()),
+                Settings.get("petstore.baseline.env", defaultEnvironment()),
+                Settings.getInt("petstore.baseline.window", 5),
+                Settings.getInt("petstore.baseline.minRuns", 3),
+                Arrays.stream(Settings.get("petstore.baseline.percentiles", "50,90,99").split(","))
+                        .map(String::trim).map(Double::parseDouble).toList(),
+                Settings.getDouble("petstore.baseline.sigmas", 3.0),
+                Settings.getDouble("petstore.baseline.tolerance", 0.10),
+                Settings.getDouble("petstore.baseline.minDeltaMs", 1.0),
+                Settings.getDouble("petstore.baseline.minErrorRateDelta", 0.01),
+                Settings.getLong("petstore.baseline.minSamples", 20),
+                Settings.getInt("petstore.baseline.keep", 50));
+    }
+
+    private static String defaultEnvironment() {
+        var uri = Settings.petStoreUri();
+        if (uri == null || uri.isBlank()) {
+            return "stub";
+        }
+        var host = URI.create(uri.trim()).getHost();
+        return host == null ? uri.trim() : host;
+    }
+
+    /**
+     * GITHUB_SHA on CI, otherwise asks git; a missing git or checkout gives "unknown".
+     */
+    private static String gitRevision() {
+        var sha = System.getenv("GITHUB_SHA");
+        if (sha != null && !sha.isBlank()) {
+            return sha;
+        }
+        try {
+            var process = new ProcessBuilder("git", "rev-parse", "HEAD").redirectErrorStream(true).start();
+            String line;
+            try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                line = reader.readLine();
+            }
+            if (process.waitFor(5, TimeUnit.SECONDS) && process.exitValue() == 0 && line != null) {
+                return line.trim();
+            }
+        } catch (Exception e) {
+            //No git on the path, or not a checkout
+        }
+        return "unknown";
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("directory", directory.toString())
+                .put("revision", revision)
+                .put("environment", environment)
+                .put("window", window)
+                .put("minRuns", minRuns)
+                .put("percentiles", new JSONArray(percentiles))
+                .put("sigmas", sigmas)
+                .put("tolerance", tolerance)
+                .put("minDeltaMs", minDeltaMs)
+                .put("minErrorRateDelta", minErrorRateDelta)
+                .put("minSamples", minSamples);
+    }
+}
@@ -0,0 +1,83 @@
+package petstore.baseline;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Run results on disk, one small JSON file per run under {@code <dir>/<environment>/<source>/<profile>/}
+ * ({@code <dir>/<environment>/<source>/} for runs without a load profile), named by time and revision so
+ * a directory listing sorts oldest first. Histograms are stored compressed, typically a few kilobytes per run.
+ */
+public class BaselineStore {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final int keep;
+
+    public BaselineStore(Path directory, int keep) {
+        this.directory = directory;
+        this.keep = keep;
+    }
+
+    public void save(RunRecord run) throws IOException {
+        var folder = folder(run.environment(), run.source(), run.profile());
+        Files.createDirectories(folder);
+        var revision = run.revision().length() > 12 ? run.revision().substring(0, 12) : run.revision();
+        Files.writeString(folder.resolve(FILE_TIME.format(run.recordedAt()) + "-" + safe(revision) + ".json"), run.toJson().toString());
+        var files = files(folder);
+        for (var i = 0; i < files.size() - keep; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * Up to {@code limit} most recent runs for the environment, source and load profile, oldest first.
+     */
+    public List<RunRecord> recent(String environment, String source, String profile, int limit) throws IOException {
+        var folder = folder(environment, source, profile);
+        if (!Files.isDirectory(folder)) {
+            return List.of();
+        }
+        var files = files(folder);
+        var runs = new ArrayList<RunRecord>();
+        for (var file : files.subList(Math.max(0, files.size() - limit), files.size())) {
+            try {
+                runs.add(RunRecord.fromJson(new JSONObject(Files.readString(file))));
+            } catch (RuntimeException e) {
+                //A truncated file from an interrupted run is skipped rather than poisoning every later comparison
+                System.err.println("Ignoring unreadable baseline " + file + ": " + e.getMessage());
+            }
+        }
+        return runs;
+    }
+
+    private Path folder(String environment, String source, String profile) {
+        var folder = directory.resolve(safe(environment)).resolve(safe(source));
+        return profile == null ? folder : folder.resolve(safe(profile));
+    }
+
+    private static List<Path> files(Path folder) throws IOException {
+        try (var listing = Files.list(folder)) {
+            return listing.filter(file -> file.getFileName().toString().endsWith(".json"))
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String safe(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,98 @@
+package petstore.baseline;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.Reporter;
+import petstore.metrics.LatencyRegistry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.TreeSet;
+
+/**
+ * Entry point for runs: compares the run with the stored baseline for its source, stores it unless it regressed,
+ * and writes the diff to {@code <reportDir>/baseline-<source>.json}. Failing the build is left to {@link BaselineGate}.
+ */
+public final class PerformanceBaseline {
+
+    private PerformanceBaseline() {
+    }
+
+    /**
+     * For runs without a load profile, e.g. the functional suite.
+     */
+    public static RegressionReport check(String source, LatencyRegistry registry, double requestsPerSecond) {
+        return check(source, null, registry, requestsPerSecond);
+    }
+
+    /**
+     * @param source            which kind of run this is, e.g. "suite" or "load"; only like runs are compared
+     * @param profile           the profile the run was driven with (rate, mix, engine, arrivals, duration, workers,
+     *                          as its toJson); runs are only compared with runs of an equal profile. Null for none
+     * @param requestsPerSecond 0 when the run's throughput says nothing about the server
+     * @return the comparison, or null when baselines are disabled or the run made no requests
+     */
+    public static RegressionReport check(String source, JSONObject profile, LatencyRegistry registry, double requestsPerSecond) {
+        var settings = BaselineSettings.fromSettings();
+        if (!settings.enabled() || registry.totalCount() == 0) {
+            return null;
+        }
+        var store = new BaselineStore(settings.directory(), settings.keep());
+        var fingerprint = profile == null ? null : fingerprint(profile);
+        var run = RunRecord.of(source, fingerprint, settings, registry, requestsPerSecond);
+        try {
+            var report = new RegressionDetector(settings)
+                    .compare(run, store.recent(settings.environment(), source, fingerprint, settings.window()));
+            if (!report.regressed()) {
+                store.save(run);
+            }
+            report.write(settings.reportDirectory().resolve("baseline-" + source + ".json"));
+            Reporter.log(report.summary().stripTrailing(), true);
+            return report;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * A short hash of the profile with its keys sorted, so equal profiles give equal fingerprints. The base URI is
+     * left out; the environment already keys the store by target.
+     */
+    static String fingerprint(JSONObject profile) {
+        var canonical = new StringBuilder();
+        canonical(profile, canonical);
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void canonical(Object value, StringBuilder out) {
+        if (value instanceof JSONObject object) {
+            out.append('{');
+            for (var key : new TreeSet<>(object.keySet())) {
+                if (!key.equals("baseUri")) {
+                    out.append(JSONObject.quote(key)).append(':');
+                    canonical(object.get(key), out);
+                    out.append(',');
+                }
+            }
+            out.append('}');
+        } else if (value instanceof JSONArray array) {
+            out.append('[');
+            for (var element : array) {
+                canonical(element, out);
+                out.append(',');
+            }
+            out.append(']');
+        } else {
+            out.append(JSONObject.valueToString(value));
+        }
+    }
+}
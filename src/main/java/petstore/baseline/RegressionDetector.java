@@ -0,0 +1,106 @@
+package petstore.baseline;
+
+import petstore.metrics.EndpointStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares a run with the stored runs before it. Every metric (latency percentiles and error rate per
+ * endpoint, request throughput) gets a baseline centre, the median over the baseline runs, and a noise
+ * band: the largest of {@code sigmas} standard deviations across those runs, the relative tolerance and,
+ * for latencies and error rates, the absolute minimum delta. A value outside the band on the bad side is
+ * a regression.
+ * Run-to-run spread is what defines noise here, so a metric is only judged once {@code minRuns}
+ * baseline runs have enough samples of it.
+ */
+public class RegressionDetector {
+
+    private final BaselineSettings settings;
+
+    public RegressionDetector(BaselineSettings settings) {
+        this.settings = settings;
+    }
+
+    public RegressionReport compare(RunRecord current, List<RunRecord> baseline) {
+        var comparisons = new ArrayList<RegressionReport.Comparison>();
+        for (var entry : new TreeMap<>(current.endpoints()).entrySet()) {
+            var endpoint = entry.getKey();
+            var latencies = entry.getValue().latencies();
+            if (latencies.getTotalCount() < settings.minSamples()) {
+                continue;
+            }
+            for (var percentile : settings.percentiles()) {
+                ToDoubleFunction<RunRecord.Endpoint> metric = stats -> EndpointStats.millisAt(stats.latencies(), percentile);
+                var values = new ArrayList<Double>();
+                for (var run : baseline) {
+                    var stats = run.endpoints().get(endpoint);
+                    if (stats != null && stats.latencies().getTotalCount() >= settings.minSamples()) {
+                        values.add(metric.applyAsDouble(stats));
+                    }
+                }
+                compare(endpoint, "p" + label(percentile) + "Ms", metric.applyAsDouble(entry.getValue()), values, true,
+                        settings.minDeltaMs()).ifPresent(comparisons::add);
+            }
+            var errorRates = new ArrayList<Double>();
+            for (var run : baseline) {
+                var stats = run.endpoints().get(endpoint);
+                if (stats != null && stats.latencies().getTotalCount() >= settings.minSamples()) {
+                    errorRates.add(stats.errorRate());
+                }
+            }
+            compare(endpoint, "errorRate", entry.getValue().errorRate(), errorRates, true, settings.minErrorRateDelta())
+                    .ifPresent(comparisons::add);
+        }
+        if (current.requestsPerSecond() > 0) {
+            var values = new ArrayList<Double>();
+            for (var run : baseline) {
+                if (run.requestsPerSecond() > 0) {
+                    values.add(run.requestsPerSecond());
+                }
+            }
+            compare("all", "requestsPerSecond", current.requestsPerSecond(), values, false, 0).ifPresent(comparisons::add);
+        }
+        return new RegressionReport(current, baseline, settings, comparisons);
+    }
+
+    /**
+     * @param minDelta absolute change that is never flagged
+     */
+    private Optional<RegressionReport.Comparison> compare(String endpoint, String metric, double current,
+                                                                    List<Double> baseline, boolean higherIsWorse, double minDelta) {
+        if (baseline.size() < settings.minRuns()) {
+            return Optional.empty();
+        }
+        var centre = median(baseline);
+        var band = Math.max(Math.max(settings.sigmas() * standardDeviation(baseline), settings.tolerance() * centre), minDelta);
+        var delta = current - centre;
+        var worse = higherIsWorse ? delta > band : -delta > band;
+        var better = higherIsWorse ? -delta > band : delta > band;
+        var verdict = worse ? RegressionReport.Verdict.REGRESSED
+                : better ? RegressionReport.Verdict.IMPROVED : RegressionReport.Verdict.UNCHANGED;
+        return Optional.of(new RegressionReport.Comparison(endpoint, metric, centre, band, current, baseline.size(), verdict));
+    }
+
+    private static double median(List<Double> values) {
+        var sorted = values.stream().sorted().toList();
+        var middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+
+    private static double standardDeviation(List<Double> values) {
+        if (values.size() < 2) {
+            return 0.0;
+        }
+        var mean = values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        var squares = values.stream().mapToDouble(value -> (value - mean) * (value - mean)).sum();
+        return Math.sqrt(squares / (values.size() - 1));
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile).replace(".", "");
+    }
+}
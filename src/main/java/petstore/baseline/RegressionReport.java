@@ -0,0 +1,108 @@
+package petstore.baseline;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Diff of one run against its baseline, written as JSON next to the run's own report.
+ */
+public class RegressionReport {
+
+    public enum Verdict {
+        REGRESSED, IMPROVED, UNCHANGED
+    }
+
+    /**
+     * @param baseline median over the baseline runs
+     * @param band     allowed distance from the median before the change counts
+     * @param runs     baseline runs the median and band come from
+     */
+    public record Comparison(String endpoint, String metric, double baseline, double band, double current, int runs,
+                             Verdict verdict) {
+
+        JSONObject toJson() {
+            return new JSONObject()
+                    .put("endpoint", endpoint)
+                    .put("metric", metric)
+                    .put("baseline", baseline)
+                    .put("band", band)
+                    .put("current", current)
+                    .put("changePercent", baseline == 0 ? 0.0 : (current - baseline) / baseline * 100)
+                    .put("runs", runs)
+                    .put("verdict", verdict.name());
+        }
+    }
+
+    private final RunRecord current;
+    private final List<RunRecord> baseline;
+    private final BaselineSettings settings;
+    private final List<Comparison> comparisons;
+
+    RegressionReport(RunRecord current, List<RunRecord> baseline, BaselineSettings settings, List<Comparison> comparisons) {
+        this.current = current;
+        this.baseline = List.copyOf(baseline);
+        this.settings = settings;
+        this.comparisons = List.copyOf(comparisons);
+    }
+
+    public List<Comparison> comparisons() {
+        return comparisons;
+    }
+
+    public List<Comparison> regressions() {
+        return comparisons.stream().filter(comparison -> comparison.verdict() == Verdict.REGRESSED).toList();
+    }
+
+    /**
+     * Whether any comparison regressed; such a run is not stored, so it does not drag the baseline along.
+     */
+    public boolean regressed() {
+        return comparisons.stream().anyMatch(comparison -> comparison.verdict() == Verdict.REGRESSED);
+    }
+
+    public JSONObject toJson() {
+        var revisions = new JSONArray();
+        baseline.forEach(run -> revisions.put(run.revision()));
+        var comparisonJson = new JSONArray();
+        comparisons.forEach(comparison -> comparisonJson.put(comparison.toJson()));
+        return new JSONObject()
+                .put("source", current.source())
+                .put("profile", current.profile())
+                .put("revision", current.revision())
+                .put("environment", current.environment())
+                .put("recordedAt", current.recordedAt().toString())
+                .put("baselineRevisions", revisions)
+                .put("settings", settings.toJson())
+                .put("regressions", regressions().size())
+                .put("comparisons", comparisonJson);
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    public String summary() {
+        var summary = new StringBuilder();
+        if (baseline.size() < settings.minRuns()) {
+            return String.format("%s baseline: %d of %d runs stored for %s, nothing compared yet%n",
+                    current.source(), baseline.size(), settings.minRuns(), current.environment());
+        }
+        summary.append(String.format("%s baseline: %d regression(s) against %d runs on %s%s%n",
+                current.source(), regressions().size(), baseline.size(), current.environment(),
+                regressed() ? ", run not stored" : ""));
+        summary.append(String.format("%-32s %-18s %10s %10s %10s %9s%n", "endpoint", "metric", "baseline", "band", "current", "verdict"));
+        for (var comparison : comparisons) {
+            summary.append(String.format("%-32s %-18s %10.2f %10.2f %10.2f %9s%n", comparison.endpoint(), comparison.metric(),
+                    comparison.baseline(), comparison.band(), comparison.current(), comparison.verdict()));
+        }
+        return summary.toString();
+    }
+}
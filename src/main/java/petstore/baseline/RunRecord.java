@@ -0,0 +1,70 @@
+package petstore.baseline;
+
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+import petstore.metrics.HistogramCodec;
+import petstore.metrics.LatencyRegistry;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The stored result of one run: per-endpoint latency histograms and error counts plus request
+ * throughput (0 where the run has no meaningful rate, e.g. the functional suite).
+ *
+ * @param profile fingerprint of the load profile the run was driven with; null for runs without one
+ */
+public record RunRecord(String source, String profile, String revision, String environment, Instant recordedAt,
+                        double requestsPerSecond, Map<String, Endpoint> endpoints) {
+
+    public record Endpoint(Histogram latencies, long errors) {
+
+        /**
+         * Share of the endpoint's calls that failed.
+         */
+        public double errorRate() {
+            var total = latencies.getTotalCount();
+            return total == 0 ? 0.0 : (double) errors / total;
+        }
+    }
+
+    public RunRecord {
+        endpoints = Map.copyOf(endpoints);
+    }
+
+    public static RunRecord of(String source, String profile, BaselineSettings settings, LatencyRegistry registry,
+                               double requestsPerSecond) {
+        var endpoints = new TreeMap<String, Endpoint>();
+        for (var stats : registry.all()) {
+            endpoints.put(stats.endpoint(), new Endpoint(stats.snapshot(), stats.errors()));
+        }
+        return new RunRecord(source, profile, settings.revision(), settings.environment(), Instant.now(), requestsPerSecond, endpoints);
+    }
+
+    public static RunRecord fromJson(JSONObject json) {
+        var endpoints = new TreeMap<String, Endpoint>();
+        var endpointsJson = json.getJSONObject("endpoints");
+        for (var endpoint : endpointsJson.keySet()) {
+            var stats = endpointsJson.getJSONObject(endpoint);
+            endpoints.put(endpoint, new Endpoint(HistogramCodec.decode(stats.getString("histogram")), stats.getLong("errors")));
+        }
+        return new RunRecord(json.getString("source"), json.optString("profile", null), json.getString("revision"), json.getString("environment"),
+                Instant.parse(json.getString("recordedAt")), json.getDouble("requestsPerSecond"), endpoints);
+    }
+
+    public JSONObject toJson() {
+        var endpointsJson = new JSONObject();
+        new TreeMap<>(endpoints).forEach((endpoint, stats) -> endpointsJson.put(endpoint, new JSONObject()
+                .put("histogram", HistogramCodec.encode(stats.latencies()))
+                .put("errors", stats.errors())));
+        return new JSONObject()
+                .put("source", source)
+                .put("profile", profile)
+                .put("revision", revision)
+                .put("environment", environment)
+                .put("recordedAt", recordedAt.toString())
+                .put("requestsPerSecond", requestsPerSecond)
+                .put("endpoints", endpointsJson);
+    }
+}
@@ -0,0 +1,64 @@
+package petstore.capacity;
+
+import org.HdrHistogram.Histogram;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.load.LoadReport;
+import petstore.metrics.EndpointStats;
+
+import java.util.List;
+
+/**
+ * One step of a capacity search: the rate offered, what the store delivered at it, and whether that
+ * was sustainable. A step is sustainable when every objective was met and the store kept up with the
+ * schedule (nothing dropped, enough iterations completed).
+ */
+public record CapacityPoint(double offeredRate, LoadReport load, List<ServiceLevelObjective.Outcome> outcomes,
+                            boolean keptUp) {
+
+    public boolean sustained() {
+        return keptUp && outcomes.stream().allMatch(ServiceLevelObjective.Outcome::passed);
+    }
+
+    public double throughput() {
+        return load.requestThroughput();
+    }
+
+    /**
+     * Latency of all endpoints together at the percentile, the y axis of the capacity curve.
+     */
+    public double millisAt(double percentile) {
+        var all = new Histogram(3);
+        load.registry().all().forEach(stats -> all.add(stats.snapshot()));
+        return EndpointStats.millisAt(all, percentile);
+    }
+
+    public String describe() {
+        var text = new StringBuilder(String.format("%.1f it/s offered, %.1f req/s, p99 %.1f ms: %s", offeredRate,
+                throughput(), millisAt(99), sustained() ? "sustained" : "not sustained"));
+        if (!keptUp) {
+            text.append(String.format(" (fell behind: %d of %d iterations completed, %d dropped)",
+                    load.completedIterations(), load.scheduledIterations(), load.droppedIterations()));
+        }
+        outcomes.stream().filter(outcome -> !outcome.passed())
+                .forEach(outcome -> text.append("; ").append(outcome.describe()));
+        return text.toString();
+    }
+
+    public JSONObject toJson() {
+        var outcomeJson = new JSONArray();
+        outcomes.forEach(outcome -> outcomeJson.put(outcome.toJson()));
+        return new JSONObject()
+                .put("offeredRate", offeredRate)
+                .put("requestsPerSecond", throughput())
+                .put("iterationsPerSecond", load.iterationThroughput())
+                .put("p50Ms", millisAt(50))
+                .put("p90Ms", millisAt(90))
+                .put("p99Ms", millisAt(99))
+                .put("errorRate", load.errorRate())
+                .put("keptUp", keptUp)
+                .put("sustained", sustained())
+                .put("objectives", outcomeJson)
+                .put("load", load.toJson());
+    }
+}
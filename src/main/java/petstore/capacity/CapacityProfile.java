@@ -0,0 +1,87 @@
+package petstore.capacity;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.load.LoadProfile;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A capacity search: offered loads to try, how long each is held, and the objectives a load must meet.
+ *
+ * @param load               mix, workers, engine and arrivals of every step; its rate and duration are replaced
+ * @param objectives         what every step must meet to count as sustainable
+ * @param mode               how the next rate is chosen
+ * @param startRate          first offered rate, in scenario iterations per second
+ * @param stepRate           rate added per step in STEP mode
+ * @param maxRate            highest rate offered; reaching it still sustainable means the limit was not found
+ * @param precision          BINARY mode stops once the gap between good and bad rate is below this share of the bad rate
+ * @param warmup             unmeasured run at the start rate before the first step, so a cold JVM or store
+ *                           does not fail it
+ * @param stepDuration       how long each rate is held
+ * @param cooldown           pause between steps, so one step's backlog does not spill into the next
+ * @param minCompletedRatio  share of scheduled iterations that must complete; less means the store fell behind
+ */
+public record CapacityProfile(LoadProfile load, List<ServiceLevelObjective> objectives, SearchMode mode,
+                              double startRate, double stepRate, double maxRate, double precision,
+                              Duration warmup, Duration stepDuration, Duration cooldown, double minCompletedRatio) {
+
+    public static final String DEFAULT_OBJECTIVES = "POST store/order|p99<300ms|errors<0.1%; GET pet/findByStatus|p99<300ms|errors<0.1%";
+
+    public CapacityProfile {
+        objectives = List.copyOf(objectives);
+        if (objectives.isEmpty()) {
+            throw new IllegalArgumentException("A capacity search needs at least one objective, set petstore.capacity.slo");
+        }
+        if (startRate <= 0 || stepRate <= 0 || maxRate < startRate) {
+            throw new IllegalArgumentException("Capacity rates must be positive with startRate <= maxRate, were "
+                    + startRate + ", " + stepRate + " and " + maxRate);
+        }
+        if (precision <= 0 || precision >= 1) {
+            throw new IllegalArgumentException("Capacity precision must be between 0 and 1, was " + precision);
+        }
+    }
+
+    public static CapacityProfile fromSettings(String baseUri) {
+        var startRate = Settings.getDouble("petstore.capacity.startRate", 5);
+        return new CapacityProfile(
+                LoadProfile.fromSettings(baseUri),
+                ServiceLevelObjective.parseAll(Settings.get("petstore.capacity.slo", DEFAULT_OBJECTIVES)),
+                SearchMode.valueOf(Settings.get("petstore.capacity.search", "binary").toUpperCase()),
+                startRate,
+                Settings.getDouble("petstore.capacity.stepRate", startRate),
+                Settings.getDouble("petstore.capacity.maxRate", 1000),
+                Settings.getDouble("petstore.capacity.precision", 0.05),
+                Settings.getDuration("petstore.capacity.warmup", Duration.ofSeconds(10)),
+                Settings.getDuration("petstore.capacity.stepDuration", Duration.ofSeconds(30)),
+                Settings.getDuration("petstore.capacity.cooldown", Duration.ofSeconds(2)),
+                Settings.getDouble("petstore.capacity.minCompletedRatio", 0.99));
+    }
+
+    /**
+     * The load profile for one step, or for the warm-up.
+     */
+    LoadProfile loadAt(double rate, Duration duration) {
+        return new LoadProfile(load.baseUri(), rate, duration, load.workers(), load.mix(),
+                load.maxErrorRate(), load.engine(), load.arrivals());
+    }
+
+    public JSONObject toJson() {
+        var objectiveJson = new JSONArray();
+        objectives.forEach(objective -> objectiveJson.put(objective.toJson()));
+        return new JSONObject()
+                .put("load", load.toJson())
+                .put("objectives", objectiveJson)
+                .put("search", mode.name())
+                .put("startRate", startRate)
+                .put("stepRate", stepRate)
+                .put("maxRate", maxRate)
+                .put("precision", precision)
+                .put("warmupSeconds", warmup.toMillis() / 1000.0)
+                .put("stepSeconds", stepDuration.toMillis() / 1000.0)
+                .put("cooldownSeconds", cooldown.toMillis() / 1000.0)
+                .put("minCompletedRatio", minCompletedRatio);
+    }
+}
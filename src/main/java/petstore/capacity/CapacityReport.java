@@ -0,0 +1,154 @@
+package petstore.capacity;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.load.RunReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a capacity search: every step in order of offered rate, the highest sustained one, and
+ * the knee of the latency curve, i.e. where p99 latency stops growing slowly with the load and starts
+ * growing fast. The knee is the point furthest below the straight line from the first to the last point,
+ * with both axes scaled to 0..1 and p99 taken as its running maximum, so one lucky step past the limit
+ * cannot pull the knee up. It usually sits a little below the maximum sustainable load and is the
+ * better number to plan with.
+ */
+public class CapacityReport implements RunReport {
+
+    private final CapacityProfile profile;
+    private final List<CapacityPoint> points;
+    private final boolean limitNotFound;
+
+    /**
+     * @param limitNotFound every rate up to the maximum was sustained
+     */
+    CapacityReport(CapacityProfile profile, List<CapacityPoint> points, boolean limitNotFound) {
+        this.profile = profile;
+        this.points = points.stream().sorted(Comparator.comparingDouble(CapacityPoint::offeredRate)).toList();
+        this.limitNotFound = limitNotFound;
+    }
+
+    public List<CapacityPoint> points() {
+        return points;
+    }
+
+    public boolean limitNotFound() {
+        return limitNotFound;
+    }
+
+    /**
+     * The sustained step with the highest offered rate, or null when not even the start rate was sustained.
+     */
+    public CapacityPoint maxSustained() {
+        return points.stream().filter(CapacityPoint::sustained)
+                .max(Comparator.comparingDouble(CapacityPoint::offeredRate)).orElse(null);
+    }
+
+    /**
+     * Request throughput of the highest sustained step; 0 when none was sustained.
+     */
+    public double maxSustainableThroughput() {
+        var best = maxSustained();
+        return best == null ? 0 : best.throughput();
+    }
+
+    /**
+     * The knee of the p99 curve; null when the limit was not found, with fewer than three steps, or with a flat curve.
+     * The first and last step are never the knee.
+     */
+    public CapacityPoint knee() {
+        if (limitNotFound || points.size() < 3) {
+            return null;
+        }
+        var envelope = new double[points.size()];
+        for (var i = 0; i < envelope.length; i++) {
+            envelope[i] = Math.max(i == 0 ? 0 : envelope[i - 1], points.get(i).millisAt(99));
+        }
+        var first = points.get(0).offeredRate();
+        var xRange = points.get(points.size() - 1).offeredRate() - first;
+        var yRange = envelope[envelope.length - 1] - envelope[0];
+        if (xRange <= 0 || yRange <= 0) {
+            return null;
+        }
+        CapacityPoint knee = null;
+        var largest = 0.0;
+        for (var i = 1; i < points.size() - 1; i++) {
+            var x = (points.get(i).offeredRate() - first) / xRange;
+            var y = (envelope[i] - envelope[0]) / yRange;
+            if (x - y > largest) {
+                largest = x - y;
+                knee = points.get(i);
+            }
+        }
+        return knee;
+    }
+
+    public JSONObject toJson() {
+        var pointJson = new JSONArray();
+        points.forEach(point -> pointJson.put(point.toJson()));
+        var best = maxSustained();
+        var knee = knee();
+        return new JSONObject()
+                .put("profile", profile.toJson())
+                .put("maxSustainableRate", best == null ? 0 : best.offeredRate())
+                .put("maxSustainableThroughput", maxSustainableThroughput())
+                .put("limitNotFound", limitNotFound)
+                .put("knee", knee == null ? JSONObject.NULL : new JSONObject()
+                        .put("offeredRate", knee.offeredRate())
+                        .put("requestsPerSecond", knee.throughput())
+                        .put("p99Ms", knee.millisAt(99)))
+                .put("points", pointJson);
+    }
+
+    @Override
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    /**
+     * Writes the throughput-versus-latency curve as CSV, one row per step, for plotting.
+     */
+    public void writeCurve(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        var csv = new StringBuilder("offered_rate,requests_per_second,p50_ms,p90_ms,p99_ms,error_rate,sustained\n");
+        for (var point : points) {
+            csv.append(String.format(Locale.ROOT, "%.3f,%.3f,%.3f,%.3f,%.3f,%.5f,%b%n", point.offeredRate(), point.throughput(),
+                    point.millisAt(50), point.millisAt(90), point.millisAt(99), point.load().errorRate(), point.sustained()));
+        }
+        Files.writeString(path, csv);
+    }
+
+    @Override
+    public String summary() {
+        var summary = new StringBuilder();
+        summary.append(String.format("Capacity search (%s), %d steps of %ds against: %s%n", profile.mode(), points.size(),
+                profile.stepDuration().toSeconds(), profile.objectives()));
+        summary.append(String.format("%12s %10s %9s %9s %9s %8s %s%n", "offered it/s", "req/s", "p50 ms", "p90 ms",
+                "p99 ms", "errors", "sustained"));
+        var knee = knee();
+        for (var point : points) {
+            summary.append(String.format("%12.1f %10.1f %9.2f %9.2f %9.2f %7.2f%% %s%s%n", point.offeredRate(), point.throughput(),
+                    point.millisAt(50), point.millisAt(90), point.millisAt(99), point.load().errorRate() * 100,
+                    point.sustained() ? "yes" : "no", point == knee ? "  <- knee" : ""));
+        }
+        var best = maxSustained();
+        if (best == null) {
+            summary.append("Not even the start rate was sustained").append(System.lineSeparator());
+        } else {
+            summary.append(String.format("Max sustainable: %.1f it/s offered, %.1f req/s%s%n", best.offeredRate(),
+                    best.throughput(), limitNotFound ? " (the maximum rate, the limit is higher)" : ""));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package petstore.capacity;
+
+import petstore.load.LoadGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the highest offered load at which the store still meets its objectives. Each step holds one rate
+ * for the step duration on a fresh {@link LoadGenerator}, so the latency of a step is never mixed with
+ * the previous one. STEP mode climbs by a fixed step until a step is not sustained; BINARY mode doubles
+ * the rate until then and bisects between the last sustained and the first unsustained rate.
+ * An unmeasured warm-up at the start rate comes first.
+ */
+public class CapacitySearch {
+
+    //Bisection ends after this many steps even when the precision was not reached, e.g. on a noisy store
+    private static final int MAX_BISECTIONS = 12;
+
+    private final CapacityProfile profile;
+    private final List<CapacityPoint> points = new ArrayList<>();
+
+    public CapacitySearch(CapacityProfile profile) {
+        this.profile = profile;
+    }
+
+    public CapacityReport run() throws InterruptedException {
+        if (!profile.warmup().isZero()) {
+            new LoadGenerator(profile.loadAt(profile.startRate(), profile.warmup())).run();
+            TimeUnit.MILLISECONDS.sleep(profile.cooldown().toMillis());
+        }
+        double sustained = 0;
+        var unsustained = Double.NaN;
+        var rate = profile.startRate();
+        while (rate <= profile.maxRate()) {
+            if (step(rate).sustained()) {
+                sustained = rate;
+                rate = profile.mode() == SearchMode.STEP ? rate + profile.stepRate() : rate * 2;
+            } else {
+                unsustained = rate;
+                break;
+            }
+        }
+        if (Double.isNaN(unsustained) && sustained < profile.maxRate()) {
+            //The doubling overshot the maximum; try the maximum itself
+            if (step(profile.maxRate()).sustained()) {
+                sustained = profile.maxRate();
+            } else {
+                unsustained = profile.maxRate();
+            }
+        }
+        if (profile.mode() == SearchMode.BINARY && !Double.isNaN(unsustained)) {
+            for (var i = 0; i < MAX_BISECTIONS && unsustained - sustained > profile.precision() * unsustained; i++) {
+                var middle = (sustained + unsustained) / 2;
+                if (step(middle).sustained()) {
+                    sustained = middle;
+                } else {
+                    unsustained = middle;
+                }
+            }
+        }
+        return new CapacityReport(profile, points, Double.isNaN(unsustained));
+    }
+
+    private CapacityPoint step(double rate) throws InterruptedException {
+        if (!points.isEmpty()) {
+            TimeUnit.MILLISECONDS.sleep(profile.cooldown().toMillis());
+        }
+        var load = new LoadGenerator(profile.loadAt(rate, profile.stepDuration())).run();
+        var outcomes = profile.objectives().stream().map(objective -> objective.evaluate(load.registry())).toList();
+        var keptUp = load.droppedIterations() == 0
+                && load.completedIterations() >= profile.minCompletedRatio() * load.scheduledIterations();
+        var point = new CapacityPoint(rate, load, outcomes, keptUp);
+        points.add(point);
+        System.out.println("Capacity step: " + point.describe());
+        return point;
+    }
+}
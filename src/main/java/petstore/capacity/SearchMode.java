@@ -0,0 +1,13 @@
+package petstore.capacity;
+
+/**
+ * How the capacity search picks the next offered load (petstore.capacity.search).
+ */
+public enum SearchMode {
+
+    //Raise the rate by a fixed step until the objectives break; evenly spaced points for the curve
+    STEP,
+
+    //Double the rate until the objectives break, then bisect between the last good and the first bad rate
+    BINARY
+}
@@ -0,0 +1,132 @@
+package petstore.capacity;
+
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.metrics.EndpointStats;
+import petstore.metrics.LatencyRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What one endpoint must deliver at a load for that load to count as sustainable. Written as
+ * "endpoint|pNN&lt;latency|errors&lt;share", several separated by ';', e.g.
+ * "POST store/order|p99&lt;300ms|errors&lt;0.1%; GET pet/findByStatus|p99&lt;300ms|errors&lt;0.1%".
+ * The endpoint is a key as the load mode records it (see the PetStoreRequests constants), or * for all
+ * endpoints together. Either bound may be left out.
+ *
+ * @param percentile   0 when only the error rate is bounded
+ * @param maxErrorRate 1.0 when only the latency is bounded
+ */
+public record ServiceLevelObjective(String endpoint, double percentile, double maxMillis, double maxErrorRate) {
+
+    public static final String ALL_ENDPOINTS = "*";
+
+    public static List<ServiceLevelObjective> parseAll(String spec) {
+        var objectives = new ArrayList<ServiceLevelObjective>();
+        if (spec == null || spec.isBlank()) {
+            return objectives;
+        }
+        for (var objective : spec.split(";")) {
+            if (!objective.isBlank()) {
+                objectives.add(parse(objective));
+            }
+        }
+        return objectives;
+    }
+
+    public static ServiceLevelObjective parse(String spec) {
+        var fields = spec.split("\\|");
+        double percentile = 0;
+        double maxMillis = 0;
+        var maxErrorRate = 1.0;
+        for (var i = 1; i < fields.length; i++) {
+            var field = fields[i].trim();
+            var bound = field.indexOf('<');
+            if (bound < 0) {
+                throw new IllegalArgumentException("Expected name<bound in objective " + spec + ", was " + field);
+            }
+            var name = field.substring(0, bound).trim();
+            var value = field.substring(bound + 1).trim();
+            if (name.equals("errors")) {
+                maxErrorRate = value.endsWith("%")
+                        ? Double.parseDouble(value.substring(0, value.length() - 1)) / 100
+                        : Double.parseDouble(value);
+            } else if (name.startsWith("p")) {
+                percentile = Double.parseDouble(name.substring(1));
+                maxMillis = Settings.parseDuration(value).toNanos() / 1_000_000.0;
+            } else {
+                throw new IllegalArgumentException("Unknown bound " + name + " in objective " + spec);
+            }
+        }
+        return new ServiceLevelObjective(fields[0].trim(), percentile, maxMillis, maxErrorRate);
+    }
+
+    /**
+     * Checks the calls of one load step against this objective.
+     */
+    public Outcome evaluate(LatencyRegistry registry) {
+        var latencies = new Histogram(3);
+        long count = 0;
+        long errors = 0;
+        for (var stats : registry.all()) {
+            if (endpoint.equals(ALL_ENDPOINTS) || stats.endpoint().equals(endpoint)) {
+                latencies.add(stats.snapshot());
+                count += stats.count();
+                errors += stats.errors();
+            }
+        }
+        var actualMillis = percentile > 0 ? EndpointStats.millisAt(latencies, percentile) : 0;
+        return new Outcome(this, count, actualMillis, count == 0 ? 0 : (double) errors / count);
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("endpoint", endpoint)
+                .put("percentile", percentile)
+                .put("maxMs", maxMillis)
+                .put("maxErrorRate", maxErrorRate);
+    }
+
+    @Override
+    public String toString() {
+        var text = new StringBuilder(endpoint);
+        if (percentile > 0) {
+            text.append(" p").append(percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile))
+                    .append(" < ").append(maxMillis).append(" ms");
+        }
+        if (maxErrorRate < 1) {
+            text.append(" errors < ").append(maxErrorRate * 100).append('%');
+        }
+        return text.toString();
+    }
+
+    /**
+     * An objective checked against one step; an endpoint that was not called at all fails.
+     */
+    public record Outcome(ServiceLevelObjective objective, long samples, double actualMillis, double errorRate) {
+
+        public boolean passed() {
+            return samples > 0
+                    && (objective.percentile == 0 || actualMillis <= objective.maxMillis)
+                    && errorRate <= objective.maxErrorRate;
+        }
+
+        public String describe() {
+            if (samples == 0) {
+                return objective + ": no calls";
+            }
+            return String.format("%s: %.1f ms, errors %.2f%% over %d calls, %s", objective, actualMillis, errorRate * 100,
+                    samples, passed() ? "met" : "missed");
+        }
+
+        public JSONObject toJson() {
+            return objective.toJson()
+                    .put("samples", samples)
+                    .put("actualMs", actualMillis)
+                    .put("errorRate", errorRate)
+                    .put("passed", passed());
+        }
+    }
+}
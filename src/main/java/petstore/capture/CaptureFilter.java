@@ -0,0 +1,88 @@
+package petstore.capture;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import petstore.metrics.TimingFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RestAssured filter that appends every call, request and response, to a traffic log. Paths are
+ * stored relative to the base URI so the log can be replayed against another store.
+ */
+public class CaptureFilter implements OrderedFilter {
+
+    private final TrafficLogWriter writer;
+    private final long captureStartNanos;
+
+    public CaptureFilter(TrafficLogWriter writer, long captureStartNanos) {
+        this.writer = writer;
+        this.captureStartNanos = captureStartNanos;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        var start = System.nanoTime();
+        var response = ctx.next(requestSpec, responseSpec);
+        var duration = System.nanoTime() - start;
+        var exchange = new Exchange(start - captureStartNanos, duration,
+                TimingFilter.endpointKey(requestSpec.getMethod(), requestSpec.getUserDefinedPath()),
+                requestSpec.getMethod(), relativePath(requestSpec), headers(requestSpec.getHeaders()), body(requestSpec.getBody()),
+                response.statusCode(), headers(response.headers()), response.asByteArray());
+        try {
+            writer.append(exchange);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return response;
+    }
+
+    /**
+     * Outside the timing filters, so the time spent writing the log is not part of any measured latency.
+     */
+    @Override
+    public int getOrder() {
+        return TimingFilter.ORDER - 2;
+    }
+
+    private static String relativePath(FilterableRequestSpecification requestSpec) {
+        var uri = URI.create(requestSpec.getURI());
+        var basePath = URI.create(requestSpec.getBaseUri()).getRawPath();
+        var path = uri.getRawPath();
+        if (basePath != null && !basePath.isEmpty()) {
+            var prefix = basePath.endsWith("/") ? basePath : basePath + "/";
+            if (path.startsWith(prefix)) {
+                path = path.substring(prefix.length());
+            }
+        }
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+    }
+
+    private static List<Map.Entry<String, String>> headers(Headers headers) {
+        var entries = new ArrayList<Map.Entry<String, String>>();
+        for (var header : headers) {
+            entries.add(Map.entry(header.getName(), header.getValue()));
+        }
+        return entries;
+    }
+
+    private static byte[] body(Object body) {
+        if (body == null) {
+            return new byte[0];
+        }
+        return body instanceof byte[] ? (byte[]) body : String.valueOf(body).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package petstore.capture;
+
+import io.restassured.RestAssured;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import petstore.Settings;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Captures the suite's traffic into the traffic log named by petstore.capture.file; does nothing
+ * when that is not set.
+ */
+public class CaptureListener implements ISuiteListener {
+
+    private TrafficLogWriter writer;
+
+    @Override
+    public void onStart(ISuite suite) {
+        var file = Settings.get("petstore.capture.file", null);
+        if (file == null) {
+            return;
+        }
+        try {
+            writer = new TrafficLogWriter(Path.of(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        RestAssured.filters(new CaptureFilter(writer, System.nanoTime()));
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package petstore.capture;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One captured request/response pair, as handed to {@link TrafficLogWriter}.
+ *
+ * @param startOffsetNanos when the request was sent, relative to the start of the capture
+ * @param endpoint         latency key of the call, e.g. "GET user/{username}"
+ * @param path             path and query relative to the base URI, e.g. "user/login?username=a&amp;password=b"
+ */
+public record Exchange(long startOffsetNanos, long durationNanos, String endpoint, String method, String path,
+                       List<Map.Entry<String, String>> requestHeaders, byte[] requestBody, int status,
+                       List<Map.Entry<String, String>> responseHeaders, byte[] responseBody) {
+}
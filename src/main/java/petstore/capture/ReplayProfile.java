@@ -0,0 +1,60 @@
+package petstore.capture;
+
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.nio.file.Path;
+
+/**
+ * What to replay, where and how fast.
+ *
+ * @param speed       1 keeps the captured timing, N plays it N times faster, 0 sends as fast as possible
+ * @param concurrency requests in flight at once; a timed replay that hits it falls behind schedule
+ * @param threads     completion threads of the HTTP client
+ */
+public record ReplayProfile(String baseUri, Path file, double speed, int concurrency, int threads) {
+
+    public ReplayProfile {
+        if (baseUri == null || baseUri.isBlank()) {
+            throw new IllegalArgumentException("Pet store base URI is not set, provide PETSTOREURI");
+        }
+        if (speed < 0) {
+            throw new IllegalArgumentException("Replay speed must not be negative, was " + speed);
+        }
+        if (concurrency <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Replay concurrency and threads must be positive");
+        }
+    }
+
+    public static ReplayProfile fromSettings(String baseUri) {
+        return new ReplayProfile(
+                baseUri,
+                Path.of(Settings.get("petstore.replay.file", "target/traffic.pstl")),
+                parseSpeed(Settings.get("petstore.replay.speed", "original")),
+                Settings.getInt("petstore.replay.concurrency", 256),
+                Settings.getInt("petstore.replay.threads", 4));
+    }
+
+    /**
+     * "original", "max", or a factor such as "4" or "4x".
+     */
+    public static double parseSpeed(String speed) {
+        var value = speed.trim().toLowerCase();
+        if (value.equals("original")) {
+            return 1.0;
+        }
+        if (value.equals("max")) {
+            return 0.0;
+        }
+        return Double.parseDouble(value.endsWith("x") ? value.substring(0, value.length() - 1) : value);
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("baseUri", baseUri)
+                .put("file", file.toString())
+                .put("speed", speed == 0 ? "max" : speed + "x")
+                .put("concurrency", concurrency)
+                .put("threads", threads);
+    }
+}
@@ -0,0 +1,181 @@
+package petstore.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cursor over a traffic log written by {@link TrafficLogWriter}. The file is mapped read-only in
+ * windows of up to 256 MB; {@link #next()} moves to the next record and the accessors read it in
+ * place. Bodies come back as slices of the mapping, so replaying them copies nothing; they stay
+ * valid after the cursor has moved on.
+ */
+public final class TrafficLogReader implements AutoCloseable {
+
+    private static final long WINDOW_BYTES = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long captureStartMillis;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long next = TrafficLogWriter.HEADER_BYTES;
+
+    private ByteBuffer record;
+    private String endpoint;
+    private String method;
+    private String path;
+    private int requestHeaders;
+    private int requestBody;
+    private int responseHeaders;
+    private int responseBody;
+
+    public TrafficLogReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+        if (size < TrafficLogWriter.HEADER_BYTES) {
+            throw new IOException(file + " is not a traffic log, it is too short");
+        }
+        map(0, TrafficLogWriter.HEADER_BYTES);
+        if (window.getInt() != TrafficLogWriter.MAGIC || window.getShort() != TrafficLogWriter.VERSION) {
+            throw new IOException(file + " is not a version " + TrafficLogWriter.VERSION + " traffic log");
+        }
+        window.getShort();
+        captureStartMillis = window.getLong();
+    }
+
+    public long captureStartMillis() {
+        return captureStartMillis;
+    }
+
+    /**
+     * @return false at the end of the log
+     */
+    public boolean next() throws IOException {
+        if (next + 4 > size) {
+            return false;
+        }
+        ensureMapped(next, 4);
+        var length = window.getInt((int) (next - windowStart));
+        if (length <= 0 || next + 4 + length > size) {
+            return false;
+        }
+        ensureMapped(next, 4L + length);
+        var offset = (int) (next - windowStart) + 4;
+        record = window.slice(offset, length);
+        next += 4 + length;
+
+        var at = 18;
+        var endpointLength = record.getShort(at);
+        endpoint = string(at + 2, endpointLength);
+        at += 2 + endpointLength;
+        var methodLength = record.getShort(at);
+        method = string(at + 2, methodLength);
+        at += 2 + methodLength;
+        var pathLength = record.getInt(at);
+        path = string(at + 4, pathLength);
+        at += 4 + pathLength;
+        requestHeaders = at;
+        at = skipHeaders(at);
+        requestBody = at;
+        at += 4 + record.getInt(at);
+        responseHeaders = at;
+        at = skipHeaders(at);
+        responseBody = at;
+        return true;
+    }
+
+    public long startOffsetNanos() {
+        return record.getLong(0);
+    }
+
+    public long durationNanos() {
+        return record.getLong(8);
+    }
+
+    public int status() {
+        return record.getShort(16);
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public List<Map.Entry<String, String>> requestHeaders() {
+        return headers(requestHeaders);
+    }
+
+    public ByteBuffer requestBody() {
+        return record.slice(requestBody + 4, record.getInt(requestBody));
+    }
+
+    public List<Map.Entry<String, String>> responseHeaders() {
+        return headers(responseHeaders);
+    }
+
+    public ByteBuffer responseBody() {
+        return record.slice(responseBody + 4, record.getInt(responseBody));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureMapped(long start, long bytes) throws IOException {
+        if (start < windowStart || start + bytes > windowStart + window.capacity()) {
+            map(start, Math.min(size - start, Math.max(WINDOW_BYTES, bytes)));
+        }
+    }
+
+    private void map(long start, long bytes) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, bytes);
+        windowStart = start;
+    }
+
+    private int skipHeaders(int at) {
+        var count = record.getShort(at);
+        at += 2;
+        for (var i = 0; i < count; i++) {
+            at += 2 + record.getShort(at);
+            at += 4 + record.getInt(at);
+        }
+        return at;
+    }
+
+    private List<Map.Entry<String, String>> headers(int at) {
+        var count = record.getShort(at);
+        at += 2;
+        var headers = new ArrayList<Map.Entry<String, String>>(count);
+        for (var i = 0; i < count; i++) {
+            var nameLength = record.getShort(at);
+            var name = string(at + 2, nameLength);
+            at += 2 + nameLength;
+            var valueLength = record.getInt(at);
+            headers.add(Map.entry(name, string(at + 4, valueLength)));
+            at += 4 + valueLength;
+        }
+        return headers;
+    }
+
+    private String string(int at, int length) {
+        var bytes = new byte[length];
+        record.get(at, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,120 @@
+package petstore.capture;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends {@link Exchange}s to a memory-mapped traffic log. The file is mapped in regions of
+ * 64 MB that are filled in place and extended as needed; appends are serialized, so one writer
+ * can be shared by parallel tests. On close the file is cut back to the bytes written.
+ *
+ * <p>Layout, all big-endian: a 16 byte header (magic "PSTL", version, reserved, capture start
+ * epoch millis), then records, each an int length followed by
+ * <pre>
+ * long startOffsetNanos, long durationNanos, short status,
+ * short+bytes endpoint, short+bytes method, int+bytes path,
+ * short header count, per header short+bytes name and int+bytes value, int+bytes request body,
+ * short header count, headers as above, int+bytes response body
+ * </pre>
+ * A zero length ends the log, which also covers a capture that was never closed.
+ */
+public final class TrafficLogWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x5053544C;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private static final long REGION_BYTES = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private boolean closed;
+
+    public TrafficLogWriter(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(0, REGION_BYTES);
+        region.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(System.currentTimeMillis());
+        position = HEADER_BYTES;
+    }
+
+    public synchronized void append(Exchange exchange) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Traffic log is closed");
+        }
+        var endpoint = bytes(exchange.endpoint());
+        var method = bytes(exchange.method());
+        var path = bytes(exchange.path());
+        var length = 8 + 8 + 2
+                + 2 + endpoint.length + 2 + method.length + 4 + path.length
+                + headersLength(exchange.requestHeaders()) + 4 + exchange.requestBody().length
+                + headersLength(exchange.responseHeaders()) + 4 + exchange.responseBody().length;
+        //Room for the record and the zero length that terminates the log
+        if (position + 4 + length + 4 > regionStart + region.capacity()) {
+            map(position, Math.max(REGION_BYTES, 4L + length + 4));
+        }
+        region.position((int) (position - regionStart));
+        region.putInt(length)
+                .putLong(exchange.startOffsetNanos())
+                .putLong(exchange.durationNanos())
+                .putShort((short) exchange.status());
+        region.putShort((short) endpoint.length).put(endpoint);
+        region.putShort((short) method.length).put(method);
+        region.putInt(path.length).put(path);
+        putHeaders(exchange.requestHeaders());
+        region.putInt(exchange.requestBody().length).put(exchange.requestBody());
+        putHeaders(exchange.responseHeaders());
+        region.putInt(exchange.responseBody().length).put(exchange.responseBody());
+        position += 4 + length;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        region.force();
+        channel.truncate(position);
+        channel.close();
+    }
+
+    private void map(long start, long size) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        regionStart = start;
+    }
+
+    private void putHeaders(List<Map.Entry<String, String>> headers) {
+        region.putShort((short) headers.size());
+        for (var header : headers) {
+            var name = bytes(header.getKey());
+            var value = bytes(header.getValue());
+            region.putShort((short) name.length).put(name);
+            region.putInt(value.length).put(value);
+        }
+    }
+
+    private static int headersLength(List<Map.Entry<String, String>> headers) {
+        var length = 2;
+        for (var header : headers) {
+            length += 2 + bytes(header.getKey()).length + 4 + bytes(header.getValue()).length;
+        }
+        return length;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,128 @@
+package petstore.capture;
+
+import petstore.client.AsyncPetStoreClient;
+import petstore.load.LoadReport;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.LiveMetrics;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a traffic log against a store on the async client: at the captured timing, N times
+ * faster, or as fast as the concurrency limit allows. Request bodies go out straight from the
+ * mapped log. A replayed call counts as failed when the status differs from the captured one,
+ * which makes two server builds comparable on identical traffic.
+ */
+public class TrafficReplayer {
+
+    //Set by the HTTP client itself, it refuses them as user headers
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final ReplayProfile profile;
+    private final LatencyRegistry registry = new LatencyRegistry();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+
+    public TrafficReplayer(ReplayProfile profile) {
+        this.profile = profile;
+    }
+
+    public LoadReport run() throws IOException, InterruptedException {
+        LiveMetrics.publish("replay", registry);
+        try (var log = new TrafficLogReader(profile.file());
+             var client = new AsyncPetStoreClient(profile.baseUri(), profile.threads(), null)) {
+            return run(log, client);
+        }
+    }
+
+    private LoadReport run(TrafficLogReader log, AsyncPetStoreClient client) throws IOException, InterruptedException {
+        var inFlight = new Semaphore(profile.concurrency());
+        var sent = 0L;
+        var start = System.nanoTime();
+        while (log.next()) {
+            if (profile.speed() > 0) {
+                parkUntil(start + (long) (log.startOffsetNanos() / profile.speed()));
+            }
+            var request = client.requestTo(log.path())
+                    .method(log.method(), bodyOf(log.requestBody()));
+            for (var header : log.requestHeaders()) {
+                if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase())) {
+                    request.header(header.getKey(), header.getValue());
+                }
+            }
+            var endpoint = log.endpoint();
+            var expectedStatus = log.status();
+            inFlight.acquire();
+            var sentAt = System.nanoTime();
+            client.send(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                var ok = error == null && response.statusCode() == expectedStatus;
+                registry.record(endpoint, System.nanoTime() - sentAt, ok);
+                completed.increment();
+                if (!ok) {
+                    mismatched.increment();
+                }
+                inFlight.release();
+            });
+            sent++;
+        }
+        if (inFlight.tryAcquire(profile.concurrency(), 30, TimeUnit.SECONDS)) {
+            inFlight.release(profile.concurrency());
+        }
+        return new LoadReport("Replay", profile.toJson(), sent, completed.sum(), mismatched.sum(),
+                System.nanoTime() - start, registry);
+    }
+
+    private static HttpRequest.BodyPublisher bodyOf(ByteBuffer body) {
+        return body.remaining() == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.fromPublisher(new SingleBufferPublisher(body), body.remaining());
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Publishes one buffer, a slice of the mapped log, without copying it.
+     */
+    private static final class SingleBufferPublisher implements Flow.Publisher<ByteBuffer> {
+
+        private final ByteBuffer body;
+
+        private SingleBufferPublisher(ByteBuffer body) {
+            this.body = body;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            var done = new AtomicBoolean();
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n > 0 && done.compareAndSet(false, true)) {
+                        subscriber.onNext(body.duplicate());
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    done.set(true);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package petstore.check;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Checks a rule against every element of a JSON array body while reading it, for list endpoints
+ * such as pet/findByStatus whose responses are too large to buffer as one String. The body is
+ * tokenized from the stream one element at a time, so only the current element is held in memory,
+ * and reading stops at the first element that breaks the rule.
+ * <p>
+ * That only holds while nothing else has read the body first. On RestAssured, a filter that reads the
+ * response, such as the capture filter with petstore.capture.file set, pulls the whole body into memory
+ * before the check sees it; the check then streams from that copy. The async engine hands the check the
+ * connection's stream.
+ */
+public final class StreamingListCheck {
+
+    private static final int MAX_QUOTED_ELEMENT = 200;
+
+    private final String rule;
+    private final Predicate<JSONObject> predicate;
+
+    private StreamingListCheck(String rule, Predicate<JSONObject> predicate) {
+        this.rule = rule;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Every element must be an object whose field has the given value, e.g. fieldEquals("status", "available").
+     */
+    public static StreamingListCheck fieldEquals(String field, String expected) {
+        return every(field + " == \"" + expected + "\"", element -> {
+            var value = element.opt(field);
+            return value != null && Objects.equals(String.valueOf(value), expected);
+        });
+    }
+
+    /**
+     * Every element must be an object accepted by the predicate; the rule text is used in violation messages.
+     */
+    public static StreamingListCheck every(String rule, Predicate<JSONObject> predicate) {
+        return new StreamingListCheck(rule, predicate);
+    }
+
+    /**
+     * Reads the body as UTF-8 and closes it, which also hands a pooled connection back.
+     */
+    public Result check(InputStream body) {
+        try (var reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            return check(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Result check(Reader body) {
+        var tokens = new JSONTokener(body);
+        var elements = 0L;
+        try {
+            if (tokens.nextClean() != '[') {
+                return new Result(0, "body is not a JSON array");
+            }
+            if (tokens.nextClean() == ']') {
+                return new Result(0, null);
+            }
+            tokens.back();
+            while (true) {
+                var element = tokens.nextValue();
+                if (!(element instanceof JSONObject) || !predicate.test((JSONObject) element)) {
+                    return new Result(elements, "element " + elements + " breaks " + rule + ": " + quote(element));
+                }
+                elements++;
+                switch (tokens.nextClean()) {
+                    case ',':
+                        continue;
+                    case ']':
+                        return new Result(elements, null);
+                    default:
+                        return new Result(elements, "malformed array after element " + (elements - 1));
+                }
+            }
+        } catch (JSONException e) {
+            return new Result(elements, "malformed JSON at element " + elements + ": " + e.getMessage());
+        }
+    }
+
+    private static String quote(Object element) {
+        var text = String.valueOf(element);
+        return text.length() <= MAX_QUOTED_ELEMENT ? text : text.substring(0, MAX_QUOTED_ELEMENT) + "...";
+    }
+
+    /**
+     * @param elements  elements that passed before the check finished or stopped
+     * @param violation why the check stopped early, null when every element passed
+     */
+    public record Result(long elements, String violation) {
+
+        public boolean passed() {
+            return violation == null;
+        }
+
+        public String describe() {
+            return passed() ? elements + " elements passed" : violation;
+        }
+    }
+}
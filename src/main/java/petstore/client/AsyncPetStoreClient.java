@@ -0,0 +1,119 @@
+package petstore.client;
+
+import petstore.ApiCall;
+import petstore.Settings;
+import petstore.metrics.LatencyReportListener;
+import petstore.metrics.LatencyRegistry;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking alternative to {@link PetStoreClient} on the JDK HttpClient. Calls return at once
+ * with a CompletableFuture, so many can be in flight from a handful of threads; HTTP/2 is asked for
+ * and used where the server supports it (ALPN over TLS, h2c upgrade otherwise), so those calls
+ * share a few multiplexed connections. Completions run on a small daemon pool (petstore.async.threads).
+ */
+public class AsyncPetStoreClient implements AutoCloseable {
+
+    private static final ConcurrentHashMap<String, AsyncPetStoreClient> shared = new ConcurrentHashMap<>();
+
+    private final URI baseUri;
+    private final ExecutorService executor;
+    private final HttpClient http;
+    private final LatencyRegistry registry;
+    private final Duration requestTimeout;
+
+    /**
+     * @param registry records every call like the RestAssured timing filter does; null records nothing
+     */
+    public AsyncPetStoreClient(String baseUri, int threads, LatencyRegistry registry) {
+        this(baseUri, threads, registry, RequestPolicy.fromSettings());
+    }
+
+    /**
+     * @param policy only its timeouts apply here; retries and hedging are up to the caller
+     */
+    public AsyncPetStoreClient(String baseUri, int threads, LatencyRegistry registry, RequestPolicy policy) {
+        if (baseUri == null || baseUri.isBlank()) {
+            throw new IllegalArgumentException("Pet store base URI is not set, provide PETSTOREURI");
+        }
+        this.baseUri = URI.create(baseUri.endsWith("/") ? baseUri : baseUri + "/");
+        this.registry = registry;
+        this.requestTimeout = policy.requestTimeout();
+        var threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "petstore-async-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(policy.connectTimeout())
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Client for the base URI, recording into the suite's latency report, created on first use
+     * and kept for the rest of the JVM.
+     */
+    public static AsyncPetStoreClient forBaseUri(String baseUri) {
+        return shared.computeIfAbsent(baseUri, uri -> new AsyncPetStoreClient(uri,
+                Settings.getInt("petstore.async.threads", 4), LatencyReportListener.registry()));
+    }
+
+    /**
+     * Sends the call with a body handler of choice, e.g. ofInputStream() to check a large body while it arrives.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(ApiCall call, HttpResponse.BodyHandler<T> bodyHandler) {
+        var request = requestFor(call).build();
+        var start = System.nanoTime();
+        var response = http.sendAsync(request, bodyHandler);
+        if (registry == null) {
+            return response;
+        }
+        return response.whenComplete((reply, error) ->
+                registry.record(call.endpoint(), System.nanoTime() - start, error == null && reply.statusCode() < 500));
+    }
+
+    /**
+     * A request builder for the call, for callers that add headers of their own, such as a session token.
+     * Send it with {@link #send(HttpRequest, HttpResponse.BodyHandler)}.
+     */
+    public HttpRequest.Builder requestFor(ApiCall call) {
+        return requestTo(call.expandedPath())
+                .header("Content-Type", "application/json; charset=utf8")
+                .method(call.method(), call.body() == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(call.body()));
+    }
+
+    /**
+     * A request builder for a path and query relative to the base URI, for callers that bring their
+     * own method, headers and body, such as traffic replay. The request timeout is already set.
+     */
+    public HttpRequest.Builder requestTo(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(requestTimeout);
+    }
+
+    /**
+     * Sends a request built with {@link #requestTo(String)}; nothing is recorded.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return http.sendAsync(request, bodyHandler);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package petstore.client;
+
+import petstore.Settings;
+
+import java.time.Duration;
+
+/**
+ * Sizing and lifetime of the pooled connections shared by all requests of a run.
+ *
+ * @param maxTotal      connections across all routes
+ * @param maxPerRoute   connections to one host, the pet store is normally the only route
+ * @param keepAlive     how long an idle connection is kept when the server sends no Keep-Alive timeout
+ * @param idleTimeout   connections idle for longer are closed by the evictor
+ * @param evictInterval how often the evictor runs
+ */
+public record ConnectionPoolSettings(int maxTotal, int maxPerRoute, Duration keepAlive, Duration idleTimeout,
+                                     Duration evictInterval) {
+
+    public static ConnectionPoolSettings fromSettings() {
+        return new ConnectionPoolSettings(
+                Settings.getInt("petstore.http.maxTotal", 200),
+                Settings.getInt("petstore.http.maxPerRoute", 200),
+                Settings.getDuration("petstore.http.keepAlive", Duration.ofSeconds(30)),
+                Settings.getDuration("petstore.http.idleTimeout", Duration.ofSeconds(30)),
+                Settings.getDuration("petstore.http.evictInterval", Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,119 @@
+package petstore.client;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.pool.PoolStats;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pooled, keep-alive HTTP client per pet store base URI, with a request specification
+ * that is built once and never mutated. Each call starts from {@link #request()}, which
+ * copies the shared specification, so no test touches RestAssured's static state.
+ */
+@SuppressWarnings("deprecation")
+public class PetStoreClient implements AutoCloseable {
+
+    private static final ConcurrentHashMap<String, PetStoreClient> shared = new ConcurrentHashMap<>();
+
+    private final PoolingClientConnectionManager connectionManager;
+    private final ScheduledExecutorService evictor;
+    private final RequestSpecification spec;
+
+    public PetStoreClient(String baseUri, ConnectionPoolSettings pool) {
+        this(baseUri, pool, RequestPolicy.fromSettings());
+    }
+
+    /**
+     * @param policy only its timeouts apply here; retries and hedging are up to the caller
+     */
+    public PetStoreClient(String baseUri, ConnectionPoolSettings pool, RequestPolicy policy) {
+        if (baseUri == null || baseUri.isBlank()) {
+            throw new IllegalArgumentException("Pet store base URI is not set, provide PETSTOREURI");
+        }
+        connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal(pool.maxTotal());
+        connectionManager.setDefaultMaxPerRoute(pool.maxPerRoute());
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "petstore-http-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var interval = pool.evictInterval().toMillis();
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(pool.idleTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }, interval, interval, TimeUnit.MILLISECONDS);
+
+        var keepAliveMillis = pool.keepAlive().toMillis();
+        var connectTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, policy.connectTimeout().toMillis());
+        var socketTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, policy.requestTimeout().toMillis());
+        var config = RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .reuseHttpClientInstance()
+                .httpClientFactory(() -> {
+                    var client = new DefaultHttpClient(connectionManager);
+                    HttpConnectionParams.setConnectionTimeout(client.getParams(), connectTimeoutMillis);
+                    HttpConnectionParams.setSoTimeout(client.getParams(), socketTimeoutMillis);
+                    //Retries belong to the RequestPolicy, where they are counted; silent resends would hide resets
+                    client.setHttpRequestRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+                    client.setKeepAliveStrategy((response, context) -> {
+                        var serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return serverKeepAlive > 0 ? serverKeepAlive : keepAliveMillis;
+                    });
+                    return client;
+                }));
+
+        spec = new RequestSpecBuilder()
+                .setBaseUri(baseUri)
+                .addHeader("Content-Type", "application/json; charset=utf8")
+                .setConfig(config)
+                .build();
+    }
+
+    /**
+     * Client for the base URI, created with {@link ConnectionPoolSettings#fromSettings()} on first use
+     * and kept for the rest of the JVM.
+     */
+    public static PetStoreClient forBaseUri(String baseUri) {
+        return shared.computeIfAbsent(baseUri, uri -> new PetStoreClient(uri, ConnectionPoolSettings.fromSettings()));
+    }
+
+    /**
+     * The shared specification; pass it to RestAssured.given(spec) rather than mutating it.
+     */
+    public RequestSpecification spec() {
+        return spec;
+    }
+
+    /**
+     * A fresh specification for one test or scenario step, backed by the shared connection pool.
+     */
+    public RequestSpecification request() {
+        return RestAssured.given(spec);
+    }
+
+    /**
+     * Connections currently leased to requests, idle in the pool, and requests waiting for one.
+     */
+    public PoolStats poolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        connectionManager.shutdown();
+    }
+}
@@ -0,0 +1,227 @@
+package petstore.client;
+
+import io.restassured.response.Response;
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * How long a request may take and what is done when it fails or is slow. Timeouts are applied by the
+ * clients; retries and hedging by {@link #execute} and {@link #executeAsync}. A hedge is a second copy of a
+ * request sent when the first has not answered after hedgeAfter; whichever answers first is used, which
+ * trades extra load for a shorter tail. Retries wrap the hedged pair, so each retry may be hedged again.
+ *
+ * @param connectTimeout longest wait for a connection to the store
+ * @param requestTimeout longest wait for the next bytes of a response on the RestAssured client, for the
+ *                       whole response on the async client
+ * @param retry          what is retried and how often, see {@link RetryPolicy}
+ * @param hedgeAfter     when to send a hedge; zero sends none
+ */
+public record RequestPolicy(Duration connectTimeout, Duration requestTimeout, RetryPolicy retry, Duration hedgeAfter) {
+
+    private static final AtomicInteger hedgeThreadIndex = new AtomicInteger();
+    private static final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "petstore-hedge-" + hedgeThreadIndex.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RequestPolicy {
+        if (connectTimeout.isNegative() || connectTimeout.isZero() || requestTimeout.isNegative() || requestTimeout.isZero()) {
+            throw new IllegalArgumentException("Request timeouts must be positive, were " + connectTimeout + " and " + requestTimeout);
+        }
+        if (hedgeAfter.isNegative()) {
+            throw new IllegalArgumentException("Hedge delay must not be negative, was " + hedgeAfter);
+        }
+    }
+
+    /**
+     * Reads petstore.request.connectTimeout, petstore.request.timeout, petstore.request.retry.* and
+     * petstore.request.hedgeAfter; by default nothing is retried or hedged.
+     */
+    public static RequestPolicy fromSettings() {
+        return new RequestPolicy(
+                Settings.getDuration("petstore.request.connectTimeout", Duration.ofSeconds(10)),
+                Settings.getDuration("petstore.request.timeout", Duration.ofSeconds(60)),
+                RetryPolicy.fromSettings("petstore.request.retry", 1),
+                Settings.getDuration("petstore.request.hedgeAfter", Duration.ZERO));
+    }
+
+    /**
+     * This policy with the comma-separated overrides applied, e.g. "retry=3,hedge=100ms,timeout=2s";
+     * "plain" or an empty spec turns retries and hedging off. Keys are timeout, connectTimeout,
+     * retry (attempts) and hedge (delay).
+     */
+    public RequestPolicy withOverrides(String spec) {
+        var policy = new RequestPolicy(connectTimeout, requestTimeout, RetryPolicy.NONE, Duration.ZERO);
+        if (spec == null || spec.isBlank() || spec.trim().equalsIgnoreCase("plain")) {
+            return policy;
+        }
+        for (var entry : spec.split(",")) {
+            var separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value in request policy, was " + entry);
+            }
+            var key = entry.substring(0, separator).trim();
+            var value = entry.substring(separator + 1).trim();
+            switch (key) {
+                case "timeout":
+                    policy = new RequestPolicy(policy.connectTimeout, Settings.parseDuration(value), policy.retry, policy.hedgeAfter);
+                    break;
+                case "connectTimeout":
+                    policy = new RequestPolicy(Settings.parseDuration(value), policy.requestTimeout, policy.retry, policy.hedgeAfter);
+                    break;
+                case "retry":
+                    policy = new RequestPolicy(policy.connectTimeout, policy.requestTimeout,
+                            new RetryPolicy(Integer.parseInt(value), retry.initialBackoff(), retry.maxBackoff()), policy.hedgeAfter);
+                    break;
+                case "hedge":
+                    policy = new RequestPolicy(policy.connectTimeout, policy.requestTimeout, policy.retry, Settings.parseDuration(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown request policy key " + key + " in " + spec);
+            }
+        }
+        return policy;
+    }
+
+    public boolean hedging() {
+        return !hedgeAfter.isZero();
+    }
+
+    /**
+     * Whether {@link #execute} does anything beyond making the call once.
+     */
+    public boolean retriesOrHedges() {
+        return retry.maxAttempts() > 1 || hedging();
+    }
+
+    /**
+     * Makes a blocking call with retries and hedging; the call must build a fresh request every time.
+     * Every response body is read before it is returned or discarded, see {@link RetryPolicy#execute}.
+     * Hedged attempts run on a shared daemon pool while the calling thread waits.
+     */
+    public Response execute(Supplier<Response> call, RequestStats stats) {
+        if (!hedging()) {
+            return retry.execute(call, stats::retried);
+        }
+        return retry.execute(() -> hedged(call, stats), stats::retried);
+    }
+
+    /**
+     * Like {@link #execute}, for calls that return at once with a future; retries wait on a delayed
+     * executor instead of a thread.
+     *
+     * @param status the status code of a completed call, to decide whether it is retried
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call, ToIntFunction<T> status, RequestStats stats) {
+        return attemptAsync(call, status, stats, 1);
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("connectTimeoutMs", connectTimeout.toMillis())
+                .put("requestTimeoutMs", requestTimeout.toMillis())
+                .put("retryAttempts", retry.maxAttempts())
+                .put("hedgeAfterMs", hedgeAfter.toNanos() / 1_000_000.0);
+    }
+
+    private Response hedged(Supplier<Response> call, RequestStats stats) {
+        Supplier<Response> drained = () -> {
+            var response = call.get();
+            //Reading the body hands the pooled connection back, also when the other copy wins
+            response.asByteArray();
+            return response;
+        };
+        var primary = CompletableFuture.supplyAsync(drained, hedgeExecutor);
+        try {
+            return primary.get(hedgeAfter.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            //Slow: fall through and send the hedge
+        } catch (ExecutionException e) {
+            throw unchecked(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a response", e);
+        }
+        var first = new CompletableFuture<Response>();
+        var outstanding = new AtomicInteger(2);
+        race(primary, first, outstanding, false, stats);
+        stats.hedged();
+        race(CompletableFuture.supplyAsync(drained, hedgeExecutor), first, outstanding, true, stats);
+        try {
+            return first.join();
+        } catch (CompletionException e) {
+            throw unchecked(e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> attemptAsync(Supplier<CompletableFuture<T>> call, ToIntFunction<T> status,
+                                                  RequestStats stats, int attempt) {
+        return (hedging() ? hedgedAsync(call, stats) : sendAsync(call)).handle((value, error) -> {
+            if (attempt >= retry.maxAttempts() || error == null && !retry.isRetryable(status.applyAsInt(value))) {
+                return error == null ? CompletableFuture.completedFuture(value) : CompletableFuture.<T>failedFuture(error);
+            }
+            stats.retried();
+            var backoff = CompletableFuture.delayedExecutor(retry.backoffNanos(attempt), TimeUnit.NANOSECONDS);
+            return CompletableFuture.runAsync(() -> {
+            }, backoff).thenCompose(ignored -> attemptAsync(call, status, stats, attempt + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    private <T> CompletableFuture<T> hedgedAsync(Supplier<CompletableFuture<T>> call, RequestStats stats) {
+        var first = new CompletableFuture<T>();
+        var outstanding = new AtomicInteger(1);
+        race(sendAsync(call), first, outstanding, false, stats);
+        CompletableFuture.delayedExecutor(hedgeAfter.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (first.isDone()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            stats.hedged();
+            race(sendAsync(call), first, outstanding, true, stats);
+        });
+        return first;
+    }
+
+    /**
+     * Completes first with the copy's value if it is the first to succeed, or with its failure if it
+     * is the last copy outstanding and all have failed.
+     */
+    private static <T> void race(CompletableFuture<T> copy, CompletableFuture<T> first, AtomicInteger outstanding,
+                                 boolean hedge, RequestStats stats) {
+        copy.whenComplete((value, error) -> {
+            if (error == null) {
+                if (first.complete(value) && hedge) {
+                    stats.hedgeWon();
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                first.completeExceptionally(error);
+            }
+        });
+    }
+
+    private static <T> CompletableFuture<T> sendAsync(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static RuntimeException unchecked(Throwable error) {
+        return error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+    }
+}
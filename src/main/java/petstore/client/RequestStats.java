@@ -0,0 +1,47 @@
+package petstore.client;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What a {@link RequestPolicy} did on top of the plain calls of a run: retries sent, hedges sent,
+ * and hedges that answered before the request they were covering for.
+ */
+public final class RequestStats {
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    void retried() {
+        retries.increment();
+    }
+
+    void hedged() {
+        hedges.increment();
+    }
+
+    void hedgeWon() {
+        hedgeWins.increment();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    public long hedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("retries", retries())
+                .put("hedges", hedges())
+                .put("hedgeWins", hedgeWins());
+    }
+}
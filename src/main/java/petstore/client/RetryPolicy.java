@@ -0,0 +1,90 @@
+package petstore.client;
+
+import io.restassured.response.Response;
+import petstore.Settings;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries transient failures (connection errors, 429 and 5xx other than 501) with exponential
+ * backoff and full jitter.
+ *
+ * @param maxAttempts    attempts including the first one; 1 disables retries
+ * @param initialBackoff upper bound of the wait before the first retry
+ * @param maxBackoff     upper bound of any single wait
+ */
+public record RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    public RetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Retry attempts must be at least 1, was " + maxAttempts);
+        }
+    }
+
+    /**
+     * Reads {prefix}.attempts, {prefix}.initialBackoff and {prefix}.maxBackoff.
+     */
+    public static RetryPolicy fromSettings(String prefix, int defaultAttempts) {
+        return new RetryPolicy(
+                Settings.getInt(prefix + ".attempts", defaultAttempts),
+                Settings.getDuration(prefix + ".initialBackoff", Duration.ofMillis(100)),
+                Settings.getDuration(prefix + ".maxBackoff", Duration.ofSeconds(5)));
+    }
+
+    public boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode >= 500 && statusCode != 501;
+    }
+
+    /**
+     * Calls until the response is not retryable or the attempts are used up; the call must build
+     * a fresh request every time. Every response body is read, so discarded attempts do not hold on to
+     * pooled connections. The last response is returned even when it is still retryable.
+     *
+     * @param onRetry run before every retry, e.g. to count them
+     */
+    public Response execute(Supplier<Response> call, Runnable onRetry) {
+        for (var attempt = 1; ; attempt++) {
+            try {
+                var response = call.get();
+                //Reading the body hands the pooled connection back before any retry or return
+                response.asByteArray();
+                if (attempt >= maxAttempts || !isRetryable(response.statusCode())) {
+                    return response;
+                }
+            } catch (Exception e) {
+                //RestAssured rethrows IOExceptions unchecked
+                if (attempt >= maxAttempts) {
+                    throw new IllegalStateException("Request failed after " + attempt + " attempts", e);
+                }
+            }
+            onRetry.run();
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * A random wait before retrying after the given attempt, for callers that schedule retries themselves.
+     */
+    public long backoffNanos(int attempt) {
+        var ceiling = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling);
+    }
+
+    private void backOff(int attempt) {
+        var wait = backoffNanos(attempt);
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package petstore.data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Comma separated rows with optional double-quoted cells ("" escapes a quote), read line by line.
+ */
+public class CsvRowReader implements RowReader {
+
+    private final BufferedReader reader;
+    private final List<String> columns;
+    private List<String> next;
+
+    public CsvRowReader(Path file) throws IOException {
+        reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        var header = readRecord();
+        columns = header == null ? List.of() : header;
+        next = readRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        var row = new LinkedHashMap<String, String>();
+        for (var i = 0; i < columns.size(); i++) {
+            row.put(columns.get(i), i < next.size() ? next.get(i) : "");
+        }
+        try {
+            next = readRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return row;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        var cells = new ArrayList<String>();
+        var cell = new StringBuilder();
+        var quoted = false;
+        while (true) {
+            for (var i = 0; i < line.length(); i++) {
+                var c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cell.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        cell.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    cells.add(cell.toString().trim());
+                    cell.setLength(0);
+                } else {
+                    cell.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            //A quoted cell spans the line break
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            cell.append('\n');
+        }
+        cells.add(cell.toString().trim());
+        return cells;
+    }
+}
@@ -0,0 +1,86 @@
+package petstore.data;
+
+import petstore.plan.PlanRun;
+import petstore.plan.Plans;
+import petstore.plan.ScenarioPlan;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The entities a data sheet can hold: the columns expected in its header row and the plan each row
+ * runs, one input per column.
+ */
+public enum DataKind {
+
+    PET(Plans.PET_ROW, List.of("id", "categoryId", "categoryName", "name"), Set.of("id", "categoryId")) {
+        @Override
+        public List<Object> sample(long id) {
+            return List.of(id, 898888, "category", "pet_" + id);
+        }
+    },
+
+    ORDER(Plans.ORDER_ROW, List.of("id", "petId", "quantity", "status"), Set.of("id", "petId", "quantity")) {
+        @Override
+        public List<Object> sample(long id) {
+            return List.of(id, 1, 1, "placed");
+        }
+    },
+
+    USER(Plans.USER_ROW, List.of("id", "username", "firstName", "lastName", "email", "password", "phone"), Set.of("id")) {
+        @Override
+        public List<Object> sample(long id) {
+            return List.of(id, "datauser" + id, "testuserfirstname", "testuserlastname", "datauser" + id + "@gmail.com",
+                    "test345167", "12121212");
+        }
+    };
+
+    private final ScenarioPlan plan;
+    private final List<String> columns;
+    private final Set<String> numberColumns;
+
+    DataKind(ScenarioPlan plan, List<String> columns, Set<String> numberColumns) {
+        this.plan = plan;
+        this.columns = columns;
+        this.numberColumns = numberColumns;
+    }
+
+    public ScenarioPlan plan() {
+        return plan;
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    /**
+     * Sets the plan's inputs from the row's columns.
+     *
+     * @param run a run of {@link #plan()}
+     */
+    public PlanRun bind(PlanRun run, Map<String, String> row) {
+        for (var column : columns) {
+            if (numberColumns.contains(column)) {
+                run.set(column, longValue(row, column));
+            } else {
+                run.set(column, row.get(column));
+            }
+        }
+        return run;
+    }
+
+    /**
+     * A generated row with the given ID, in column order, for writing synthetic sheets.
+     */
+    public abstract List<Object> sample(long id);
+
+    private static long longValue(Map<String, String> row, String column) {
+        var value = row.get(column);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Column '" + column + "' is missing in row " + row);
+        }
+        //Numeric cells may come back formatted as 1677799.0
+        return (long) Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,60 @@
+package petstore.data;
+
+import petstore.Settings;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unique entity IDs without a shared counter on the hot path: each thread takes a block of IDs with one
+ * atomic add and then counts through it on its own, so workers never contend per ID.
+ *
+ * <p>The default base keeps runs apart from each other and from seeded data: bit 52 is set (every ID is
+ * above the seed range and still exact as a JSON number), the next 20 bits hold a random session drawn
+ * once per process, and the low 32 bits count the process's IDs. Concurrent processes, e.g. distributed
+ * load workers on different hosts or containers with equal process IDs, therefore draw from different
+ * ranges; among a hundred processes two share one with a chance of about one in two hundred. Pin the base
+ * with petstore.data.idBase.
+ */
+public final class IdSpace {
+
+    private static final IdSpace shared = new IdSpace(
+            Settings.getLong("petstore.data.idBase", defaultBase()),
+            Settings.getInt("petstore.data.idBlock", 4096));
+
+    private final AtomicLong nextBlock;
+    private final int blockSize;
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    public IdSpace(long base, int blockSize) {
+        if (base < 0 || blockSize <= 0) {
+            throw new IllegalArgumentException("ID base must not be negative and block size must be positive");
+        }
+        this.nextBlock = new AtomicLong(base);
+        this.blockSize = blockSize;
+    }
+
+    public static IdSpace shared() {
+        return shared;
+    }
+
+    public long next() {
+        var block = blocks.get();
+        if (block.next == block.end) {
+            block.next = nextBlock.getAndAdd(blockSize);
+            block.end = block.next + blockSize;
+        }
+        return block.next++;
+    }
+
+    private static long defaultBase() {
+        //Minute and process ID repeat across hosts and containers; a random session does not
+        long session = new SecureRandom().nextInt(1 << 20);
+        return (1L << 52) | (session << 32);
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
@@ -0,0 +1,225 @@
+package petstore.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable UTF-8 output for {@link PayloadTemplate}s. {@link #begin} starts a payload, every
+ * {@code value} call fills the next field and copies the literal text after it, and the finished
+ * bytes are read with {@link #bytes()}/{@link #length()} or {@link #asByteBuffer()}. Numbers and
+ * strings are encoded straight into the backing array, which only grows, so rendering into a warmed-up
+ * buffer allocates nothing. Not thread-safe; keep one per thread.
+ */
+public final class PayloadBuffer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] bytes;
+    private int length;
+    private PayloadTemplate template;
+    private int field;
+
+    public PayloadBuffer(int initialCapacity) {
+        bytes = new byte[initialCapacity];
+    }
+
+    /**
+     * Clears the buffer and writes the template's text up to its first field.
+     */
+    public PayloadBuffer begin(PayloadTemplate template) {
+        return clear().append(template);
+    }
+
+    /**
+     * Empties the buffer, keeping its capacity.
+     */
+    public PayloadBuffer clear() {
+        length = 0;
+        template = null;
+        return this;
+    }
+
+    /**
+     * Keeps what is in the buffer and writes another payload after it, e.g. the next element of an array.
+     */
+    public PayloadBuffer append(PayloadTemplate template) {
+        if (this.template != null) {
+            throw new IllegalStateException("Payload " + this.template + " is missing field " + this.template.field(field));
+        }
+        this.template = template;
+        field = 0;
+        write(template.literal(0));
+        finishIfComplete();
+        return this;
+    }
+
+    /**
+     * Writes raw text between payloads, e.g. the brackets and commas of an array.
+     */
+    public PayloadBuffer raw(char ascii) {
+        if (template != null) {
+            throw new IllegalStateException("Payload " + template + " is missing field " + template.field(field));
+        }
+        ensure(1);
+        bytes[length++] = (byte) ascii;
+        return this;
+    }
+
+    public PayloadBuffer value(long number) {
+        checkField();
+        if (number == Long.MIN_VALUE) {
+            write(MIN_LONG);
+        } else {
+            if (number < 0) {
+                ensure(1);
+                bytes[length++] = '-';
+                number = -number;
+            }
+            var digits = digits(number);
+            ensure(digits);
+            for (var at = length + digits - 1; at >= length; at--) {
+                bytes[at] = (byte) ('0' + number % 10);
+                number /= 10;
+            }
+            length += digits;
+        }
+        return next();
+    }
+
+    public PayloadBuffer value(boolean flag) {
+        checkField();
+        write(flag ? PayloadTemplate.TRUE : PayloadTemplate.FALSE);
+        return next();
+    }
+
+    /**
+     * Writes the text JSON-escaped; the template supplies the surrounding quotes.
+     */
+    public PayloadBuffer value(CharSequence text) {
+        checkField();
+        ensure(text.length());
+        for (var i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                ensure(1);
+                bytes[length++] = (byte) c;
+            } else {
+                escape(text, i, c);
+                if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    i++;
+                }
+            }
+        }
+        return next();
+    }
+
+    public byte[] bytes() {
+        checkComplete();
+        return bytes;
+    }
+
+    public int length() {
+        checkComplete();
+        return length;
+    }
+
+    /**
+     * The rendered bytes without a copy; valid until the buffer is used again.
+     */
+    public ByteBuffer asByteBuffer() {
+        checkComplete();
+        return ByteBuffer.wrap(bytes, 0, length).asReadOnlyBuffer();
+    }
+
+    public byte[] toByteArray() {
+        checkComplete();
+        return Arrays.copyOf(bytes, length);
+    }
+
+    @Override
+    public String toString() {
+        checkComplete();
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void escape(CharSequence text, int index, char c) {
+        if (c == '"' || c == '\\') {
+            ensure(2);
+            bytes[length++] = '\\';
+            bytes[length++] = (byte) c;
+        } else if (c < 0x20) {
+            ensure(6);
+            bytes[length++] = '\\';
+            bytes[length++] = 'u';
+            bytes[length++] = '0';
+            bytes[length++] = '0';
+            bytes[length++] = HEX[c >> 4];
+            bytes[length++] = HEX[c & 0xF];
+        } else if (c < 0x800) {
+            ensure(2);
+            bytes[length++] = (byte) (0xC0 | c >> 6);
+            bytes[length++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1))) {
+            var codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+            ensure(4);
+            bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            //A lone surrogate is not valid UTF-8; write the Unicode replacement character, where String.getBytes writes a ?
+            var replacement = Character.isSurrogate(c) ? '\uFFFD' : c;
+            ensure(3);
+            bytes[length++] = (byte) (0xE0 | replacement >> 12);
+            bytes[length++] = (byte) (0x80 | replacement >> 6 & 0x3F);
+            bytes[length++] = (byte) (0x80 | replacement & 0x3F);
+        }
+    }
+
+    private void checkField() {
+        if (template == null) {
+            throw new IllegalStateException("No payload started, or every field is already filled");
+        }
+    }
+
+    private void checkComplete() {
+        if (template != null) {
+            throw new IllegalStateException("Payload " + template + " is missing field " + template.field(field));
+        }
+    }
+
+    private PayloadBuffer next() {
+        write(template.literal(++field));
+        finishIfComplete();
+        return this;
+    }
+
+    private void finishIfComplete() {
+        if (field == template.fieldCount()) {
+            template = null;
+        }
+    }
+
+    private void write(byte[] literal) {
+        ensure(literal.length);
+        System.arraycopy(literal, 0, bytes, length, literal.length);
+        length += literal.length;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+
+    private static int digits(long number) {
+        var digits = 1;
+        while (number >= 10) {
+            number /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
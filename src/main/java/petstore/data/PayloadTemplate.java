@@ -0,0 +1,67 @@
+package petstore.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A JSON body with named fields, e.g. {@code {"id": ${id}, "name": "${name}"}}, compiled once into
+ * UTF-8 literal chunks. Rendering copies the chunks and encodes only the field values into a
+ * {@link PayloadBuffer}, in the order the fields appear; string fields get their quotes from the template.
+ */
+public final class PayloadTemplate {
+
+    static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Pattern FIELD = Pattern.compile("\\$\\{([A-Za-z][A-Za-z0-9]*)}");
+
+    private final String name;
+    private final byte[][] literals;
+    private final List<String> fields;
+
+    private PayloadTemplate(String name, byte[][] literals, List<String> fields) {
+        this.name = name;
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    public static PayloadTemplate compile(String name, String template) {
+        var matcher = FIELD.matcher(template);
+        var literals = new ArrayList<byte[]>();
+        var fields = new ArrayList<String>();
+        var at = 0;
+        while (matcher.find()) {
+            literals.add(template.substring(at, matcher.start()).getBytes(StandardCharsets.UTF_8));
+            fields.add(matcher.group(1));
+            at = matcher.end();
+        }
+        literals.add(template.substring(at).getBytes(StandardCharsets.UTF_8));
+        return new PayloadTemplate(name, literals.toArray(new byte[0][]), List.copyOf(fields));
+    }
+
+    /**
+     * Field names in rendering order.
+     */
+    public List<String> fields() {
+        return fields;
+    }
+
+    int fieldCount() {
+        return fields.size();
+    }
+
+    String field(int index) {
+        return fields.get(index);
+    }
+
+    byte[] literal(int index) {
+        return literals[index];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
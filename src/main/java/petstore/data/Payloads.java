@@ -0,0 +1,39 @@
+package petstore.data;
+
+/**
+ * The pet, order and user bodies the pet store requests send, as precompiled templates. Each method
+ * appends one payload to the buffer, so {@code Payloads.pet(buffer.clear(), ...)} renders a single body
+ * and repeated calls between {@link PayloadBuffer#raw} brackets and commas render an array.
+ * {@link petstore.PetStoreRequests} renders through these too, so there is one definition of each body.
+ */
+public final class Payloads {
+
+    public static final PayloadTemplate ORDER = PayloadTemplate.compile("order",
+            "{\"id\": \"${id}\",\"petId\": \"${petId}\",\"quantity\": \"${quantity}\",\"shipDate\": \"2022-04-03T11:40:11.305Z\",\"status\": \"${status}\",\"complete\": \"true\"}");
+
+    public static final PayloadTemplate PET = PayloadTemplate.compile("pet",
+            " {\"id\": ${id},\"category\": {\"id\": ${categoryId},\"name\":\"${categoryName}\"}, \"name\": \"${name}\", \"photoUrls\": [ \"string\"  ], \"tags\": [ {\"id\": 677,\"name\": \"someName\"}], \"status\": \"${status}\"}");
+
+    public static final PayloadTemplate USER = PayloadTemplate.compile("user",
+            "{\"id\": ${id},\"username\": \"${username}\",\"firstName\": \"${firstName}\",\"lastName\": \"${lastName}\",\"email\": \"${email}\",\"password\": \"${password}\",\"phone\": \"${phone}\",\"userStatus\": 1 }");
+
+    private Payloads() {
+    }
+
+    public static PayloadBuffer order(PayloadBuffer out, long orderId, long petId, int quantity, String status) {
+        return out.append(ORDER).value(orderId).value(petId).value(quantity).value(status);
+    }
+
+    public static PayloadBuffer pet(PayloadBuffer out, long petId, long categoryId, String categoryName, String petName) {
+        return pet(out, petId, categoryId, categoryName, petName, "available");
+    }
+
+    public static PayloadBuffer pet(PayloadBuffer out, long petId, long categoryId, String categoryName, String petName, String status) {
+        return out.append(PET).value(petId).value(categoryId).value(categoryName).value(petName).value(status);
+    }
+
+    public static PayloadBuffer user(PayloadBuffer out, long userId, String userName, String firstName, String lastName,
+                                     String email, String password, String phone) {
+        return out.append(USER).value(userId).value(userName).value(firstName).value(lastName).value(email).value(password).value(phone);
+    }
+}
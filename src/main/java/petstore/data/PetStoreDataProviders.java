@@ -0,0 +1,55 @@
+package petstore.data;
+
+import org.testng.annotations.DataProvider;
+import petstore.Settings;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * TestNG data providers reading pets, orders and users from data sheets. They return lazy
+ * iterators, so TestNG pulls one row per invocation instead of loading the sheet up front.
+ * Sheet paths can be overridden with petstore.data.pets, petstore.data.orders and petstore.data.users.
+ */
+public final class PetStoreDataProviders {
+
+    private PetStoreDataProviders() {
+    }
+
+    @DataProvider(name = "pets")
+    public static Iterator<Object[]> pets() throws IOException {
+        return rows(Settings.get("petstore.data.pets", "src/main/resources/data/pets.csv"));
+    }
+
+    @DataProvider(name = "orders")
+    public static Iterator<Object[]> orders() throws IOException {
+        return rows(Settings.get("petstore.data.orders", "src/main/resources/data/orders.csv"));
+    }
+
+    @DataProvider(name = "users")
+    public static Iterator<Object[]> users() throws IOException {
+        return rows(Settings.get("petstore.data.users", "src/main/resources/data/users.xlsx"));
+    }
+
+    private static Iterator<Object[]> rows(String file) throws IOException {
+        var reader = RowReader.open(Path.of(file));
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                if (reader.hasNext()) {
+                    return true;
+                }
+                reader.close();
+                return false;
+            }
+
+            @Override
+            public Object[] next() {
+                Map<String, String> row = reader.next();
+                return new Object[]{row};
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package petstore.data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads a data sheet one row at a time. The first row holds the column names; every
+ * following row is returned as column name to cell text. Nothing beyond the current rows
+ * is kept in memory, so sheets of any size can be pushed through the scenarios.
+ */
+public interface RowReader extends Iterator<Map<String, String>>, AutoCloseable {
+
+    /**
+     * Opens .xlsx workbooks with the POI event model (first sheet) and anything else as CSV.
+     */
+    static RowReader open(Path file) throws IOException {
+        return file.getFileName().toString().toLowerCase().endsWith(".xlsx")
+                ? new XlsxRowReader(file)
+                : new CsvRowReader(file);
+    }
+
+    @Override
+    void close();
+}
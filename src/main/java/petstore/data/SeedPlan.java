@@ -0,0 +1,55 @@
+package petstore.data;
+
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.client.RetryPolicy;
+
+/**
+ * How much data to seed and how hard to push.
+ *
+ * @param firstId        entity IDs are firstId, firstId + 1, ... so a re-run rewrites the same records
+ * @param userBatchSize  users per user/createWithArray (or createWithList) call
+ * @param concurrency    requests in flight at once
+ * @param usersWithList  use user/createWithList instead of user/createWithArray
+ */
+public record SeedPlan(String baseUri, long pets, long orders, long users, long firstId, int userBatchSize,
+                       int concurrency, boolean usersWithList, RetryPolicy retry) {
+
+    public SeedPlan {
+        if (baseUri == null || baseUri.isBlank()) {
+            throw new IllegalArgumentException("Pet store base URI is not set, provide PETSTOREURI");
+        }
+        if (userBatchSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Batch size and concurrency must be positive");
+        }
+        if (orders > 0 && pets <= 0) {
+            throw new IllegalArgumentException("Orders refer to seeded pets, seed at least one pet");
+        }
+    }
+
+    public static SeedPlan fromSettings(String baseUri) {
+        return new SeedPlan(
+                baseUri,
+                Settings.getLong("petstore.seed.pets", 1000),
+                Settings.getLong("petstore.seed.orders", 1000),
+                Settings.getLong("petstore.seed.users", 1000),
+                Settings.getLong("petstore.seed.firstId", 7_000_000_000L),
+                Settings.getInt("petstore.seed.userBatchSize", 100),
+                Settings.getInt("petstore.seed.concurrency", 32),
+                Settings.get("petstore.seed.userEndpoint", "createWithArray").equalsIgnoreCase("createWithList"),
+                RetryPolicy.fromSettings("petstore.seed.retry", 4));
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("baseUri", baseUri)
+                .put("pets", pets)
+                .put("orders", orders)
+                .put("users", users)
+                .put("firstId", firstId)
+                .put("userBatchSize", userBatchSize)
+                .put("concurrency", concurrency)
+                .put("userEndpoint", usersWithList ? "createWithList" : "createWithArray")
+                .put("retryAttempts", retry.maxAttempts());
+    }
+}
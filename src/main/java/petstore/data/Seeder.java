@@ -0,0 +1,202 @@
+package petstore.data;
+
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.json.JSONObject;
+import petstore.PetStoreRequests;
+import petstore.client.ConnectionPoolSettings;
+import petstore.client.PetStoreClient;
+import petstore.load.RunReport;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.LiveMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Pre-populates the store before a performance run: pets, then orders for those pets, then users.
+ * Users go in batches through user/createWithArray (or createWithList); pets and orders, which have
+ * no bulk endpoint, go as concurrent single calls. At most {@link SeedPlan#concurrency()} requests are
+ * in flight, transient failures are retried, and IDs are derived from the plan so re-running it
+ * overwrites the same entities instead of adding new ones.
+ */
+public class Seeder implements RunReport {
+
+    private final SeedPlan plan;
+    private final LatencyRegistry registry = new LatencyRegistry();
+    private final List<Stage> stages = new ArrayList<>();
+    //User batches are rendered on the scheduling thread, one at a time
+    private final PayloadBuffer usersBuffer = new PayloadBuffer(64 * 1024);
+
+    public Seeder(SeedPlan plan) {
+        this.plan = plan;
+    }
+
+    public Seeder run() throws InterruptedException {
+        LiveMetrics.publish("seed", registry);
+        var pool = ConnectionPoolSettings.fromSettings();
+        var sized = new ConnectionPoolSettings(Math.max(pool.maxTotal(), plan.concurrency()),
+                Math.max(pool.maxPerRoute(), plan.concurrency()), pool.keepAlive(), pool.idleTimeout(), pool.evictInterval());
+        var threadIndex = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(plan.concurrency(), runnable -> {
+            var thread = new Thread(runnable, "petstore-seed-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (var client = new PetStoreClient(plan.baseUri(), sized)) {
+            var inFlight = new Semaphore(plan.concurrency());
+
+            seed(new Stage("pets", PetStoreRequests.ADD_PET), plan.pets(), 1, client, executor, inFlight,
+                    (index, count) -> request -> PetStoreRequests.addPet(request, plan.firstId() + index, 898888, "seed", "seed_pet_" + index));
+
+            seed(new Stage("orders", PetStoreRequests.PLACE_ORDER), plan.orders(), 1, client, executor, inFlight,
+                    (index, count) -> request -> PetStoreRequests.placeOrder(request, plan.firstId() + index,
+                            plan.firstId() + index % plan.pets(), 1, "placed"));
+
+            var userEndpoint = plan.usersWithList() ? PetStoreRequests.CREATE_USERS_WITH_LIST : PetStoreRequests.CREATE_USERS_WITH_ARRAY;
+            seed(new Stage("users", userEndpoint), plan.users(), plan.userBatchSize(), client, executor, inFlight,
+                    (index, count) -> {
+                        var body = usersBody(index, count);
+                        return plan.usersWithList()
+                                ? request -> PetStoreRequests.createUsersWithList(request, body)
+                                : request -> PetStoreRequests.createUsersWithArray(request, body);
+                    });
+        } finally {
+            executor.shutdownNow();
+        }
+        return this;
+    }
+
+    private void seed(Stage stage, long entities, int perRequest, PetStoreClient client, ExecutorService executor,
+                      Semaphore inFlight, RequestFactory requests) throws InterruptedException {
+        stages.add(stage);
+        var start = System.nanoTime();
+        for (var index = 0L; index < entities; index += perRequest) {
+            var count = (int) Math.min(perRequest, entities - index);
+            var call = requests.create(index, count);
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    send(stage, client, count, call);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        //Wait for the stage to drain, orders must not be placed before their pets exist
+        inFlight.acquire(plan.concurrency());
+        inFlight.release(plan.concurrency());
+        stage.elapsedNanos = System.nanoTime() - start;
+    }
+
+    private void send(Stage stage, PetStoreClient client, int count, Function<RequestSpecification, Response> call) {
+        var start = System.nanoTime();
+        var ok = false;
+        try {
+            var response = plan.retry().execute(() -> call.apply(client.request()), stage.retries::increment);
+            ok = response.statusCode() == 200;
+        } catch (RuntimeException e) {
+            ok = false;
+        }
+        registry.record(stage.endpoint, System.nanoTime() - start, ok);
+        stage.requests.increment();
+        (ok ? stage.created : stage.failed).add(count);
+    }
+
+    private String usersBody(long firstIndex, int count) {
+        var body = usersBuffer.clear().raw('[');
+        for (var i = 0; i < count; i++) {
+            var id = plan.firstId() + firstIndex + i;
+            if (i > 0) {
+                body.raw(',');
+            }
+            Payloads.user(body, id, "seeduser" + id, "seedfirstname", "seedlastname",
+                    "seeduser" + id + "@gmail.com", "seed345167", "12121212");
+        }
+        return body.raw(']').toString();
+    }
+
+    public long failed() {
+        return stages.stream().mapToLong(stage -> stage.failed.sum()).sum();
+    }
+
+    public long created() {
+        return stages.stream().mapToLong(stage -> stage.created.sum()).sum();
+    }
+
+    public JSONObject toJson() {
+        var json = new JSONObject().put("plan", plan.toJson());
+        var stageJson = new JSONObject();
+        for (var stage : stages) {
+            stageJson.put(stage.name, stage.toJson());
+        }
+        return json.put("stages", stageJson).put("endpoints", registry.toJson());
+    }
+
+    @Override
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    @Override
+    public String summary() {
+        var summary = new StringBuilder();
+        for (var stage : stages) {
+            summary.append(String.format("Seeded %-7s %9d created %7d failed %9d requests %7d retries in %7.1fs, %9.1f entities/s%n",
+                    stage.name, stage.created.sum(), stage.failed.sum(), stage.requests.sum(), stage.retries.sum(),
+                    stage.elapsedSeconds(), stage.throughput()));
+        }
+        return summary.toString();
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        Function<RequestSpecification, Response> create(long firstIndex, int count);
+    }
+
+    private static final class Stage {
+        private final String name;
+        private final String endpoint;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder created = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private volatile long elapsedNanos;
+
+        private Stage(String name, String endpoint) {
+            this.name = name;
+            this.endpoint = endpoint;
+        }
+
+        private double elapsedSeconds() {
+            return elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        private double throughput() {
+            return elapsedNanos == 0 ? 0.0 : created.sum() / elapsedSeconds();
+        }
+
+        private JSONObject toJson() {
+            return new JSONObject()
+                    .put("created", created.sum())
+                    .put("failed", failed.sum())
+                    .put("requests", requests.sum())
+                    .put("retries", retries.sum())
+                    .put("elapsedSeconds", elapsedSeconds())
+                    .put("entitiesPerSecond", throughput());
+        }
+    }
+}
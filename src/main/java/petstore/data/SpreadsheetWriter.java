@@ -0,0 +1,115 @@
+package petstore.data;
+
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes data sheets of any size: .xlsx through SXSSF, which keeps only a small window of rows
+ * in memory, and anything else as CSV.
+ * <p>
+ * Generate a synthetic sheet with: {@code java petstore.data.SpreadsheetWriter PET 500000 target/pets.xlsx}
+ */
+public final class SpreadsheetWriter {
+
+    private static final int ROW_WINDOW = 100;
+
+    private SpreadsheetWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: SpreadsheetWriter PET|ORDER|USER <rows> <file.xlsx|file.csv>");
+            System.exit(2);
+        }
+        var kind = DataKind.valueOf(args[0].toUpperCase());
+        var count = Long.parseLong(args[1]);
+        var firstId = System.currentTimeMillis() % 1_000_000_000L * 1000;
+        write(Path.of(args[2]), kind.columns(), new Iterator<>() {
+            private long written;
+
+            @Override
+            public boolean hasNext() {
+                return written < count;
+            }
+
+            @Override
+            public List<?> next() {
+                return kind.sample(firstId + written++);
+            }
+        });
+    }
+
+    public static void write(Path file, List<String> columns, Iterator<? extends List<?>> rows) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (var out = Files.newOutputStream(file)) {
+            if (file.getFileName().toString().toLowerCase().endsWith(".xlsx")) {
+                writeXlsx(out, columns, rows);
+            } else {
+                writeCsv(out, columns, rows);
+            }
+        }
+    }
+
+    private static void writeXlsx(OutputStream out, List<String> columns, Iterator<? extends List<?>> rows) throws IOException {
+        var workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            var sheet = workbook.createSheet("data");
+            var rowIndex = 0;
+            var header = sheet.createRow(rowIndex++);
+            for (var i = 0; i < columns.size(); i++) {
+                header.createCell(i).setCellValue(columns.get(i));
+            }
+            while (rows.hasNext()) {
+                var values = rows.next();
+                var row = sheet.createRow(rowIndex++);
+                for (var i = 0; i < values.size(); i++) {
+                    var value = values.get(i);
+                    if (value instanceof Number) {
+                        row.createCell(i).setCellValue(((Number) value).doubleValue());
+                    } else {
+                        row.createCell(i).setCellValue(String.valueOf(value));
+                    }
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void writeCsv(OutputStream out, List<String> columns, Iterator<? extends List<?>> rows) throws IOException {
+        var line = new StringBuilder();
+        appendCsv(line, columns);
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        while (rows.hasNext()) {
+            line.setLength(0);
+            appendCsv(line, rows.next());
+            out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void appendCsv(StringBuilder line, List<?> values) {
+        for (var i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            var value = String.valueOf(values.get(i));
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        line.append('\n');
+    }
+}
@@ -0,0 +1,158 @@
+package petstore.data;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams the first sheet of an .xlsx workbook through the POI event (SAX) model instead of
+ * loading it as a DOM workbook. The SAX parser runs on its own thread and hands rows over a
+ * small bounded queue, so it never gets more than a few hundred rows ahead of the consumer.
+ */
+public class XlsxRowReader implements RowReader {
+
+    private static final int QUEUE_CAPACITY = 256;
+    private static final List<String> END = List.of();
+
+    private final OPCPackage workbook;
+    private final BlockingQueue<List<String>> rows = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread parser;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private List<String> columns;
+    private List<String> next;
+
+    public XlsxRowReader(Path file) throws IOException {
+        try {
+            workbook = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (Exception e) {
+            throw new IOException("Could not open workbook " + file, e);
+        }
+        parser = new Thread(this::parse, "petstore-xlsx-" + file.getFileName());
+        parser.setDaemon(true);
+        parser.start();
+        var header = take();
+        columns = header == END ? List.of() : header;
+        next = take();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != END;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (next == END) {
+            throw new NoSuchElementException();
+        }
+        var row = new LinkedHashMap<String, String>();
+        for (var i = 0; i < columns.size(); i++) {
+            row.put(columns.get(i), i < next.size() && next.get(i) != null ? next.get(i) : "");
+        }
+        next = take();
+        return row;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        parser.interrupt();
+        workbook.revert();
+    }
+
+    private List<String> take() {
+        try {
+            var row = rows.take();
+            if (row == END && failure != null) {
+                throw new IllegalStateException("Could not read workbook", failure);
+            }
+            return row;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading workbook", e);
+        }
+    }
+
+    private void parse() {
+        try {
+            var reader = new XSSFReader(workbook);
+            var strings = new ReadOnlySharedStringsTable(workbook, false);
+            var sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (var sheet = sheets.next()) {
+                    var xmlReader = XMLHelper.newXMLReader();
+                    xmlReader.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                            new RowCollector(), new DataFormatter(), false));
+                    xmlReader.parse(new InputSource(sheet));
+                }
+            }
+        } catch (StopParsing e) {
+            return;
+        } catch (Exception e) {
+            failure = e;
+        }
+        put(END);
+    }
+
+    private void put(List<String> row) {
+        try {
+            rows.put(row);
+        } catch (InterruptedException e) {
+            throw new StopParsing();
+        }
+    }
+
+    private class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private List<String> current;
+
+        @Override
+        public void startRow(int rowNum) {
+            if (closed) {
+                throw new StopParsing();
+            }
+            current = new ArrayList<>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            put(current);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            //Empty cells are not reported, so place each value by its column
+            var column = new CellReference(cellReference).getCol();
+            while (current.size() < column) {
+                current.add("");
+            }
+            current.add(formattedValue == null ? "" : formattedValue.trim());
+        }
+    }
+
+    private static final class StopParsing extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private StopParsing() {
+            super(null, null, false, false);
+        }
+    }
+}
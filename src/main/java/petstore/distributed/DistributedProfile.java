@@ -0,0 +1,61 @@
+package petstore.distributed;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.load.Arrivals;
+import petstore.load.LoadProfile;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A load run split across worker processes: the fleet-wide profile, how many workers to fork on
+ * this machine and which already running workers (host:port) to attach to.
+ *
+ * @param progressInterval how often workers send a snapshot; a worker that dies mid-run still
+ *                         contributes what it sent last
+ */
+public record DistributedProfile(LoadProfile load, int localWorkers, List<String> remoteWorkers, Duration progressInterval) {
+
+    public DistributedProfile {
+        remoteWorkers = List.copyOf(remoteWorkers);
+        if (localWorkers < 0 || localWorkers + remoteWorkers.size() == 0) {
+            throw new IllegalArgumentException("A distributed run needs at least one worker");
+        }
+        if (load.arrivals().arrivals() == Arrivals.TRACE) {
+            //Every worker would replay the whole trace
+            throw new IllegalArgumentException("Trace arrivals cannot be split across workers");
+        }
+    }
+
+    public static DistributedProfile fromSettings(String baseUri) {
+        var remote = Settings.get("petstore.dist.workers", "");
+        return new DistributedProfile(
+                LoadProfile.fromSettings(baseUri),
+                Settings.getInt("petstore.dist.localWorkers", remote.isEmpty() ? 2 : 0),
+                Arrays.stream(remote.split(",")).map(String::trim).filter(address -> !address.isEmpty()).collect(Collectors.toList()),
+                Settings.getDuration("petstore.dist.progressInterval", Duration.ofSeconds(1)));
+    }
+
+    public int workerCount() {
+        return localWorkers + remoteWorkers.size();
+    }
+
+    /**
+     * The profile each worker runs: the same mix and duration at an equal part of the rate.
+     */
+    public LoadProfile share() {
+        return new LoadProfile(load.baseUri(), load.rate() / workerCount(), load.duration(), load.workers(), load.mix(),
+                load.maxErrorRate(), load.engine(), load.arrivals());
+    }
+
+    public JSONObject toJson() {
+        return load.toJson()
+                .put("localWorkers", localWorkers)
+                .put("remoteWorkers", new JSONArray(remoteWorkers))
+                .put("ratePerWorker", share().rate());
+    }
+}
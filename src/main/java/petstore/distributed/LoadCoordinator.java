@@ -0,0 +1,192 @@
+package petstore.distributed;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.load.LoadReport;
+import petstore.metrics.LatencyRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a load profile across worker processes: forks the local workers, attaches to the remote
+ * ones, sends each its share of the rate and collects the snapshots they stream back. The report
+ * merges every worker's histograms, so its percentiles cover the whole fleet.
+ */
+public class LoadCoordinator {
+
+    private static final String METRICS_PORT = "petstore.metrics.port";
+    private static final String ID_BASE = "petstore.data.idBase";
+
+    private final DistributedProfile profile;
+
+    public LoadCoordinator(DistributedProfile profile) {
+        this.profile = profile;
+    }
+
+    public LoadReport run() throws IOException, InterruptedException {
+        var processes = new ArrayList<Process>();
+        try {
+            var addresses = new ArrayList<InetSocketAddress>();
+            for (var i = 0; i < profile.localWorkers(); i++) {
+                var process = fork(i);
+                processes.add(process);
+                addresses.add(new InetSocketAddress("127.0.0.1", readyPort(process)));
+            }
+            for (var worker : profile.remoteWorkers()) {
+                var separator = worker.lastIndexOf(':');
+                addresses.add(new InetSocketAddress(worker.substring(0, separator), Integer.parseInt(worker.substring(separator + 1))));
+            }
+            return run(addresses);
+        } finally {
+            processes.forEach(Process::destroy);
+        }
+    }
+
+    private LoadReport run(List<InetSocketAddress> addresses) throws InterruptedException {
+        var request = new JSONObject()
+                .put("profile", profile.share().toJson())
+                .put("progressMillis", profile.progressInterval().toMillis());
+        var sessions = new ArrayList<WorkerSession>();
+        for (var address : addresses) {
+            var session = new WorkerSession(address, request);
+            session.start();
+            sessions.add(session);
+        }
+        var waitMillis = profile.load().duration().toMillis() + TimeUnit.SECONDS.toMillis(60);
+        for (var session : sessions) {
+            session.join(waitMillis);
+        }
+
+        var registry = new LatencyRegistry();
+        var scheduled = 0L;
+        var completed = 0L;
+        var failed = 0L;
+        var dropped = 0L;
+        var elapsedNanos = 0L;
+        String abortReason = null;
+        var workers = new JSONArray();
+        for (var session : sessions) {
+            var snapshot = session.latest;
+            workers.put(new JSONObject()
+                    .put("address", session.address.toString())
+                    .put("finished", session.finished)
+                    .put("error", session.error == null ? JSONObject.NULL : session.error)
+                    .put("completed", snapshot == null ? 0 : snapshot.getLong("completed")));
+            if (snapshot == null) {
+                continue;
+            }
+            Snapshots.mergeInto(registry, snapshot);
+            scheduled += snapshot.getLong("scheduled");
+            completed += snapshot.getLong("completed");
+            failed += snapshot.getLong("failed");
+            dropped += snapshot.optLong("dropped");
+            elapsedNanos = Math.max(elapsedNanos, snapshot.getLong("elapsedNanos"));
+            if (abortReason == null && snapshot.has("abortReason")) {
+                abortReason = "worker " + session.address + ": " + snapshot.getString("abortReason");
+            }
+        }
+        return new LoadReport("Distributed", profile.toJson().put("workerProcesses", workers), scheduled, completed, failed,
+                dropped, elapsedNanos, registry, abortReason);
+    }
+
+    /**
+     * Starts a worker JVM with this JVM's class path and petstore.* system properties. The two properties that
+     * must differ per process are moved along by the worker's index: the metrics port, so every worker can
+     * bind its own, and a pinned ID base, so the workers draw disjoint ID ranges instead of the same blocks.
+     */
+    private static Process fork(int index) throws IOException {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (var name : System.getProperties().stringPropertyNames()) {
+            if (!name.startsWith("petstore.")) {
+                continue;
+            }
+            var value = System.getProperty(name);
+            if (name.equals(METRICS_PORT) && Integer.parseInt(value.trim()) > 0) {
+                value = String.valueOf(Integer.parseInt(value.trim()) + 1 + index);
+            } else if (name.equals(ID_BASE)) {
+                //The low 32 bits count one process's IDs, as in IdSpace's default base
+                value = String.valueOf(Long.parseLong(value.trim()) + ((index + 1L) << 32));
+            }
+            command.add("-D" + name + "=" + value);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadWorker.class.getName());
+        command.add("0");
+        command.add("--once");
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    private static int readyPort(Process process) throws IOException {
+        var stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = stdout.readLine()) != null) {
+            if (line.startsWith(LoadWorker.READY)) {
+                return Integer.parseInt(line.substring(LoadWorker.READY.length()).trim());
+            }
+        }
+        throw new IOException("Worker process exited before it was ready, exit code " + process.exitValue());
+    }
+
+    /**
+     * One connection to a worker, read on its own thread; keeps the latest snapshot.
+     */
+    private static final class WorkerSession extends Thread {
+
+        private final InetSocketAddress address;
+        private final JSONObject request;
+        private volatile JSONObject latest;
+        private volatile boolean finished;
+        private volatile String error;
+
+        private WorkerSession(InetSocketAddress address, JSONObject request) {
+            super("petstore-coordinator-" + address.getPort());
+            setDaemon(true);
+            this.address = address;
+            this.request = request;
+        }
+
+        @Override
+        public void run() {
+            try (var socket = new Socket()) {
+                socket.connect(address, (int) TimeUnit.SECONDS.toMillis(10));
+                var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                out.write(request.toString());
+                out.newLine();
+                out.flush();
+                var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null) {
+                    var message = new JSONObject(line);
+                    switch (message.getString("type")) {
+                        case "progress":
+                            latest = message.getJSONObject("snapshot");
+                            break;
+                        case "done":
+                            latest = message.getJSONObject("snapshot");
+                            finished = true;
+                            return;
+                        default:
+                            error = message.optString("message", "unknown worker error");
+                            return;
+                    }
+                }
+                error = "connection closed before the run finished";
+            } catch (IOException | RuntimeException e) {
+                error = String.valueOf(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package petstore.distributed;
+
+import org.json.JSONObject;
+import petstore.load.LoadGenerator;
+import petstore.load.LoadProfile;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A load worker process. It listens on a port, runs the load profile each coordinator connection
+ * sends, and streams progress snapshots back until the run is done. The protocol is one JSON
+ * object per line: {"profile": ..., "progressMillis": ...} in, then {"type": "progress"|"done"|"error", ...} out.
+ *
+ * <p>On another host: {@code java -cp <test classpath> petstore.distributed.LoadWorker 7000}.
+ * The coordinator forks local workers with port 0 and --once, and reads the port from the first line on stdout.
+ */
+public final class LoadWorker {
+
+    static final String READY = "petstore-worker listening on ";
+
+    private LoadWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : 7000;
+        var once = args.length > 1 && args[1].equals("--once");
+        try (var server = new ServerSocket(port)) {
+            System.out.println(READY + server.getLocalPort());
+            System.out.flush();
+            do {
+                try (var socket = server.accept()) {
+                    serve(socket);
+                }
+            } while (!once);
+        }
+        System.exit(0);
+    }
+
+    private static void serve(Socket socket) throws IOException {
+        var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        var line = in.readLine();
+        if (line == null) {
+            return;
+        }
+        var request = new JSONObject(line);
+        var generator = new LoadGenerator(LoadProfile.fromJson(request.getJSONObject("profile")));
+        var progressMillis = request.optLong("progressMillis", 1000);
+
+        var start = System.nanoTime();
+        var run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return generator.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+        }, runnable -> {
+            var thread = new Thread(runnable, "petstore-worker-run");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        while (true) {
+            try {
+                var report = run.get(progressMillis, TimeUnit.MILLISECONDS);
+                send(out, new JSONObject().put("type", "done")
+                        .put("snapshot", Snapshots.of(generator, (long) (report.elapsedSeconds() * TimeUnit.SECONDS.toNanos(1)))));
+                return;
+            } catch (TimeoutException e) {
+                send(out, new JSONObject().put("type", "progress").put("snapshot", Snapshots.of(generator, System.nanoTime() - start)));
+            } catch (ExecutionException e) {
+                send(out, new JSONObject().put("type", "error").put("message", String.valueOf(e.getCause())));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void send(BufferedWriter out, JSONObject message) throws IOException {
+        out.write(message.toString());
+        out.newLine();
+        out.flush();
+    }
+}
@@ -0,0 +1,42 @@
+package petstore.distributed;
+
+import org.json.JSONObject;
+import petstore.load.LoadGenerator;
+import petstore.metrics.HistogramCodec;
+import petstore.metrics.LatencyRegistry;
+
+/**
+ * Progress snapshots exchanged between workers and the coordinator: iteration counters plus,
+ * per endpoint, the compressed HdrHistogram and error count. Histograms are merged value by value
+ * on the coordinator, so fleet percentiles come from all samples rather than from per-worker percentiles.
+ */
+final class Snapshots {
+
+    private Snapshots() {
+    }
+
+    static JSONObject of(LoadGenerator generator, long elapsedNanos) {
+        var endpoints = new JSONObject();
+        for (var stats : generator.registry().all()) {
+            endpoints.put(stats.endpoint(), new JSONObject()
+                    .put("histogram", HistogramCodec.encode(stats.snapshot()))
+                    .put("errors", stats.errors()));
+        }
+        return new JSONObject()
+                .put("scheduled", generator.scheduledIterations())
+                .put("completed", generator.completedIterations())
+                .put("failed", generator.failedIterations())
+                .put("dropped", generator.droppedIterations())
+                .put("elapsedNanos", elapsedNanos)
+                .put("abortReason", generator.abortReason())
+                .put("endpoints", endpoints);
+    }
+
+    static void mergeInto(LatencyRegistry registry, JSONObject snapshot) {
+        var endpoints = snapshot.getJSONObject("endpoints");
+        for (var endpoint : endpoints.keySet()) {
+            var stats = endpoints.getJSONObject(endpoint);
+            registry.stats(endpoint).merge(HistogramCodec.decode(stats.getString("histogram")), stats.getLong("errors"));
+        }
+    }
+}
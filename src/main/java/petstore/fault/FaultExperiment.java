@@ -0,0 +1,33 @@
+package petstore.fault;
+
+import petstore.load.LoadGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Runs a {@link FaultProfile}: for every request policy, starts a proxy with the profile's rules in front
+ * of the store, drives the load through it and keeps the load report, the policy's retry and hedge counts
+ * and what the proxy injected.
+ */
+public class FaultExperiment {
+
+    private final FaultProfile profile;
+
+    public FaultExperiment(FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    public FaultReport run() throws IOException, InterruptedException {
+        var runs = new ArrayList<FaultReport.PolicyRun>();
+        for (var spec : profile.policies()) {
+            var policy = profile.base().withOverrides(spec);
+            try (var proxy = FaultProxy.start(profile.load().baseUri(), profile.rules())) {
+                var generator = new LoadGenerator(profile.loadThrough(proxy.baseUri()), policy);
+                var load = generator.run();
+                runs.add(new FaultReport.PolicyRun(spec, policy, load, generator.requestStats(), proxy.toJson()));
+            }
+        }
+        return new FaultReport(profile, runs);
+    }
+}
@@ -0,0 +1,69 @@
+package petstore.fault;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.client.RequestPolicy;
+import petstore.load.LoadProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fault experiment: the same load run once per request policy, each through a fresh {@link FaultProxy}
+ * with the same rules, so the policies can be compared on tail latency, error rate and throughput.
+ *
+ * @param load     rate, duration, mix and engine of every run; its base URI is the store behind the proxy
+ * @param rules    faults injected in every run
+ * @param base     timeouts and retry backoff the policies start from
+ * @param policies overrides applied to the base for each run, see {@link RequestPolicy#withOverrides(String)}
+ */
+public record FaultProfile(LoadProfile load, List<FaultRule> rules, RequestPolicy base, List<String> policies) {
+
+    public static final String DEFAULT_RULES = "*|latency=spike:250ms@5%|error=503@2%|reset=1%";
+    public static final String DEFAULT_POLICIES = "plain;retry=3;hedge=50ms;retry=3,hedge=50ms";
+
+    public FaultProfile {
+        rules = List.copyOf(rules);
+        policies = List.copyOf(policies);
+        if (policies.isEmpty()) {
+            throw new IllegalArgumentException("A fault experiment needs at least one request policy");
+        }
+    }
+
+    /**
+     * Reads petstore.fault.rules and petstore.fault.policies (separated by ';'); the load comes from the
+     * petstore.load.* settings.
+     */
+    public static FaultProfile fromSettings(String baseUri) {
+        var policies = new ArrayList<String>();
+        for (var policy : Settings.get("petstore.fault.policies", DEFAULT_POLICIES).split(";")) {
+            if (!policy.isBlank()) {
+                policies.add(policy.trim());
+            }
+        }
+        return new FaultProfile(
+                LoadProfile.fromSettings(baseUri),
+                FaultRule.parseAll(Settings.get("petstore.fault.rules", DEFAULT_RULES)),
+                RequestPolicy.fromSettings(),
+                policies);
+    }
+
+    /**
+     * The load profile sent to the proxy instead of the store.
+     */
+    LoadProfile loadThrough(String proxyUri) {
+        return new LoadProfile(proxyUri, load.rate(), load.duration(), load.workers(), load.mix(),
+                load.maxErrorRate(), load.engine(), load.arrivals());
+    }
+
+    public JSONObject toJson() {
+        var ruleJson = new JSONArray();
+        rules.forEach(rule -> ruleJson.put(rule.toJson()));
+        return new JSONObject()
+                .put("load", load.toJson())
+                .put("rules", ruleJson)
+                .put("base", base.toJson())
+                .put("policies", new JSONArray(policies));
+    }
+}
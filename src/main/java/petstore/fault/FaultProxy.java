@@ -0,0 +1,500 @@
+package petstore.fault;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.stub.PetStoreStub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * In-process HTTP/1.1 proxy that sits between a client and the pet store and injects the faults of
+ * its {@link FaultRule}s: added latency, throttled response bodies, connection resets (RST, not an
+ * orderly close) and error statuses answered without asking the store. Requests that match no rule
+ * are forwarded untouched. Each client connection is served by its own daemon thread and kept alive
+ * between requests; the proxy buffers every body, so it is meant for API traffic, not for streaming.
+ *
+ * <p>Standalone, in front of PETSTOREURI on petstore.fault.port:
+ * {@code java -cp <test classpath> petstore.fault.FaultProxy}, then point PETSTOREURI at the printed URI.
+ */
+public class FaultProxy implements AutoCloseable {
+
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "keep-alive", "proxy-connection", "te",
+            "trailer", "transfer-encoding", "upgrade", "content-length", "host", "expect", "http2-settings");
+    private static final int MAX_LINE = 64 * 1024;
+
+    private final ServerSocket server;
+    private final URI upstream;
+    private final String context;
+    private final List<FaultRule> rules;
+    private final List<Pattern> patterns = new ArrayList<>();
+    private final List<Counters> injected = new ArrayList<>();
+    private final Counters unmatched = new Counters();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final HttpClient http;
+    private final ExecutorService executor;
+
+    private FaultProxy(ServerSocket server, URI upstream, List<FaultRule> rules, ExecutorService executor) {
+        this.server = server;
+        this.upstream = upstream;
+        this.context = upstream.getRawPath() == null || upstream.getRawPath().isEmpty() ? "/" : upstream.getRawPath();
+        this.rules = List.copyOf(rules);
+        this.executor = executor;
+        for (var rule : this.rules) {
+            patterns.add(rule.pattern());
+            injected.add(new Counters());
+        }
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    public static FaultProxy start(String upstreamBaseUri, List<FaultRule> rules) throws IOException {
+        return start(upstreamBaseUri, rules, 0);
+    }
+
+    /**
+     * Starts forwarding to the base URI, e.g. http://petstore.example/v2/, on a loopback port.
+     */
+    public static FaultProxy start(String upstreamBaseUri, List<FaultRule> rules, int port) throws IOException {
+        if (upstreamBaseUri == null || upstreamBaseUri.isBlank()) {
+            throw new IllegalArgumentException("Pet store base URI is not set, provide PETSTOREURI");
+        }
+        var upstream = URI.create(upstreamBaseUri.endsWith("/") ? upstreamBaseUri : upstreamBaseUri + "/");
+        var server = new ServerSocket();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        var threadIndex = new AtomicInteger();
+        var executor = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "petstore-fault-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        var proxy = new FaultProxy(server, upstream, rules, executor);
+        var acceptor = new Thread(proxy::accept, "petstore-fault-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return proxy;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var rules = FaultRule.parseAll(Settings.get("petstore.fault.rules", null));
+        try (var proxy = start(PetStoreStub.uriOrStub(Settings.petStoreUri()), rules, Settings.getInt("petstore.fault.port", 8099))) {
+            System.out.println("petstore-fault listening on " + proxy.baseUri());
+            rules.forEach(rule -> System.out.println("  " + rule.toJson()));
+            System.out.flush();
+            Thread.currentThread().join();
+        }
+    }
+
+    /**
+     * The proxy's address with the upstream base path, to use in place of the store's base URI.
+     */
+    public String baseUri() {
+        return "http://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + context;
+    }
+
+    public List<FaultRule> rules() {
+        return rules;
+    }
+
+    /**
+     * The rules with what each has injected so far, and the requests that matched none.
+     */
+    public JSONObject toJson() {
+        var ruleJson = new JSONArray();
+        for (var i = 0; i < rules.size(); i++) {
+            ruleJson.put(rules.get(i).toJson().put("injected", injected.get(i).toJson()));
+        }
+        return new JSONObject()
+                .put("upstream", upstream.toString())
+                .put("rules", ruleJson)
+                .put("unmatched", unmatched.toJson());
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            //Closing anyway
+        }
+        for (var socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                //Closing anyway
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                var socket = server.accept();
+                connections.add(socket);
+                executor.execute(() -> serve(socket));
+            } catch (IOException | RuntimeException e) {
+                //Closed, or the executor was shut down with it
+                if (server.isClosed()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            var in = new BufferedInputStream(socket.getInputStream());
+            var out = new BufferedOutputStream(socket.getOutputStream());
+            Request request;
+            while ((request = Request.read(in, out)) != null) {
+                if (!handle(request, socket, out)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            //The client went away or sent something that is not HTTP
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * @return whether the connection stays open for another request
+     */
+    private boolean handle(Request request, Socket socket, OutputStream out) throws IOException {
+        var relative = relativeTarget(request.target);
+        var query = relative.indexOf('?');
+        var endpointKey = request.method + " " + (query < 0 ? relative : relative.substring(0, query));
+        var index = ruleFor(endpointKey);
+        var rule = index < 0 ? null : rules.get(index);
+        var counters = index < 0 ? unmatched : injected.get(index);
+        var keepAlive = request.keepAlive();
+        var head = request.method.equals("HEAD");
+        counters.requests.increment();
+
+        if (rule != null) {
+            var random = ThreadLocalRandom.current();
+            var delay = rule.latency().sampleNanos(random);
+            if (delay > 0) {
+                counters.delayed.increment();
+                counters.delayNanos.add(delay);
+                parkUntil(System.nanoTime() + delay);
+            }
+            if (rule.reset(random)) {
+                counters.resets.increment();
+                //Linger zero turns the close into a reset, as a crashed server or a dropping load balancer would
+                socket.setSoLinger(true, 0);
+                socket.close();
+                return false;
+            }
+            if (rule.error(random)) {
+                counters.errors.increment();
+                var body = new JSONObject().put("code", rule.errorStatus()).put("type", "error")
+                        .put("message", "injected by the fault proxy").toString().getBytes(StandardCharsets.UTF_8);
+                writeResponse(out, rule.errorStatus(), Map.of("Content-Type", List.of("application/json")), body,
+                        head, keepAlive, rule.bytesPerSecond(), counters);
+                return keepAlive;
+            }
+        }
+
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(HttpRequest.newBuilder(upstream.resolve(relative))
+                    .method(request.method, request.body.length == 0
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(request.body))
+                    .headers(forwardedHeaders(request.headers))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException | IllegalArgumentException e) {
+            counters.upstreamFailures.increment();
+            var body = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+            writeResponse(out, 502, Map.of("Content-Type", List.of("text/plain")), body, head, keepAlive, 0, counters);
+            return keepAlive;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        counters.forwarded.increment();
+        writeResponse(out, response.statusCode(), response.headers().map(), response.body(), head, keepAlive,
+                rule == null ? 0 : rule.bytesPerSecond(), counters);
+        return keepAlive;
+    }
+
+    private String relativeTarget(String target) {
+        var path = target;
+        if (!path.startsWith("/")) {
+            //Absolute form, from a client that was told this is a forward proxy
+            var uri = URI.create(path);
+            path = uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        }
+        if (path.startsWith(context)) {
+            return path.substring(context.length());
+        }
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private int ruleFor(String endpointKey) {
+        for (var i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matcher(endpointKey).matches()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String[] forwardedHeaders(List<String[]> headers) {
+        var forwarded = new ArrayList<String>();
+        for (var header : headers) {
+            if (!HOP_BY_HOP.contains(header[0].toLowerCase(Locale.ROOT))) {
+                forwarded.add(header[0]);
+                forwarded.add(header[1]);
+            }
+        }
+        return forwarded.toArray(new String[0]);
+    }
+
+    private static void writeResponse(OutputStream out, int status, Map<String, List<String>> headers, byte[] body,
+                                      boolean head, boolean keepAlive, long bytesPerSecond, Counters counters) throws IOException {
+        var text = new StringBuilder("HTTP/1.1 ").append(status).append(' ').append(reason(status)).append("\r\n");
+        headers.forEach((name, values) -> {
+            if (!name.startsWith(":") && !HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> text.append(name).append(": ").append(value).append("\r\n"));
+            }
+        });
+        text.append("Content-Length: ").append(body.length).append("\r\n");
+        text.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+        out.write(text.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (!head) {
+            writeBody(out, body, bytesPerSecond, counters);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the body in slices of about 10 ms worth of bandwidth, each sent once the previous ones
+     * are due at that rate.
+     */
+    private static void writeBody(OutputStream out, byte[] body, long bytesPerSecond, Counters counters) throws IOException {
+        if (bytesPerSecond <= 0) {
+            out.write(body);
+            return;
+        }
+        out.flush();
+        counters.throttledBytes.add(body.length);
+        var slice = (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytesPerSecond / 100));
+        var start = System.nanoTime();
+        for (var offset = 0; offset < body.length; offset += slice) {
+            var length = Math.min(slice, body.length - offset);
+            out.write(body, offset, length);
+            out.flush();
+            parkUntil(start + (long) ((offset + length) * 1e9 / bytesPerSecond));
+        }
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 429:
+                return "Too Many Requests";
+            case 500:
+                return "Internal Server Error";
+            case 502:
+                return "Bad Gateway";
+            case 503:
+                return "Service Unavailable";
+            case 504:
+                return "Gateway Timeout";
+            default:
+                return "Status";
+        }
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * One request off the client connection, with its body read in full.
+     */
+    private static final class Request {
+        private final String method;
+        private final String target;
+        private final String version;
+        private final List<String[]> headers;
+        private final byte[] body;
+
+        private Request(String method, String target, String version, List<String[]> headers, byte[] body) {
+            this.method = method;
+            this.target = target;
+            this.version = version;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /**
+         * @return null when the client closed the connection between requests
+         */
+        private static Request read(InputStream in, OutputStream out) throws IOException {
+            String line;
+            do {
+                line = readLine(in);
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isEmpty());
+            var parts = line.split(" ");
+            if (parts.length != 3) {
+                throw new IOException("Malformed request line: " + line);
+            }
+            var headers = readHeaders(in);
+            var request = new Request(parts[0], parts[1], parts[2], headers, new byte[0]);
+            if ("100-continue".equalsIgnoreCase(request.header("Expect"))) {
+                out.write("HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+            }
+            byte[] body;
+            if ("chunked".equalsIgnoreCase(request.header("Transfer-Encoding"))) {
+                body = readChunked(in);
+            } else {
+                var length = request.header("Content-Length");
+                body = length == null ? new byte[0] : readFully(in, Integer.parseInt(length.trim()));
+            }
+            return new Request(request.method, request.target, request.version, headers, body);
+        }
+
+        private String header(String name) {
+            for (var header : headers) {
+                if (header[0].equalsIgnoreCase(name)) {
+                    return header[1];
+                }
+            }
+            return null;
+        }
+
+        private boolean keepAlive() {
+            var connection = header("Connection");
+            return version.equals("HTTP/1.1")
+                    ? !"close".equalsIgnoreCase(connection)
+                    : "keep-alive".equalsIgnoreCase(connection);
+        }
+
+        private static List<String[]> readHeaders(InputStream in) throws IOException {
+            var headers = new ArrayList<String[]>();
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                var colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers.add(new String[]{line.substring(0, colon).trim(), line.substring(colon + 1).trim()});
+                }
+            }
+            return headers;
+        }
+
+        private static byte[] readChunked(InputStream in) throws IOException {
+            var body = new ByteArrayOutputStream();
+            while (true) {
+                var sizeLine = readLine(in);
+                if (sizeLine == null) {
+                    throw new IOException("Connection closed inside a chunked body");
+                }
+                var extension = sizeLine.indexOf(';');
+                var size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+                if (size == 0) {
+                    readHeaders(in);
+                    return body.toByteArray();
+                }
+                body.write(readFully(in, size));
+                readLine(in);
+            }
+        }
+
+        private static byte[] readFully(InputStream in, int length) throws IOException {
+            var bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new IOException("Connection closed after " + bytes.length + " of " + length + " body bytes");
+            }
+            return bytes;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            var line = new StringBuilder();
+            int next;
+            while ((next = in.read()) != -1 && next != '\n') {
+                if (next != '\r') {
+                    line.append((char) next);
+                }
+                if (line.length() > MAX_LINE) {
+                    throw new IOException("Request line or header longer than " + MAX_LINE + " bytes");
+                }
+            }
+            return next == -1 && line.length() == 0 ? null : line.toString();
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder forwarded = new LongAdder();
+        private final LongAdder delayed = new LongAdder();
+        private final LongAdder delayNanos = new LongAdder();
+        private final LongAdder resets = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder throttledBytes = new LongAdder();
+        private final LongAdder upstreamFailures = new LongAdder();
+
+        private JSONObject toJson() {
+            return new JSONObject()
+                    .put("requests", requests.sum())
+                    .put("forwarded", forwarded.sum())
+                    .put("delayed", delayed.sum())
+                    .put("addedDelayMs", delayNanos.sum() / 1_000_000.0)
+                    .put("resets", resets.sum())
+                    .put("errors", errors.sum())
+                    .put("throttledBytes", throttledBytes.sum())
+                    .put("upstreamFailures", upstreamFailures.sum());
+        }
+    }
+}
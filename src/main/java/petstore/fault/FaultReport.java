@@ -0,0 +1,98 @@
+package petstore.fault;
+
+import org.HdrHistogram.Histogram;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.client.RequestPolicy;
+import petstore.client.RequestStats;
+import petstore.load.LoadReport;
+import petstore.load.RunReport;
+import petstore.metrics.EndpointStats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of a fault experiment: one load report per request policy, with the latency of all
+ * endpoints together so the policies' tails can be compared at a glance.
+ */
+public class FaultReport implements RunReport {
+
+    private final FaultProfile profile;
+    private final List<PolicyRun> runs;
+
+    FaultReport(FaultProfile profile, List<PolicyRun> runs) {
+        this.profile = profile;
+        this.runs = List.copyOf(runs);
+    }
+
+    public List<PolicyRun> runs() {
+        return runs;
+    }
+
+    public JSONObject toJson() {
+        var runJson = new JSONArray();
+        runs.forEach(run -> runJson.put(run.toJson()));
+        return new JSONObject()
+                .put("profile", profile.toJson())
+                .put("runs", runJson);
+    }
+
+    @Override
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    @Override
+    public String summary() {
+        var summary = new StringBuilder();
+        summary.append(String.format("Fault experiment, %d rules, %d policies%n", profile.rules().size(), runs.size()));
+        summary.append(String.format("%-28s %9s %8s %9s %9s %9s %9s %8s %8s %6s%n",
+                "policy", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "retries", "hedges", "won"));
+        for (var run : runs) {
+            var all = run.allEndpoints();
+            summary.append(String.format("%-28s %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %8d %8d %6d%n",
+                    run.spec(), run.load().requestThroughput(), run.load().errorRate() * 100,
+                    EndpointStats.millisAt(all, 50), EndpointStats.millisAt(all, 99), EndpointStats.millisAt(all, 99.9),
+                    all.getMaxValue() / 1000.0, run.stats().retries(), run.stats().hedges(), run.stats().hedgeWins()));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * One load run under one request policy.
+     *
+     * @param spec     the policy as configured, e.g. "retry=3,hedge=50ms"
+     * @param injected what the proxy injected during the run, see {@link FaultProxy#toJson()}
+     */
+    public record PolicyRun(String spec, RequestPolicy policy, LoadReport load, RequestStats stats, JSONObject injected) {
+
+        /**
+         * Latencies of every endpoint merged into one histogram.
+         */
+        public Histogram allEndpoints() {
+            var all = new Histogram(3);
+            load.registry().all().forEach(stats -> all.add(stats.snapshot()));
+            return all;
+        }
+
+        JSONObject toJson() {
+            var all = allEndpoints();
+            return new JSONObject()
+                    .put("policy", spec)
+                    .put("requestPolicy", policy.toJson())
+                    .put("requestStats", stats.toJson())
+                    .put("p50Ms", EndpointStats.millisAt(all, 50))
+                    .put("p99Ms", EndpointStats.millisAt(all, 99))
+                    .put("p999Ms", EndpointStats.millisAt(all, 99.9))
+                    .put("maxMs", all.getMaxValue() / 1000.0)
+                    .put("proxy", injected)
+                    .put("load", load.toJson());
+        }
+    }
+}
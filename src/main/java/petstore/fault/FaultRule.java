@@ -0,0 +1,148 @@
+package petstore.fault;
+
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Faults the proxy injects into the requests for one endpoint. Rules are written as
+ * "endpoint|key=value|...", several separated by ';', e.g.
+ * "GET pet/findByStatus|bandwidth=64k; *|latency=spike:250ms@5%|error=503@2%|reset=1%".
+ * The endpoint is a method and path template like the ApiCall endpoints, where a {parameter} matches
+ * one path segment and * matches anything; the first matching rule applies.
+ * <ul>
+ * <li>latency: a {@link LatencyDistribution}, added before the request is answered</li>
+ * <li>bandwidth: bytes per second the response body is written at, with an optional k or m suffix</li>
+ * <li>reset: share of requests whose connection is reset instead of answered</li>
+ * <li>error: status@share, share of requests answered with that status without asking the store</li>
+ * </ul>
+ * A share is a fraction (0.05) or a percentage (5%).
+ */
+public record FaultRule(String endpoint, LatencyDistribution latency, long bytesPerSecond, double resetRate,
+                        double errorRate, int errorStatus) {
+
+    private static final Pattern PATH_PARAM = Pattern.compile("\\{[^}/]+}");
+
+    public FaultRule {
+        if (resetRate < 0 || resetRate > 1 || errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Fault shares must be between 0 and 1 for " + endpoint);
+        }
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Bandwidth must not be negative for " + endpoint);
+        }
+    }
+
+    public static List<FaultRule> parseAll(String spec) {
+        var rules = new ArrayList<FaultRule>();
+        if (spec == null || spec.isBlank()) {
+            return rules;
+        }
+        for (var rule : spec.split(";")) {
+            if (!rule.isBlank()) {
+                rules.add(parse(rule));
+            }
+        }
+        return rules;
+    }
+
+    public static FaultRule parse(String spec) {
+        var fields = spec.split("\\|");
+        var endpoint = fields[0].trim();
+        var latency = LatencyDistribution.NONE;
+        long bytesPerSecond = 0;
+        double resetRate = 0;
+        double errorRate = 0;
+        var errorStatus = 503;
+        for (var i = 1; i < fields.length; i++) {
+            var field = fields[i].trim();
+            var separator = field.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value in fault rule " + spec + ", was " + field);
+            }
+            var key = field.substring(0, separator).trim();
+            var value = field.substring(separator + 1).trim();
+            switch (key) {
+                case "latency":
+                    latency = LatencyDistribution.parse(value);
+                    break;
+                case "bandwidth":
+                    bytesPerSecond = Settings.parseBytes(value);
+                    break;
+                case "reset":
+                    resetRate = share(value);
+                    break;
+                case "error": {
+                    var at = value.indexOf('@');
+                    if (at < 0) {
+                        throw new IllegalArgumentException("Expected error=status@share in fault rule " + spec);
+                    }
+                    errorStatus = Integer.parseInt(value.substring(0, at).trim());
+                    errorRate = share(value.substring(at + 1));
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown fault " + key + " in rule " + spec);
+            }
+        }
+        return new FaultRule(endpoint, latency, bytesPerSecond, resetRate, errorRate, errorStatus);
+    }
+
+    boolean reset(Random random) {
+        return resetRate > 0 && random.nextDouble() < resetRate;
+    }
+
+    boolean error(Random random) {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("endpoint", endpoint)
+                .put("latency", latency.toString())
+                .put("bytesPerSecond", bytesPerSecond)
+                .put("resetRate", resetRate)
+                .put("errorRate", errorRate)
+                .put("errorStatus", errorStatus);
+    }
+
+    static double share(String value) {
+        var text = value.trim();
+        return text.endsWith("%")
+                ? Double.parseDouble(text.substring(0, text.length() - 1)) / 100
+                : Double.parseDouble(text);
+    }
+
+    /**
+     * The endpoint as a pattern over method and path without the query, e.g. "GET store/order/12"; the proxy
+     * compiles it once per rule.
+     */
+    Pattern pattern() {
+        var regex = new StringBuilder();
+        var matcher = PATH_PARAM.matcher(endpoint);
+        var index = 0;
+        while (matcher.find()) {
+            regex.append(glob(endpoint.substring(index, matcher.start()))).append("[^/]+");
+            index = matcher.end();
+        }
+        regex.append(glob(endpoint.substring(index)));
+        return Pattern.compile(regex.toString());
+    }
+
+    private static String glob(String literal) {
+        var parts = literal.split("\\*", -1);
+        var regex = new StringBuilder();
+        for (var i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            if (!parts[i].isEmpty()) {
+                regex.append(Pattern.quote(parts[i]));
+            }
+        }
+        return regex.toString();
+    }
+}
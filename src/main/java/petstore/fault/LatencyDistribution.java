@@ -0,0 +1,91 @@
+package petstore.fault;
+
+import petstore.Settings;
+
+import java.util.Random;
+
+/**
+ * Extra delay the fault proxy adds before it answers, written as
+ * "fixed:20ms", "uniform:10ms..50ms", "exponential:30ms" (the mean) or "spike:500ms@5%"
+ * (that delay for the given share of requests, none for the rest); "none" adds nothing.
+ */
+public record LatencyDistribution(Kind kind, long firstNanos, long secondNanos, double probability) {
+
+    public static final LatencyDistribution NONE = new LatencyDistribution(Kind.NONE, 0, 0, 0);
+
+    public enum Kind {
+        NONE, FIXED, UNIFORM, EXPONENTIAL, SPIKE
+    }
+
+    public static LatencyDistribution parse(String spec) {
+        if (spec == null || spec.isBlank() || spec.trim().equalsIgnoreCase("none")) {
+            return NONE;
+        }
+        var separator = spec.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected kind:value for a latency distribution, was " + spec);
+        }
+        var kind = Kind.valueOf(spec.substring(0, separator).trim().toUpperCase());
+        var value = spec.substring(separator + 1).trim();
+        switch (kind) {
+            case FIXED:
+            case EXPONENTIAL:
+                return new LatencyDistribution(kind, nanos(value), 0, 1);
+            case UNIFORM: {
+                var range = value.split("\\.\\.");
+                if (range.length != 2) {
+                    throw new IllegalArgumentException("Expected uniform:min..max, was " + spec);
+                }
+                return new LatencyDistribution(kind, nanos(range[0]), nanos(range[1]), 1);
+            }
+            case SPIKE: {
+                var at = value.indexOf('@');
+                if (at < 0) {
+                    throw new IllegalArgumentException("Expected spike:delay@share, was " + spec);
+                }
+                return new LatencyDistribution(kind, nanos(value.substring(0, at)), 0, FaultRule.share(value.substring(at + 1)));
+            }
+            default:
+                return NONE;
+        }
+    }
+
+    public long sampleNanos(Random random) {
+        switch (kind) {
+            case FIXED:
+                return firstNanos;
+            case UNIFORM:
+                return secondNanos <= firstNanos ? firstNanos : firstNanos + (long) (random.nextDouble() * (secondNanos - firstNanos));
+            case EXPONENTIAL:
+                return (long) (-Math.log(1 - random.nextDouble()) * firstNanos);
+            case SPIKE:
+                return random.nextDouble() < probability ? firstNanos : 0;
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case FIXED:
+                return "fixed:" + millis(firstNanos);
+            case UNIFORM:
+                return "uniform:" + millis(firstNanos) + ".." + millis(secondNanos);
+            case EXPONENTIAL:
+                return "exponential:" + millis(firstNanos);
+            case SPIKE:
+                return "spike:" + millis(firstNanos) + "@" + probability * 100 + "%";
+            default:
+                return "none";
+        }
+    }
+
+    private static long nanos(String value) {
+        return Settings.parseDuration(value).toNanos();
+    }
+
+    private static String millis(long nanos) {
+        return nanos / 1_000_000.0 + "ms";
+    }
+}
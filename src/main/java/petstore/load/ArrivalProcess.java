@@ -0,0 +1,14 @@
+package petstore.load;
+
+/**
+ * The intended start times of a run's iterations, as offsets from the start of the run.
+ * Offsets come from the schedule alone, never from when earlier iterations finished, so a slow
+ * response cannot postpone the next request and hide itself from the measurement.
+ */
+interface ArrivalProcess {
+
+    /**
+     * @return the next intended start in nanoseconds after the start of the run, or -1 when there are no more
+     */
+    long nextOffsetNanos();
+}
@@ -0,0 +1,124 @@
+package petstore.load;
+
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.capture.TrafficLogReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a load run spaces its iterations and how much it lets pile up when the store falls behind.
+ *
+ * @param trace      start offsets for {@link Arrivals#TRACE}: a capture log (.pstl) or a text file with one offset in
+ *                   seconds per line
+ * @param maxBacklog iterations that may be scheduled but not yet completed, queued ones included
+ */
+public record ArrivalProfile(Arrivals arrivals, Path trace, int maxBacklog, BacklogPolicy backlogPolicy) {
+
+    public ArrivalProfile {
+        if (arrivals == Arrivals.TRACE && trace == null) {
+            throw new IllegalArgumentException("Trace arrivals need petstore.load.trace");
+        }
+        if (maxBacklog <= 0) {
+            throw new IllegalArgumentException("Maximum backlog must be positive, was " + maxBacklog);
+        }
+    }
+
+    public static ArrivalProfile fromSettings() {
+        var trace = Settings.get("petstore.load.trace", null);
+        return new ArrivalProfile(
+                Arrivals.valueOf(Settings.get("petstore.load.arrivals", "constant").toUpperCase()),
+                trace == null ? null : Path.of(trace),
+                Settings.getInt("petstore.load.maxBacklog", 1000),
+                BacklogPolicy.valueOf(Settings.get("petstore.load.backlogPolicy", "drop").toUpperCase()));
+    }
+
+    public static ArrivalProfile fromJson(JSONObject json) {
+        return new ArrivalProfile(
+                Arrivals.valueOf(json.optString("arrivals", Arrivals.CONSTANT.name())),
+                json.has("trace") ? Path.of(json.getString("trace")) : null,
+                json.optInt("maxBacklog", 1000),
+                BacklogPolicy.valueOf(json.optString("backlogPolicy", BacklogPolicy.DROP.name())));
+    }
+
+    /**
+     * Fresh arrival sequence for one run at the given rate.
+     */
+    ArrivalProcess start(double rate) {
+        var meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        switch (arrivals) {
+            case CONSTANT: {
+                var index = new long[1];
+                //Offsets are computed from the index, so rounding does not accumulate over a long run
+                return () -> (long) (index[0]++ * meanGapNanos);
+            }
+            case POISSON: {
+                var random = new SplittableRandom();
+                var offset = new double[1];
+                return () -> {
+                    var current = (long) offset[0];
+                    offset[0] += -Math.log(1.0 - random.nextDouble()) * meanGapNanos;
+                    return current;
+                };
+            }
+            default: {
+                var offsets = readTrace(trace);
+                var index = new int[1];
+                return () -> index[0] < offsets.length ? offsets[index[0]++] : -1;
+            }
+        }
+    }
+
+    private static long[] readTrace(Path trace) {
+        try {
+            long[] offsets;
+            if (trace.getFileName().toString().endsWith(".pstl")) {
+                try (var log = new TrafficLogReader(trace)) {
+                    var read = new long[1024];
+                    var count = 0;
+                    while (log.next()) {
+                        if (count == read.length) {
+                            read = Arrays.copyOf(read, count * 2);
+                        }
+                        read[count++] = log.startOffsetNanos();
+                    }
+                    offsets = Arrays.copyOf(read, count);
+                }
+            } else {
+                offsets = Files.readAllLines(trace).stream()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .mapToLong(line -> (long) (Double.parseDouble(line) * TimeUnit.SECONDS.toNanos(1)))
+                        .toArray();
+            }
+            //Captured requests overlap, so their start offsets are only roughly in order
+            Arrays.sort(offsets);
+            if (offsets.length > 0 && offsets[0] > 0) {
+                var first = offsets[0];
+                for (var i = 0; i < offsets.length; i++) {
+                    offsets[i] -= first;
+                }
+            }
+            return offsets;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read arrival trace " + trace, e);
+        }
+    }
+
+    public JSONObject toJson() {
+        var json = new JSONObject()
+                .put("arrivals", arrivals.name())
+                .put("maxBacklog", maxBacklog)
+                .put("backlogPolicy", backlogPolicy.name());
+        if (trace != null) {
+            json.put("trace", trace.toString());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,16 @@
+package petstore.load;
+
+/**
+ * When scenario iterations are meant to start (petstore.load.arrivals).
+ */
+public enum Arrivals {
+
+    //Evenly spaced at the target rate
+    CONSTANT,
+
+    //Exponentially distributed gaps averaging the target rate, i.e. independent users arriving at random
+    POISSON,
+
+    //Start offsets read from petstore.load.trace; the target rate is not used
+    TRACE
+}
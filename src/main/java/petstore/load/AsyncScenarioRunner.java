@@ -0,0 +1,136 @@
+package petstore.load;
+
+import petstore.client.AsyncPetStoreClient;
+import petstore.client.RequestPolicy;
+import petstore.client.RequestStats;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.StepEvent;
+import petstore.plan.PlanRun;
+import petstore.plan.PlanStep;
+import petstore.session.Session;
+import petstore.session.SessionCache;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the same {@link LoadScenario} plans on the {@link AsyncPetStoreClient}. The plan's steps are
+ * chained with thenCompose, so each starts when the previous one has succeeded and no thread waits on
+ * the wire in between. A step is only rendered when its turn comes, so it sees the values earlier steps
+ * extracted, and whether a login step is needed is decided then too, so a session cached by an iteration
+ * still in flight is borrowed.
+ */
+class AsyncScenarioRunner {
+
+    private final AsyncPetStoreClient client;
+    private final LatencyRegistry registry;
+    private final RequestPolicy policy;
+    private final RequestStats requestStats;
+    private final SessionCache sessions;
+
+    AsyncScenarioRunner(AsyncPetStoreClient client, LatencyRegistry registry) {
+        this(client, registry, null, null, null);
+    }
+
+    /**
+     * @param policy retries and hedges every step; null sends each step once
+     */
+    AsyncScenarioRunner(AsyncPetStoreClient client, LatencyRegistry registry, RequestPolicy policy, RequestStats requestStats) {
+        this(client, registry, policy, requestStats, null);
+    }
+
+    /**
+     * @param sessions sessions borrowed across iterations; null logs in on every session step
+     */
+    AsyncScenarioRunner(AsyncPetStoreClient client, LatencyRegistry registry, RequestPolicy policy, RequestStats requestStats,
+                        SessionCache sessions) {
+        this.client = client;
+        this.registry = registry;
+        this.policy = policy;
+        this.requestStats = requestStats;
+        this.sessions = sessions;
+    }
+
+    /**
+     * @param intendedStartNanos when the scheduler meant the iteration to start; the first step is timed from there
+     * @return completes with true when every step of the scenario succeeded; never completes exceptionally
+     */
+    CompletableFuture<Boolean> run(LoadScenario scenario, long intendedStartNanos) {
+        var plan = scenario.plan();
+        //Iterations overlap on the completion threads, so each gets a run of its own
+        var run = plan.newRun(sessions);
+        var chain = CompletableFuture.completedFuture(true);
+        //Steps run one after another, so the first one actually sent takes the intended start
+        var measureFrom = new long[]{intendedStartNanos};
+        for (var step : plan.steps()) {
+            chain = chain.thenCompose(ok -> ok ? send(step, run, measureFrom) : CompletableFuture.completedFuture(false));
+        }
+        return chain;
+    }
+
+    private CompletableFuture<Boolean> send(PlanStep step, PlanRun run, long[] measureFrom) {
+        var session = step.borrow(run, sessions);
+        if (step.satisfiedBy(session)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        var event = new StepEvent();
+        event.begin();
+        var start = Math.min(System.nanoTime(), measureFrom[0]);
+        measureFrom[0] = Long.MAX_VALUE;
+        CompletableFuture<StepResult> sent;
+        try {
+            //Rendered when the step's turn comes, so it sees what earlier steps extracted
+            var request = request(step, run, session);
+            sent = policy != null && policy.retriesOrHedges()
+                    ? policy.executeAsync(() -> attempt(step, run, request), StepResult::status, requestStats)
+                    : attempt(step, run, request);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((result, error) -> {
+            var ok = error == null && result.ok();
+            registry.record(step.endpoint(), System.nanoTime() - start, ok);
+            event.finish(step.endpoint(), error == null ? result.status() : 0, ok);
+            step.settle(run, sessions, ok, ok ? result.body() : null, ok ? result.expiresAfter() : null);
+            return ok;
+        });
+    }
+
+    private HttpRequest request(PlanStep step, PlanRun run, Session session) {
+        var request = client.requestFor(step.call(run));
+        if (session != null) {
+            request.header(Session.TOKEN_HEADER, session.token());
+        }
+        return request.build();
+    }
+
+    /**
+     * Sends the step once; completes when the body has been read and checked, or streamed through the check.
+     */
+    private CompletableFuture<StepResult> attempt(PlanStep step, PlanRun run, HttpRequest request) {
+        try {
+            if (step.streamsList()) {
+                //The stream is read on a completion thread, one element at a time
+                return client.send(request, HttpResponse.BodyHandlers.ofInputStream()).thenApply(response ->
+                        new StepResult(response.statusCode(), step.checkList(response.statusCode(), response.body()) == null, null, null));
+            }
+            if (!step.readsBody()) {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).thenApply(response ->
+                        new StepResult(response.statusCode(), step.check(run, response.statusCode(), null) == null, null, null));
+            }
+            return client.send(request, HttpResponse.BodyHandlers.ofString()).thenApply(response ->
+                    new StepResult(response.statusCode(), step.check(run, response.statusCode(), response.body()) == null,
+                            response.body(), response.headers().firstValue(Session.EXPIRES_HEADER).orElse(null)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @param body         the answer body when the step reads it, for the session a login caches
+     * @param expiresAfter the answer's expiry header, likewise
+     */
+    private record StepResult(int status, boolean ok, String body, String expiresAfter) {
+    }
+}
@@ -0,0 +1,14 @@
+package petstore.load;
+
+/**
+ * What the scheduler does with an arrival while petstore.load.maxBacklog iterations are still outstanding
+ * (petstore.load.backlogPolicy).
+ */
+public enum BacklogPolicy {
+
+    //Skip the arrival and count it as dropped; the run keeps its schedule
+    DROP,
+
+    //Stop scheduling; the run reports how far it got
+    ABORT
+}
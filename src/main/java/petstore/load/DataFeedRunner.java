@@ -0,0 +1,91 @@
+package petstore.load;
+
+import org.json.JSONObject;
+import petstore.client.ConnectionPoolSettings;
+import petstore.client.PetStoreClient;
+import petstore.data.DataKind;
+import petstore.data.RowReader;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.LiveMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes every row of a (possibly very large) data sheet through the plan of its kind
+ * with a pool of workers. A row is only read once a worker is free to take it, so memory use
+ * does not depend on the size of the sheet.
+ */
+public class DataFeedRunner {
+
+    private final String baseUri;
+    private final Path file;
+    private final DataKind kind;
+    private final int workers;
+    private final LatencyRegistry registry = new LatencyRegistry();
+    private final LongAdder completedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+
+    public DataFeedRunner(String baseUri, Path file, DataKind kind, int workers) {
+        this.baseUri = baseUri;
+        this.file = file;
+        this.kind = kind;
+        this.workers = workers;
+    }
+
+    public LoadReport run() throws IOException, InterruptedException {
+        LiveMetrics.publish("data-feed", registry);
+        var pool = ConnectionPoolSettings.fromSettings();
+        var threadIndex = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(workers, runnable -> {
+            var thread = new Thread(runnable, "petstore-data-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        var freeWorkers = new Semaphore(workers);
+        var start = System.nanoTime();
+        var readRows = 0L;
+        try (var client = new PetStoreClient(baseUri, pool); var reader = RowReader.open(file)) {
+            try {
+                while (reader.hasNext()) {
+                    freeWorkers.acquire();
+                    var row = reader.next();
+                    readRows++;
+                    executor.execute(() -> {
+                        try {
+                            send(client, row);
+                        } finally {
+                            freeWorkers.release();
+                        }
+                    });
+                }
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        }
+        var settings = new JSONObject()
+                .put("baseUri", baseUri)
+                .put("file", file.toString())
+                .put("kind", kind.name())
+                .put("workers", workers);
+        return new LoadReport("Data feed", settings, readRows, completedRows.sum(), failedRows.sum(),
+                System.nanoTime() - start, registry);
+    }
+
+    private void send(PetStoreClient client, Map<String, String> row) {
+        var context = new RecordingContext(client, registry);
+        //Workers finish a row before taking the next, so rows on a thread can share the thread's run
+        var ok = context.run(kind.plan(), kind.bind(kind.plan().localRun(null), row));
+        completedRows.increment();
+        if (!ok) {
+            failedRows.increment();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package petstore.load;
+
+/**
+ * How load iterations are executed (petstore.load.engine).
+ */
+public enum Engine {
+
+    //RestAssured on a worker pool, one blocked thread per in-flight iteration
+    RESTASSURED,
+
+    //JDK HttpClient sendAsync with HTTP/2 where available; workers size the completion pool
+    ASYNC
+}
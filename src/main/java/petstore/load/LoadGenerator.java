@@ -0,0 +1,209 @@
+package petstore.load;
+
+import org.apache.http.pool.PoolStats;
+import petstore.client.AsyncPetStoreClient;
+import petstore.client.ConnectionPoolSettings;
+import petstore.client.PetStoreClient;
+import petstore.client.RequestPolicy;
+import petstore.client.RequestStats;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.LiveMetrics;
+import petstore.session.SessionCache;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop driver: starts scenario iterations at the intended times of an {@link ArrivalProcess},
+ * regardless of how long earlier iterations take to complete. The first step of an iteration is timed
+ * from its intended start, so time spent queued behind a stalled store counts as latency instead of
+ * silently shifting the schedule (coordinated omission). Steps are sent under a {@link RequestPolicy},
+ * so timeouts, retries and hedging show up in the measured latencies the way a real client would see them.
+ * Scenarios borrow logged-in sessions from a cache that lives as long as the run.
+ */
+public class LoadGenerator {
+
+    private final LoadProfile profile;
+    private final RequestPolicy policy;
+    private final RequestStats requestStats = new RequestStats();
+    private final SessionCache sessions = SessionCache.fromSettings();
+    private final LatencyRegistry registry = new LatencyRegistry();
+    private final LongAdder scheduledIterations = new LongAdder();
+    private final LongAdder completedIterations = new LongAdder();
+    private final LongAdder failedIterations = new LongAdder();
+    private final LongAdder droppedIterations = new LongAdder();
+    private final AtomicLong backlog = new AtomicLong();
+    private volatile PetStoreClient client;
+    private volatile String abortReason;
+
+    public LoadGenerator(LoadProfile profile) {
+        this(profile, RequestPolicy.fromSettings());
+    }
+
+    public LoadGenerator(LoadProfile profile, RequestPolicy policy) {
+        this.profile = profile;
+        this.policy = policy;
+    }
+
+    /**
+     * Live view of the run, e.g. for progress snapshots while {@link #run()} is still going.
+     */
+    public LatencyRegistry registry() {
+        return registry;
+    }
+
+    public long scheduledIterations() {
+        return scheduledIterations.sum();
+    }
+
+    public long completedIterations() {
+        return completedIterations.sum();
+    }
+
+    public long failedIterations() {
+        return failedIterations.sum();
+    }
+
+    public long droppedIterations() {
+        return droppedIterations.sum();
+    }
+
+    /**
+     * Why the scheduler stopped before the duration was up; null while it has not.
+     */
+    public String abortReason() {
+        return abortReason;
+    }
+
+    /**
+     * Retries and hedges sent so far on top of the scenario steps.
+     */
+    public RequestStats requestStats() {
+        return requestStats;
+    }
+
+    /**
+     * Sessions the scenarios have borrowed so far, with hit and login counts.
+     */
+    public SessionCache sessions() {
+        return sessions;
+    }
+
+    /**
+     * Pool statistics of the RestAssured engine's client while the run is going; null before, after,
+     * and with the async engine.
+     */
+    public PoolStats connectionPoolStats() {
+        var current = client;
+        return current == null ? null : current.poolStats();
+    }
+
+    public LoadReport run() throws InterruptedException {
+        LiveMetrics.publish("load", registry);
+        if (profile.engine() == Engine.ASYNC) {
+            try (var client = new AsyncPetStoreClient(profile.baseUri(), profile.workers(), null, policy)) {
+                return run(client);
+            }
+        }
+        try (var client = new PetStoreClient(profile.baseUri(), ConnectionPoolSettings.fromSettings(), policy)) {
+            this.client = client;
+            return run(client);
+        } finally {
+            this.client = null;
+        }
+    }
+
+    private LoadReport run(PetStoreClient client) throws InterruptedException {
+        var threadIndex = new AtomicInteger();
+        var workers = Executors.newFixedThreadPool(profile.workers(), runnable -> {
+            var thread = new Thread(runnable, "petstore-load-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        var start = System.nanoTime();
+        var scheduled = schedule(start, (scenario, intendedStart) -> workers.execute(() -> runIteration(client, scenario, intendedStart)));
+
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        return report(scheduled, start);
+    }
+
+    private LoadReport run(AsyncPetStoreClient client) throws InterruptedException {
+        var runner = new AsyncScenarioRunner(client, registry, policy, requestStats, sessions);
+
+        var start = System.nanoTime();
+        var scheduled = schedule(start, (scenario, intendedStart) -> runner.run(scenario, intendedStart).thenAccept(this::completed));
+
+        //Same grace period the worker pool gets to finish what is in flight
+        var drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (backlog.get() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return report(scheduled, start);
+    }
+
+    private LoadReport report(long scheduled, long start) {
+        return new LoadReport("Load", profile.toJson().put("requests", policy.toJson()).put("sessions", sessions.toJson()), scheduled, completedIterations.sum(), failedIterations.sum(),
+                droppedIterations.sum(), System.nanoTime() - start, registry, abortReason);
+    }
+
+    /**
+     * Starts iterations at the intended times of the arrival process until the duration is up. An arrival
+     * that finds the backlog full is dropped or ends the run, as the backlog policy says; either way
+     * it is counted as scheduled, so a run that fell behind shows it.
+     */
+    private long schedule(long start, IterationStarter starter) {
+        var arrivals = profile.arrivals().start(profile.rate());
+        var maxBacklog = profile.arrivals().maxBacklog();
+        var end = start + profile.duration().toNanos();
+        long offset;
+        while ((offset = arrivals.nextOffsetNanos()) >= 0 && start + offset < end) {
+            var intendedStart = start + offset;
+            parkUntil(intendedStart);
+            scheduledIterations.increment();
+            if (backlog.get() >= maxBacklog) {
+                droppedIterations.increment();
+                if (profile.arrivals().backlogPolicy() == BacklogPolicy.ABORT) {
+                    abortReason = String.format("backlog of %d iterations full after %.1fs", maxBacklog, offset / 1e9);
+                    break;
+                }
+                continue;
+            }
+            backlog.incrementAndGet();
+            starter.start(profile.mix().pick(ThreadLocalRandom.current()), intendedStart);
+        }
+        return scheduledIterations.sum();
+    }
+
+    private void runIteration(PetStoreClient client, LoadScenario scenario, long intendedStartNanos) {
+        completed(new RecordingContext(client, registry, null, Long.MAX_VALUE, policy, requestStats, sessions)
+                .run(scenario, intendedStartNanos));
+    }
+
+    private void completed(boolean succeeded) {
+        backlog.decrementAndGet();
+        completedIterations.increment();
+        if (!succeeded) {
+            failedIterations.increment();
+        }
+    }
+
+    private interface IterationStarter {
+        void start(LoadScenario scenario, long intendedStartNanos);
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package petstore.load;
+
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.time.Duration;
+
+/**
+ * Target rate, duration and scenario mix of a load run.
+ *
+ * @param rate        scenario iterations started per second
+ * @param workers     threads available to execute iterations
+ * @param maxErrorRate error rate above which the load test fails (1.0 never fails)
+ * @param engine      RestAssured on blocking workers, or the JDK async client
+ * @param arrivals    how iteration starts are spaced and how far the run may fall behind
+ */
+public record LoadProfile(String baseUri, double rate, Duration duration, int workers, ScenarioMix mix,
+                          double maxErrorRate, Engine engine, ArrivalProfile arrivals) {
+
+    public LoadProfile {
+        if (baseUri == null || baseUri.isBlank()) {
+            throw new IllegalArgumentException("Pet store base URI is not set, provide PETSTOREURI");
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Load rate must be positive, was " + rate);
+        }
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive, was " + workers);
+        }
+    }
+
+    public static LoadProfile fromSettings(String baseUri) {
+        return new LoadProfile(
+                baseUri,
+                Settings.getDouble("petstore.load.rps", 10),
+                Settings.getDuration("petstore.load.duration", Duration.ofSeconds(30)),
+                Settings.getInt("petstore.load.workers", 64),
+                ScenarioMix.parse(Settings.get("petstore.load.mix", null)),
+                Settings.getDouble("petstore.load.maxErrorRate", 1.0),
+                Engine.valueOf(Settings.get("petstore.load.engine", "restassured").toUpperCase()),
+                ArrivalProfile.fromSettings());
+    }
+
+    /**
+     * Reads what {@link #toJson()} writes, e.g. a share of a distributed run sent to a worker.
+     */
+    public static LoadProfile fromJson(JSONObject json) {
+        return new LoadProfile(
+                json.getString("baseUri"),
+                json.getDouble("targetRate"),
+                Duration.ofMillis((long) (json.getDouble("durationSeconds") * 1000)),
+                json.getInt("workers"),
+                ScenarioMix.parse(json.getString("mix")),
+                json.optDouble("maxErrorRate", 1.0),
+                Engine.valueOf(json.optString("engine", Engine.RESTASSURED.name())),
+                ArrivalProfile.fromJson(json.optJSONObject("schedule") == null ? new JSONObject() : json.getJSONObject("schedule")));
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("baseUri", baseUri)
+                .put("targetRate", rate)
+                .put("durationSeconds", duration.toMillis() / 1000.0)
+                .put("workers", workers)
+                .put("mix", mix.toString())
+                .put("maxErrorRate", maxErrorRate)
+                .put("engine", engine.name())
+                .put("schedule", arrivals.toJson());
+    }
+}
@@ -0,0 +1,148 @@
+package petstore.load;
+
+import org.json.JSONObject;
+import petstore.metrics.EndpointStats;
+import petstore.metrics.LatencyRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a load run: achieved throughput plus per-endpoint error rate and latency percentiles.
+ */
+public class LoadReport implements RunReport {
+
+    private final String mode;
+    private final JSONObject settings;
+    private final long scheduledIterations;
+    private final long completedIterations;
+    private final long failedIterations;
+    private final long droppedIterations;
+    private final long elapsedNanos;
+    private final LatencyRegistry registry;
+    private final String abortReason;
+
+    public LoadReport(String mode, JSONObject settings, long scheduledIterations, long completedIterations,
+                      long failedIterations, long elapsedNanos, LatencyRegistry registry) {
+        this(mode, settings, scheduledIterations, completedIterations, failedIterations, 0, elapsedNanos, registry);
+    }
+
+    /**
+     * @param droppedIterations scheduled iterations that were never started because the backlog was full
+     */
+    public LoadReport(String mode, JSONObject settings, long scheduledIterations, long completedIterations,
+                      long failedIterations, long droppedIterations, long elapsedNanos, LatencyRegistry registry) {
+        this(mode, settings, scheduledIterations, completedIterations, failedIterations, droppedIterations, elapsedNanos,
+                registry, null);
+    }
+
+    /**
+     * @param abortReason why the run stopped scheduling before its duration was up; null when it ran to the end
+     */
+    public LoadReport(String mode, JSONObject settings, long scheduledIterations, long completedIterations,
+                      long failedIterations, long droppedIterations, long elapsedNanos, LatencyRegistry registry,
+                      String abortReason) {
+        this.mode = mode;
+        this.settings = settings;
+        this.scheduledIterations = scheduledIterations;
+        this.completedIterations = completedIterations;
+        this.failedIterations = failedIterations;
+        this.droppedIterations = droppedIterations;
+        this.elapsedNanos = elapsedNanos;
+        this.registry = registry;
+        this.abortReason = abortReason;
+    }
+
+    public long scheduledIterations() {
+        return scheduledIterations;
+    }
+
+    public long completedIterations() {
+        return completedIterations;
+    }
+
+    public long droppedIterations() {
+        return droppedIterations;
+    }
+
+    public boolean aborted() {
+        return abortReason != null;
+    }
+
+    public String abortReason() {
+        return abortReason;
+    }
+
+    public double elapsedSeconds() {
+        return elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public double requestThroughput() {
+        return registry.totalCount() / elapsedSeconds();
+    }
+
+    public double iterationThroughput() {
+        return completedIterations / elapsedSeconds();
+    }
+
+    public double errorRate() {
+        var total = registry.totalCount();
+        return total == 0 ? 0.0 : (double) registry.totalErrors() / total;
+    }
+
+    public LatencyRegistry registry() {
+        return registry;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("mode", mode)
+                .put("settings", settings)
+                .put("elapsedSeconds", elapsedSeconds())
+                .put("scheduledIterations", scheduledIterations)
+                .put("completedIterations", completedIterations)
+                .put("failedIterations", failedIterations)
+                .put("droppedIterations", droppedIterations)
+                .put("aborted", aborted())
+                .put("abortReason", abortReason == null ? JSONObject.NULL : abortReason)
+                .put("iterationsPerSecond", iterationThroughput())
+                .put("requests", registry.totalCount())
+                .put("requestsPerSecond", requestThroughput())
+                .put("errorRate", errorRate())
+                .put("endpoints", registry.toJson());
+    }
+
+    @Override
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    @Override
+    public String summary() {
+        var summary = new StringBuilder();
+        summary.append(String.format("%s run: %d/%d iterations in %.1fs, %.1f req/s, error rate %.2f%%%n",
+                mode, completedIterations, scheduledIterations, elapsedSeconds(), requestThroughput(), errorRate() * 100));
+        if (droppedIterations > 0) {
+            summary.append(String.format("%d iterations dropped because the store fell behind the schedule%n", droppedIterations));
+        }
+        if (aborted()) {
+            summary.append(String.format("ABORTED: %s%n", abortReason));
+        }
+        summary.append(String.format("%-32s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (var stats : registry.all()) {
+            var histogram = stats.snapshot();
+            summary.append(String.format("%-32s %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    stats.endpoint(), stats.count(), stats.errors(),
+                    EndpointStats.millisAt(histogram, 50), EndpointStats.millisAt(histogram, 90),
+                    EndpointStats.millisAt(histogram, 99), EndpointStats.millisAt(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package petstore.load;
+
+import petstore.plan.Plans;
+import petstore.plan.ScenarioPlan;
+
+/**
+ * The PetStoreTests flows, as the compiled {@link Plans} the functional tests run too, with their weight in the
+ * load mix. Default weights give a read-heavy mix; override them with petstore.load.mix.
+ * User scenarios come back as returning users and borrow their sessions, so only LOGIN, run on its own
+ * with petstore.load.mix=LOGIN=100, measures what a login costs.
+ */
+public enum LoadScenario {
+
+    //_1_petStoreOrderTest
+    PLACE_ORDER(20, Plans.PLACE_ORDER),
+
+    //Order placed, read back and cancelled; used by the virtual user flows
+    ORDER_LIFECYCLE(0, Plans.ORDER_LIFECYCLE),
+
+    //_2_petFindByStatusTest
+    FIND_BY_STATUS(30, Plans.FIND_AVAILABLE),
+
+    //_3_petDeletionWithInvalidOrderIdTest
+    DELETE_MISSING_ORDER(5, Plans.DELETE_MISSING_ORDER),
+
+    //_4_addNewPetTest
+    ADD_PET(15, Plans.ADD_PET),
+
+    //_4_addNewPetTest followed by _5_updateExistingPetTest
+    ADD_AND_UPDATE_PET(10, Plans.ADD_AND_UPDATE_PET),
+
+    //_6_userLogoutTest, logging out a user that has a session
+    USER_LOGOUT(5, Plans.USER_LOGOUT),
+
+    //_7_userOperationsTest
+    USER_OPERATIONS(10, Plans.USER_OPERATIONS),
+
+    //A fresh login on every pass, bypassing the session cache
+    LOGIN(0, Plans.LOGIN),
+
+    //_8_deleteIncorrectUserTest
+    DELETE_MISSING_USER(5, Plans.DELETE_MISSING_USER);
+
+    private final int defaultWeight;
+    private final ScenarioPlan plan;
+
+    LoadScenario(int defaultWeight, ScenarioPlan plan) {
+        this.defaultWeight = defaultWeight;
+        this.plan = plan;
+    }
+
+    public int defaultWeight() {
+        return defaultWeight;
+    }
+
+    public ScenarioPlan plan() {
+        return plan;
+    }
+}
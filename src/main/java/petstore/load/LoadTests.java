@@ -0,0 +1,236 @@
+package petstore.load;
+
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import petstore.Settings;
+import petstore.baseline.PerformanceBaseline;
+import petstore.capacity.CapacityProfile;
+import petstore.capacity.CapacitySearch;
+import petstore.capture.ReplayProfile;
+import petstore.capture.TrafficReplayer;
+import petstore.data.DataKind;
+import petstore.data.SeedPlan;
+import petstore.data.Seeder;
+import petstore.distributed.DistributedProfile;
+import petstore.distributed.LoadCoordinator;
+import petstore.fault.FaultExperiment;
+import petstore.fault.FaultProfile;
+import petstore.payload.PayloadSweep;
+import petstore.payload.PayloadSweepProfile;
+import petstore.soak.SoakProfile;
+import petstore.soak.SoakRunner;
+import petstore.stub.PetStoreStub;
+import petstore.visibility.VisibilityProbe;
+import petstore.visibility.VisibilityProfile;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+public class LoadTests {
+
+    @Test(groups = {"Load"}, description = "Verify the store sustains the configured scenario mix at the target rate")
+    public void scenarioMixLoadTest() throws Exception {
+
+        //Arrange
+        var profile = LoadProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+
+        //Act
+        var report = run("load", "petstore.load.report", profile.toJson(), new LoadGenerator(profile)::run, Function.identity());
+
+        //Assert
+        Assert.assertTrue(report.completedIterations() > 0, "No scenario iteration completed");
+        Assert.assertTrue(report.errorRate() <= profile.maxErrorRate(),
+                "Error rate " + report.errorRate() + " is above the allowed " + profile.maxErrorRate());
+    }
+
+    @Test(groups = {"VirtualUsers"}, description = "Verify user and order flows hold up with many concurrent simulated users")
+    public void virtualUsersTest() throws Exception {
+
+        //Arrange
+        var profile = VirtualUserProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+
+        //Act
+        var report = run("virtual-users", "petstore.vu.report", profile.toJson(), new VirtualUserRunner(profile)::run, Function.identity());
+
+        //Assert
+        Assert.assertTrue(report.completedIterations() > 0, "No virtual user iteration completed");
+    }
+
+    @Test(groups = {"DataFeed"}, description = "Verify every row of a data sheet can be pushed through the store")
+    public void dataFeedTest() throws Exception {
+
+        //Arrange
+        var file = Path.of(Settings.get("petstore.data.file", "src/main/resources/data/pets.csv"));
+        var kind = DataKind.valueOf(Settings.get("petstore.data.kind", "PET").toUpperCase());
+        var workers = Settings.getInt("petstore.data.workers", 16);
+        var profile = new JSONObject().put("file", file.toString()).put("kind", kind.name()).put("workers", workers);
+        var runner = new DataFeedRunner(PetStoreStub.uriOrStub(Settings.petStoreUri()), file, kind, workers);
+
+        //Act
+        var report = run("data-feed", "petstore.data.report", profile, runner::run, Function.identity());
+
+        //Assert
+        Assert.assertTrue(report.completedIterations() > 0, "No row was sent");
+    }
+
+    @Test(groups = {"Seed"}, description = "Seed pets, orders and users ahead of a performance run")
+    public void seedTest() throws Exception {
+
+        //Arrange
+        var seeder = new Seeder(SeedPlan.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri())));
+
+        //Act
+        run("seed", "petstore.seed.report", seeder::run);
+
+        //Assert
+        Assert.assertEquals(seeder.failed(), 0, "Some entities could not be seeded");
+    }
+
+    @Test(groups = {"Replay"}, description = "Verify captured traffic replays against the store with the captured statuses")
+    public void replayTest() throws Exception {
+
+        //Arrange
+        var profile = ReplayProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+
+        //Act
+        var report = run("replay", "petstore.replay.report", profile.toJson(), new TrafficReplayer(profile)::run, Function.identity());
+
+        //Assert
+        Assert.assertTrue(report.completedIterations() > 0, "No captured request was replayed");
+    }
+
+    @Test(groups = {"Distributed"}, description = "Verify the scenario mix holds up when the rate is split across worker processes")
+    public void distributedLoadTest() throws Exception {
+
+        //Arrange
+        var profile = DistributedProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+
+        //Act
+        var report = run("distributed", "petstore.dist.report", profile.toJson(), new LoadCoordinator(profile)::run, Function.identity());
+
+        //Assert
+        Assert.assertTrue(report.completedIterations() > 0, "No scenario iteration completed on any worker");
+        Assert.assertTrue(report.errorRate() <= profile.load().maxErrorRate(),
+                "Error rate " + report.errorRate() + " is above the allowed " + profile.load().maxErrorRate());
+    }
+
+    @Test(groups = {"Soak"}, description = "Verify latency and client resources stay flat over a long run at a steady rate")
+    public void soakTest() throws Exception {
+
+        //Arrange
+        var profile = SoakProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+
+        //Act
+        var report = run("soak", "petstore.soak.report", profile.toJson(), new SoakRunner(profile)::run, soak -> soak.load());
+
+        //Assert
+        Assert.assertTrue(report.load().completedIterations() > 0, "No scenario iteration completed");
+        Assert.assertTrue(report.clientGrowth().isEmpty(), "The load generator itself grows: " + report.clientGrowth());
+        Assert.assertTrue(report.serverDrift().isEmpty(), "Latency drifts upwards: " + report.serverDrift());
+    }
+
+    @Test(groups = {"Fault"}, description = "Verify how retries, timeouts and hedging shape tail latency when the store misbehaves")
+    public void faultInjectionTest() throws Exception {
+
+        //Arrange
+        var profile = FaultProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+
+        //Act
+        var report = run("fault", "petstore.fault.report", new FaultExperiment(profile)::run);
+
+        //Assert
+        for (var run : report.runs()) {
+            Assert.assertTrue(run.load().completedIterations() > 0, "No scenario iteration completed with policy " + run.spec());
+        }
+    }
+
+    @Test(groups = {"Capacity"}, description = "Verify the store sustains the required throughput within its objectives")
+    public void capacitySearchTest() throws Exception {
+
+        //Arrange
+        var profile = CapacityProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+        var required = Settings.getDouble("petstore.capacity.required", 0);
+
+        //Act
+        //Only the highest sustained step is compared with earlier searches
+        var report = run("capacity", "petstore.capacity.report", profile.toJson(), new CapacitySearch(profile)::run,
+                capacity -> capacity.maxSustained() == null ? null : capacity.maxSustained().load());
+        report.writeCurve(Path.of(Settings.get("petstore.capacity.curve", "target/capacity-curve.csv")));
+
+        //Assert
+        Assert.assertFalse(report.points().isEmpty(), "No load step was run");
+        Assert.assertTrue(report.maxSustainableThroughput() >= required,
+                "Max sustainable throughput " + report.maxSustainableThroughput() + " req/s is below the required " + required);
+    }
+
+    @Test(groups = {"Payload"}, description = "Verify how latency and throughput scale with pet body size, with and without gzip")
+    public void payloadSweepTest() throws Exception {
+
+        //Arrange
+        var profile = PayloadSweepProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+        var maxErrorRate = Settings.getDouble("petstore.payload.maxErrorRate", 0);
+
+        //Act
+        var report = run("payload", "petstore.payload.report", new PayloadSweep(profile)::run);
+        report.writeCurve(Path.of(Settings.get("petstore.payload.curve", "target/payload-curve.csv")));
+
+        //Assert
+        for (var point : report.points()) {
+            Assert.assertTrue(point.errorRate() <= maxErrorRate, "Pets of " + point.petBytes() + " bytes sent as "
+                    + point.encoding() + " failed " + point.errorRate() * 100 + "% of the time");
+        }
+    }
+
+    @Test(groups = {"Visibility"}, description = "Verify pet updates become visible to the read endpoints within the allowed lag")
+    public void visibilityLagTest() throws Exception {
+
+        //Arrange
+        var profile = VisibilityProfile.fromSettings(PetStoreStub.uriOrStub(Settings.petStoreUri()));
+        var maxLag = Settings.get("petstore.visibility.maxLag", null);
+
+        //Act
+        var report = run("visibility", "petstore.visibility.report", new VisibilityProbe(profile)::run);
+
+        //Assert
+        for (var phase : report.phases()) {
+            Assert.assertTrue(phase.writesAcknowledged() > 0, "No write was acknowledged at " + phase.writeRate() + " writes/s");
+            if (maxLag != null) {
+                var maxLagMillis = Settings.parseDuration(maxLag).toMillis();
+                for (var read : profile.reads()) {
+                    Assert.assertTrue(phase.lagMillisAt(read, 99) <= maxLagMillis, "p99 lag of " + read + " at " + phase.writeRate()
+                            + " writes/s is " + phase.lagMillisAt(read, 99) + " ms, above " + maxLag);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the mode, writes its report where the setting says (target/{name}-report.json by default) and logs
+     * its summary with the test.
+     */
+    private static <R extends RunReport> R run(String name, String reportSetting, Callable<R> runner) throws Exception {
+        var report = runner.call();
+        report.write(Path.of(Settings.get(reportSetting, "target/" + name + "-report.json")));
+        Reporter.log(report.summary().stripTrailing(), true);
+        return report;
+    }
+
+    /**
+     * As {@link #run(String, String, Callable)}, then compares the measured load with the stored baseline of
+     * earlier runs of the mode with the same profile.
+     *
+     * @param measured the load report of the run to compare; null to skip the comparison
+     */
+    private static <R extends RunReport> R run(String name, String reportSetting, JSONObject profile, Callable<R> runner,
+                                               Function<R, LoadReport> measured) throws Exception {
+        var report = run(name, reportSetting, runner);
+        var load = measured.apply(report);
+        if (load != null) {
+            PerformanceBaseline.check(name, profile, load.registry(), load.requestThroughput());
+        }
+        return report;
+    }
+}
@@ -0,0 +1,209 @@
+package petstore.load;
+
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import petstore.ApiCall;
+import petstore.client.PetStoreClient;
+import petstore.client.RequestPolicy;
+import petstore.client.RequestStats;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.StepEvent;
+import petstore.plan.PlanRun;
+import petstore.plan.PlanStep;
+import petstore.plan.ScenarioPlan;
+import petstore.session.Session;
+import petstore.session.SessionCache;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Runs one iteration of a scenario's plan on the blocking client: times every step into the registry and
+ * remembers whether any step failed. An optional semaphore bounds the requests in flight across iterations;
+ * a step that cannot get a permit before the deadline abandons the iteration instead of failing it.
+ * With a request policy that retries or hedges, a step is only timed once its final answer is in.
+ * Without a session cache every LOGIN step logs in.
+ */
+class RecordingContext {
+
+    private final PetStoreClient client;
+    private final LatencyRegistry registry;
+    private final Semaphore inFlight;
+    private final long deadlineNanos;
+    private final RequestPolicy policy;
+    private final RequestStats requestStats;
+    private final SessionCache sessions;
+    private long intendedStartNanos = Long.MAX_VALUE;
+    private boolean failed;
+    private boolean abandoned;
+
+    RecordingContext(PetStoreClient client, LatencyRegistry registry) {
+        this(client, registry, null, Long.MAX_VALUE);
+    }
+
+    RecordingContext(PetStoreClient client, LatencyRegistry registry, Semaphore inFlight, long deadlineNanos) {
+        this(client, registry, inFlight, deadlineNanos, null, null);
+    }
+
+    /**
+     * @param policy retries and hedges every step; null sends each step once
+     */
+    RecordingContext(PetStoreClient client, LatencyRegistry registry, Semaphore inFlight, long deadlineNanos,
+                     RequestPolicy policy, RequestStats requestStats) {
+        this(client, registry, inFlight, deadlineNanos, policy, requestStats, null);
+    }
+
+    /**
+     * @param sessions sessions borrowed across iterations; null logs in on every LOGIN step
+     */
+    RecordingContext(PetStoreClient client, LatencyRegistry registry, Semaphore inFlight, long deadlineNanos,
+                     RequestPolicy policy, RequestStats requestStats, SessionCache sessions) {
+        this.client = client;
+        this.registry = registry;
+        this.inFlight = inFlight;
+        this.deadlineNanos = deadlineNanos;
+        this.policy = policy;
+        this.requestStats = requestStats;
+        this.sessions = sessions;
+    }
+
+    /**
+     * @return true when every step of the scenario succeeded
+     */
+    boolean run(LoadScenario scenario) {
+        return run(scenario, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #run(LoadScenario)}, with the first step timed from when the scheduler meant
+     * the iteration to start rather than from when the request went out. The scenario stops at its
+     * first failing step, like a failed assertion in the functional tests.
+     */
+    boolean run(LoadScenario scenario, long intendedStartNanos) {
+        var plan = scenario.plan();
+        //Iterations on a thread run one after another, so they can share the thread's run
+        return run(plan, plan.localRun(sessions), intendedStartNanos);
+    }
+
+    /**
+     * Runs the plan with values the caller set, e.g. the inputs of a data sheet row.
+     */
+    boolean run(ScenarioPlan plan, PlanRun run) {
+        return run(plan, run, Long.MAX_VALUE);
+    }
+
+    private boolean run(ScenarioPlan plan, PlanRun run, long intendedStartNanos) {
+        this.intendedStartNanos = intendedStartNanos;
+        try {
+            for (var step : plan.steps()) {
+                if (!step(step, run)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            failed = true;
+        }
+        return !failed;
+    }
+
+    boolean abandoned() {
+        return abandoned;
+    }
+
+    /**
+     * A LOGIN step borrows a cached session without sending anything; otherwise the login is timed
+     * and its session cached for the next iteration.
+     */
+    private boolean step(PlanStep step, PlanRun run) {
+        var session = step.borrow(run, sessions);
+        if (step.satisfiedBy(session)) {
+            return true;
+        }
+        //Body and expiry header of an answer that passed, for the session the step caches
+        var answer = new String[2];
+        var ok = send(step.endpoint(), step.expectedStatus(), step.call(run), session, response -> {
+            if (step.streamsList()) {
+                return step.checkList(response.statusCode(), response.asInputStream()) == null;
+            }
+            if (!step.readsBody()) {
+                response.asByteArray();
+                return true;
+            }
+            var body = response.asString();
+            if (step.check(run, response.statusCode(), body) != null) {
+                return false;
+            }
+            answer[0] = body;
+            answer[1] = response.header(Session.EXPIRES_HEADER);
+            return true;
+        });
+        step.settle(run, sessions, ok, answer[0], answer[1]);
+        return ok;
+    }
+
+    /**
+     * @param session whose token goes with the request; may be null
+     * @param accept  reads the body of an answer with the expected status and says whether it passed
+     */
+    private boolean send(String endpoint, int expectedStatus, ApiCall call, Session session, Predicate<Response> accept) {
+        if (abandoned) {
+            return false;
+        }
+        if (inFlight != null) {
+            try {
+                if (!inFlight.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    abandoned = true;
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandoned = true;
+                return false;
+            }
+        }
+        try {
+            return timedStep(endpoint, expectedStatus, call, session, accept);
+        } finally {
+            if (inFlight != null) {
+                inFlight.release();
+            }
+        }
+    }
+
+    private boolean timedStep(String endpoint, int expectedStatus, ApiCall call, Session session, Predicate<Response> accept) {
+        var request = request(session);
+        var event = new StepEvent();
+        event.begin();
+        var startNanos = Math.min(System.nanoTime(), intendedStartNanos);
+        intendedStartNanos = Long.MAX_VALUE;
+        var status = 0;
+        var ok = false;
+        try {
+            Response response = policy != null && policy.retriesOrHedges()
+                    ? policy.execute(() -> call.send(request(session)), requestStats)
+                    : call.send(request);
+            status = response.statusCode();
+            ok = status == expectedStatus;
+            if (ok) {
+                ok = accept.test(response);
+            } else {
+                response.asByteArray();
+            }
+        } catch (Exception e) {
+            //RestAssured rethrows IOExceptions unchecked, so catch everything here
+            ok = false;
+        }
+        registry.record(endpoint, System.nanoTime() - startNanos, ok);
+        event.finish(endpoint, status, ok);
+        if (!ok) {
+            failed = true;
+        }
+        return ok;
+    }
+
+    private RequestSpecification request(Session session) {
+        var request = client.request();
+        return session == null ? request : session.authorize(request);
+    }
+}
@@ -0,0 +1,15 @@
+package petstore.load;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * What a performance mode hands back when it finishes: a JSON report to keep with the build and a few lines
+ * for the console.
+ */
+public interface RunReport {
+
+    void write(Path path) throws IOException;
+
+    String summary();
+}
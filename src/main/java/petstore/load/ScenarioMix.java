@@ -0,0 +1,81 @@
+package petstore.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Weighted choice between {@link LoadScenario}s.
+ */
+public final class ScenarioMix {
+
+    private final Map<LoadScenario, Integer> weights;
+    private final LoadScenario[] scenarios;
+    private final int[] cumulativeWeights;
+
+    public ScenarioMix(Map<LoadScenario, Integer> weights) {
+        this.weights = new EnumMap<>(weights);
+        this.weights.values().removeIf(weight -> weight <= 0);
+        if (this.weights.isEmpty()) {
+            throw new IllegalArgumentException("Scenario mix must contain at least one scenario with a positive weight");
+        }
+        scenarios = this.weights.keySet().toArray(new LoadScenario[0]);
+        cumulativeWeights = new int[scenarios.length];
+        var total = 0;
+        for (var i = 0; i < scenarios.length; i++) {
+            total += this.weights.get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static ScenarioMix defaults() {
+        var weights = new EnumMap<LoadScenario, Integer>(LoadScenario.class);
+        for (var scenario : LoadScenario.values()) {
+            weights.put(scenario, scenario.defaultWeight());
+        }
+        return new ScenarioMix(weights);
+    }
+
+    /**
+     * Parses "PLACE_ORDER=20,FIND_BY_STATUS=30"; scenarios that are not listed are left out.
+     */
+    public static ScenarioMix parse(String mix) {
+        if (mix == null || mix.isBlank()) {
+            return defaults();
+        }
+        var weights = new EnumMap<LoadScenario, Integer>(LoadScenario.class);
+        for (var entry : mix.split(",")) {
+            var parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid scenario weight '" + entry + "', expected NAME=weight");
+            }
+            weights.put(LoadScenario.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return new ScenarioMix(weights);
+    }
+
+    public LoadScenario pick(Random random) {
+        var value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (var i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        return scenarios[scenarios.length - 1];
+    }
+
+    public Map<LoadScenario, Integer> weights() {
+        return weights;
+    }
+
+    /**
+     * In the form {@link #parse(String)} accepts, e.g. "PLACE_ORDER=20,FIND_BY_STATUS=30".
+     */
+    @Override
+    public String toString() {
+        return weights.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,38 @@
+package petstore.load;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the load drivers. The build targets Java 17, so virtual threads are looked up
+ * at runtime and used when the JVM running the suite is 21 or newer.
+ */
+final class Threads {
+
+    private Threads() {
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * One virtual thread per task on Java 21+, otherwise one daemon platform thread per task.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name) {
+        if (virtualThreadsAvailable()) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create a virtual thread executor", e);
+            }
+        }
+        var threadIndex = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, name + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package petstore.load;
+
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.time.Duration;
+
+/**
+ * Population and pacing of a virtual user run.
+ *
+ * @param users       simulated users, each looping over the mix on its own thread
+ * @param rampUp      period over which user starts are spread
+ * @param thinkTime   mean pause between iterations of one user (exponentially distributed)
+ * @param maxInFlight requests allowed on the wire at once across all users
+ */
+public record VirtualUserProfile(String baseUri, int users, Duration duration, Duration rampUp, Duration thinkTime,
+                                 int maxInFlight, ScenarioMix mix) {
+
+    public VirtualUserProfile {
+        if (baseUri == null || baseUri.isBlank()) {
+            throw new IllegalArgumentException("Pet store base URI is not set, provide PETSTOREURI");
+        }
+        if (users <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Users and in-flight limit must be positive");
+        }
+    }
+
+    public static VirtualUserProfile fromSettings(String baseUri) {
+        return new VirtualUserProfile(
+                baseUri,
+                Settings.getInt("petstore.vu.users", 1000),
+                Settings.getDuration("petstore.vu.duration", Duration.ofSeconds(60)),
+                Settings.getDuration("petstore.vu.rampUp", Duration.ofSeconds(10)),
+                Settings.getDuration("petstore.vu.thinkTime", Duration.ofSeconds(1)),
+                Settings.getInt("petstore.vu.maxInFlight", 200),
+                ScenarioMix.parse(Settings.get("petstore.vu.mix", "USER_OPERATIONS=1,ORDER_LIFECYCLE=1")));
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("baseUri", baseUri)
+                .put("users", users)
+                .put("durationSeconds", duration.toMillis() / 1000.0)
+                .put("rampUpSeconds", rampUp.toMillis() / 1000.0)
+                .put("thinkTimeSeconds", thinkTime.toMillis() / 1000.0)
+                .put("maxInFlight", maxInFlight)
+                .put("mix", mix.toString())
+                .put("virtualThreads", Threads.virtualThreadsAvailable());
+    }
+}
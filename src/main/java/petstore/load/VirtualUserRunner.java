@@ -0,0 +1,99 @@
+package petstore.load;
+
+import petstore.client.ConnectionPoolSettings;
+import petstore.client.PetStoreClient;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.LiveMetrics;
+import petstore.session.SessionCache;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop driver for high fan-out user flows: every simulated user runs on its own (virtual)
+ * thread, iterates over the scenario mix with think times in between, and stops at the end of
+ * the run. A semaphore bounds the requests in flight so the users cannot exhaust the connection pool;
+ * iterations still waiting for a permit at the end of the run are abandoned, so they count as started
+ * but not completed.
+ * Users keep their logged-in sessions across iterations in a cache shared by the run.
+ */
+public class VirtualUserRunner {
+
+    private static final long SHUTDOWN_GRACE_SECONDS = 30;
+
+    private final VirtualUserProfile profile;
+    private final LatencyRegistry registry = new LatencyRegistry();
+    private final SessionCache sessions = SessionCache.fromSettings();
+    private final LongAdder startedIterations = new LongAdder();
+    private final LongAdder completedIterations = new LongAdder();
+    private final LongAdder failedIterations = new LongAdder();
+
+    public VirtualUserRunner(VirtualUserProfile profile) {
+        this.profile = profile;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        LiveMetrics.publish("virtual-users", registry);
+        var pool = ConnectionPoolSettings.fromSettings();
+        var sized = new ConnectionPoolSettings(Math.max(pool.maxTotal(), profile.maxInFlight()),
+                Math.max(pool.maxPerRoute(), profile.maxInFlight()), pool.keepAlive(), pool.idleTimeout(), pool.evictInterval());
+        try (var client = new PetStoreClient(profile.baseUri(), sized)) {
+            return run(client);
+        }
+    }
+
+    private LoadReport run(PetStoreClient client) throws InterruptedException {
+        var inFlight = new Semaphore(profile.maxInFlight());
+        var executor = Threads.newThreadPerTaskExecutor("petstore-vu");
+        var start = System.nanoTime();
+        var deadline = start + profile.duration().toNanos();
+        var rampUpNanos = profile.rampUp().toNanos();
+        try {
+            for (var user = 0; user < profile.users(); user++) {
+                var startAt = start + rampUpNanos * user / profile.users();
+                executor.execute(() -> simulateUser(client, inFlight, startAt, deadline));
+            }
+        } finally {
+            executor.shutdown();
+            var waitNanos = deadline - System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_GRACE_SECONDS);
+            if (!executor.awaitTermination(waitNanos, TimeUnit.NANOSECONDS)) {
+                executor.shutdownNow();
+                executor.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+        return new LoadReport("Virtual users", profile.toJson().put("sessions", sessions.toJson()), startedIterations.sum(), completedIterations.sum(),
+                failedIterations.sum(), System.nanoTime() - start, registry);
+    }
+
+    private void simulateUser(PetStoreClient client, Semaphore inFlight, long startAt, long deadline) {
+        try {
+            sleepNanos(startAt - System.nanoTime());
+            var random = ThreadLocalRandom.current();
+            var meanThinkNanos = profile.thinkTime().toNanos();
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                var context = new RecordingContext(client, registry, inFlight, deadline, null, null, sessions);
+                startedIterations.increment();
+                var succeeded = context.run(profile.mix().pick(random));
+                if (context.abandoned()) {
+                    break;
+                }
+                completedIterations.increment();
+                if (!succeeded) {
+                    failedIterations.increment();
+                }
+                var thinkNanos = (long) (-meanThinkNanos * Math.log(1 - random.nextDouble()));
+                sleepNanos(Math.min(thinkNanos, deadline - System.nanoTime()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepNanos(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package petstore.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microsecond resolution) and error count for one endpoint key,
+ * e.g. "POST store/order" or "GET user/{username}".
+ */
+public final class EndpointStats {
+
+    private final String endpoint;
+    private final Histogram histogram = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void record(long latencyNanos, boolean success) {
+        histogram.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Adds latencies and errors recorded elsewhere, e.g. by another worker process.
+     */
+    public void merge(Histogram latencies, long errorCount) {
+        histogram.add(latencies);
+        errors.add(errorCount);
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public long count() {
+        return histogram.getTotalCount();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public double errorRate() {
+        var count = count();
+        return count == 0 ? 0.0 : (double) errors() / count;
+    }
+
+    public Histogram snapshot() {
+        return histogram.copy();
+    }
+
+    public JSONObject toJson() {
+        return toJson(snapshot(), errors());
+    }
+
+    static JSONObject toJson(Histogram histogram, long errors) {
+        var count = histogram.getTotalCount();
+        return new JSONObject()
+                .put("count", count)
+                .put("errors", errors)
+                .put("errorRate", count == 0 ? 0.0 : (double) errors / count)
+                .put("meanMs", histogram.getMean() / 1000.0)
+                .put("p50Ms", millisAt(histogram, 50.0))
+                .put("p90Ms", millisAt(histogram, 90.0))
+                .put("p99Ms", millisAt(histogram, 99.0))
+                .put("p999Ms", millisAt(histogram, 99.9))
+                .put("maxMs", histogram.getMaxValue() / 1000.0);
+    }
+
+    public static double millisAt(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,34 @@
+package petstore.metrics;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+
+/**
+ * Compressed, Base64-encoded HdrHistograms for JSON documents (worker snapshots, stored baselines),
+ * so percentiles can be recomputed from every sample later instead of from pre-computed percentiles.
+ */
+public final class HistogramCodec {
+
+    private HistogramCodec() {
+    }
+
+    public static String encode(Histogram histogram) {
+        var buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        histogram.encodeIntoCompressedByteBuffer(buffer);
+        buffer.flip();
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    public static Histogram decode(String encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt histogram", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package petstore.metrics;
+
+import org.json.JSONObject;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Thread-safe collection of {@link EndpointStats}, one per endpoint key.
+ */
+public final class LatencyRegistry {
+
+    private final ConcurrentHashMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public EndpointStats stats(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, EndpointStats::new);
+    }
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        stats(endpoint).record(latencyNanos, success);
+    }
+
+    public List<EndpointStats> all() {
+        return endpoints.values().stream()
+                .sorted(Comparator.comparing(EndpointStats::endpoint))
+                .collect(Collectors.toList());
+    }
+
+    public long totalCount() {
+        return endpoints.values().stream().mapToLong(EndpointStats::count).sum();
+    }
+
+    public long totalErrors() {
+        return endpoints.values().stream().mapToLong(EndpointStats::errors).sum();
+    }
+
+    public JSONObject toJson() {
+        var json = new JSONObject();
+        for (var stats : all()) {
+            json.put(stats.endpoint(), stats.toJson());
+        }
+        return json;
+    }
+}
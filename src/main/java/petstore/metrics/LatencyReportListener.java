@@ -0,0 +1,53 @@
+package petstore.metrics;
+
+import io.restassured.RestAssured;
+import org.json.JSONObject;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import petstore.Settings;
+import petstore.baseline.PerformanceBaseline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Times every RestAssured call made during the suite and writes the p50/p90/p99/p99.9/max
+ * latency per endpoint as JSON when the suite finishes (petstore.latency.report,
+ * default target/latency-report.json), then checks the suite's latencies against the stored baseline.
+ */
+public class LatencyReportListener implements ISuiteListener {
+
+    private static final LatencyRegistry registry = new LatencyRegistry();
+
+    public static LatencyRegistry registry() {
+        return registry;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        RestAssured.filters(new TimingFilter(registry));
+        LiveMetrics.publish("suite", registry);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        var report = new JSONObject()
+                .put("suite", suite.getName())
+                .put("generatedAt", Instant.now().toString())
+                .put("requests", registry.totalCount())
+                .put("errors", registry.totalErrors())
+                .put("endpoints", registry.toJson());
+        var path = Path.of(Settings.get("petstore.latency.report", "target/latency-report.json"));
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, report.toString(2));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        PerformanceBaseline.check("suite", registry, 0);
+    }
+}
@@ -0,0 +1,196 @@
+package petstore.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.HdrHistogram.Histogram;
+import petstore.Settings;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prometheus text endpoint for runs in progress, enabled with petstore.metrics.port (e.g. 9404,
+ * scrape http://host:9404/metrics). Runs {@link #publish} their registries under a source name;
+ * per source and endpoint it serves cumulative request and error counters plus throughput, error
+ * ratio and latency quantiles over the last petstore.metrics.window (default 10s), computed from
+ * histogram snapshots taken every second. Without a port, publish returns at once and nothing is started.
+ */
+public final class LiveMetrics {
+
+    private static final int PORT = Settings.getInt("petstore.metrics.port", 0);
+    private static final long WINDOW_SECONDS = Settings.getDuration("petstore.metrics.window", java.time.Duration.ofSeconds(10)).toSeconds();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final ConcurrentHashMap<String, Source> sources = new ConcurrentHashMap<>();
+    private static volatile boolean started;
+
+    private LiveMetrics() {
+    }
+
+    public static boolean enabled() {
+        return PORT > 0;
+    }
+
+    /**
+     * Exposes the registry under the source name, replacing what was published under it before.
+     */
+    public static void publish(String source, LatencyRegistry registry) {
+        if (!enabled()) {
+            return;
+        }
+        sources.put(source, new Source(registry));
+        if (!started) {
+            start();
+        }
+    }
+
+    private static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        var sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "petstore-metrics-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> sources.values().forEach(Source::sample), 0, 1, TimeUnit.SECONDS);
+        try {
+            var server = HttpServer.create(new InetSocketAddress(PORT), 16);
+            server.createContext("/metrics", LiveMetrics::serve);
+            //Started from a daemon thread so the dispatcher thread does not hold the JVM open
+            var starter = new Thread(server::start, "petstore-metrics-start");
+            starter.setDaemon(true);
+            starter.start();
+            starter.join();
+        } catch (IOException e) {
+            //A second JVM on the same box (e.g. a forked load worker) finds the port taken; the run goes on
+            System.err.println("Live metrics not served on port " + PORT + ": " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void serve(HttpExchange exchange) throws IOException {
+        var body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static String render() {
+        var text = new StringBuilder();
+        text.append("# HELP petstore_requests_total Requests completed since the run started.\n")
+                .append("# TYPE petstore_requests_total counter\n");
+        sources.forEach((source, metrics) -> metrics.registry.all().forEach(stats ->
+                line(text, "petstore_requests_total", source, stats.endpoint(), null, stats.count())));
+        text.append("# HELP petstore_request_errors_total Requests that failed since the run started.\n")
+                .append("# TYPE petstore_request_errors_total counter\n");
+        sources.forEach((source, metrics) -> metrics.registry.all().forEach(stats ->
+                line(text, "petstore_request_errors_total", source, stats.endpoint(), null, stats.errors())));
+
+        var windows = new HashMap<String, Map<String, Window>>();
+        sources.forEach((source, metrics) -> windows.put(source, metrics.window()));
+        text.append("# HELP petstore_window_requests_per_second Throughput over the rolling window.\n")
+                .append("# TYPE petstore_window_requests_per_second gauge\n");
+        windows.forEach((source, endpoints) -> endpoints.forEach((endpoint, window) ->
+                line(text, "petstore_window_requests_per_second", source, endpoint, null, window.throughput())));
+        text.append("# HELP petstore_window_error_ratio Share of failed requests over the rolling window.\n")
+                .append("# TYPE petstore_window_error_ratio gauge\n");
+        windows.forEach((source, endpoints) -> endpoints.forEach((endpoint, window) ->
+                line(text, "petstore_window_error_ratio", source, endpoint, null, window.errorRatio())));
+        text.append("# HELP petstore_window_latency_seconds Latency quantiles over the rolling window.\n")
+                .append("# TYPE petstore_window_latency_seconds gauge\n");
+        windows.forEach((source, endpoints) -> endpoints.forEach((endpoint, window) -> {
+            for (var quantile : QUANTILES) {
+                line(text, "petstore_window_latency_seconds", source, endpoint, quantile,
+                        window.latencies.getValueAtPercentile(quantile * 100) / 1_000_000.0);
+            }
+        }));
+        return text.toString();
+    }
+
+    private static void line(StringBuilder text, String name, String source, String endpoint, Double quantile, double value) {
+        text.append(name).append("{source=\"").append(escape(source)).append("\",endpoint=\"").append(escape(endpoint)).append('"');
+        if (quantile != null) {
+            text.append(",quantile=\"").append(quantile).append('"');
+        }
+        text.append("} ").append(value == Math.rint(value) && !Double.isInfinite(value) ? String.valueOf((long) value) : String.valueOf(value)).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private record Window(Histogram latencies, long errors, double seconds) {
+
+        double throughput() {
+            return seconds <= 0 ? 0.0 : latencies.getTotalCount() / seconds;
+        }
+
+        double errorRatio() {
+            var count = latencies.getTotalCount();
+            return count == 0 ? 0.0 : (double) errors / count;
+        }
+    }
+
+    private record Sample(long nanos, Map<String, Histogram> latencies, Map<String, Long> errors) {
+    }
+
+    /**
+     * A published registry and the last window's worth of per-second snapshots of it.
+     */
+    private static final class Source {
+        private final LatencyRegistry registry;
+        private final ArrayDeque<Sample> samples = new ArrayDeque<>();
+
+        private Source(LatencyRegistry registry) {
+            this.registry = registry;
+        }
+
+        private synchronized void sample() {
+            var latencies = new HashMap<String, Histogram>();
+            var errors = new HashMap<String, Long>();
+            for (var stats : registry.all()) {
+                latencies.put(stats.endpoint(), stats.snapshot());
+                errors.put(stats.endpoint(), stats.errors());
+            }
+            samples.addLast(new Sample(System.nanoTime(), latencies, errors));
+            while (samples.size() > WINDOW_SECONDS + 1) {
+                samples.removeFirst();
+            }
+        }
+
+        /**
+         * Latest snapshot minus the oldest one kept, per endpoint.
+         */
+        private synchronized Map<String, Window> window() {
+            var windows = new HashMap<String, Window>();
+            if (samples.size() < 2) {
+                return windows;
+            }
+            var oldest = samples.peekFirst();
+            var latest = samples.peekLast();
+            var seconds = (latest.nanos - oldest.nanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            latest.latencies.forEach((endpoint, histogram) -> {
+                var delta = histogram.copy();
+                var before = oldest.latencies.get(endpoint);
+                if (before != null) {
+                    delta.subtract(before);
+                }
+                var errors = latest.errors.get(endpoint) - oldest.errors.getOrDefault(endpoint, 0L);
+                windows.put(endpoint, new Window(delta, errors, seconds));
+            });
+            return windows;
+        }
+    }
+}
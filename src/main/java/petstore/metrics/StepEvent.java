@@ -0,0 +1,42 @@
+package petstore.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one request issued by a test, scenario step or replay; the event
+ * duration is the client-side latency, so it lines up with GC pauses and pool waits in the same
+ * recording. Begin it before the call and {@link #finish} it afterwards. Without a recording that
+ * enables it, begin/finish are no more than a couple of checks.
+ */
+@Name("petstore.Step")
+@Label("Pet Store Step")
+@Category("Pet Store")
+@Description("A request issued by the pet store tests or load scenarios")
+@StackTrace(false)
+public final class StepEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Status")
+    @Description("HTTP status, 0 when the call failed without a response")
+    public int status;
+
+    @Label("Success")
+    public boolean success;
+
+    public void finish(String endpoint, int status, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.endpoint = endpoint;
+            this.status = status;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package petstore.metrics;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.regex.Pattern;
+
+/**
+ * RestAssured filter that records the latency of every call into a {@link LatencyRegistry},
+ * keyed by method and path template (e.g. "DELETE store/order/{orderId}").
+ * Transport failures and 5xx responses count as errors; 4xx are left to the assertions,
+ * since the negative tests expect them. Each call is also emitted as a {@link StepEvent}.
+ */
+public class TimingFilter implements OrderedFilter {
+
+    /**
+     * Closest to the wire. The suite's other filters take the places just outside it: the latency budget timer
+     * at ORDER - 1, so it times the same span, and the capture filter at ORDER - 2, so writing the log is in neither.
+     */
+    public static final int ORDER = LOWEST_PRECEDENCE;
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("(?<=/|^)\\d+(?=/|$)");
+
+    private final LatencyRegistry registry;
+
+    public TimingFilter(LatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        var endpoint = endpointKey(requestSpec.getMethod(), requestSpec.getUserDefinedPath());
+        var event = new StepEvent();
+        event.begin();
+        var start = System.nanoTime();
+        try {
+            var response = ctx.next(requestSpec, responseSpec);
+            var ok = response.statusCode() < 500;
+            registry.record(endpoint, System.nanoTime() - start, ok);
+            event.finish(endpoint, response.statusCode(), ok);
+            return response;
+        } catch (RuntimeException e) {
+            registry.record(endpoint, System.nanoTime() - start, false);
+            event.finish(endpoint, 0, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs closest to the wire, so other filters (logging etc.) are not part of the measurement.
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    public static String endpointKey(String method, String path) {
+        var template = path == null ? "" : path;
+        var query = template.indexOf('?');
+        if (query >= 0) {
+            template = template.substring(0, query);
+        }
+        if (template.startsWith("/")) {
+            template = template.substring(1);
+        }
+        //Paths built by concatenation still collapse to one key per template
+        template = NUMERIC_SEGMENT.matcher(template).replaceAll("{id}");
+        return method + " " + template;
+    }
+}
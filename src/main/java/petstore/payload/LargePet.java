@@ -0,0 +1,70 @@
+package petstore.payload;
+
+import petstore.data.PayloadBuffer;
+import petstore.data.PayloadTemplate;
+
+/**
+ * Pet bodies of a chosen size, grown the way mobile clients grow them: one photo URL and one tag per item,
+ * thousands of them for the megabyte sizes. Photo URLs end in a content hash, so gzip finds about as much
+ * redundancy as in real records instead of compressing a repeated string to nothing.
+ */
+final class LargePet {
+
+    private static final PayloadTemplate HEAD = PayloadTemplate.compile("large pet",
+            "{\"id\": ${id},\"category\": {\"id\": 1,\"name\":\"Dogs\"}, \"name\": \"${name}\", \"photoUrls\": [");
+    private static final PayloadTemplate PHOTO = PayloadTemplate.compile("photo url",
+            "\"https://images.petstore.example/pets/${petId}/${hash}.jpg\"");
+    private static final PayloadTemplate TAGS = PayloadTemplate.compile("tags", "], \"tags\": [");
+    private static final PayloadTemplate TAG = PayloadTemplate.compile("tag", "{\"id\": ${id},\"name\": \"${name}\"}");
+    private static final PayloadTemplate TAIL = PayloadTemplate.compile("tail", "], \"status\": \"available\"}");
+
+    //Items rendered to measure the size of one; enough to average out the growing id digits
+    private static final int SAMPLE_ITEMS = 64;
+
+    private LargePet() {
+    }
+
+    /**
+     * Renders a pet with the given number of photo URLs and as many tags.
+     */
+    static PayloadBuffer render(PayloadBuffer out, long petId, int items) {
+        out.append(HEAD).value(petId).value("large-dog");
+        var text = new StringBuilder(24);
+        for (var i = 0; i < items; i++) {
+            if (i > 0) {
+                out.raw(',');
+            }
+            text.setLength(0);
+            text.append(Long.toHexString(mix(petId * 31 + i)));
+            out.append(PHOTO).value(petId).value(text);
+        }
+        out.append(TAGS);
+        for (var i = 0; i < items; i++) {
+            if (i > 0) {
+                out.raw(',');
+            }
+            text.setLength(0);
+            text.append("tag-").append(i);
+            out.append(TAG).value(i).value(text);
+        }
+        return out.append(TAIL);
+    }
+
+    /**
+     * The number of items that brings a pet close to the target size; 0 for sizes below the bare pet.
+     */
+    static int itemsFor(long targetBytes, long petId) {
+        var buffer = new PayloadBuffer(16 * 1024);
+        var bare = render(buffer.clear(), petId, 0).length();
+        var perItem = (double) (render(buffer.clear(), petId, SAMPLE_ITEMS).length() - bare) / SAMPLE_ITEMS;
+        return (int) Math.max(0, Math.round((targetBytes - bare) / perItem));
+    }
+
+    //SplitMix64 finaliser: a cheap, well-spread stand-in for a content hash
+    private static long mix(long value) {
+        var z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,55 @@
+package petstore.payload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * How bodies travel in a payload sweep: as they are, or gzipped in both directions
+ * (Content-Encoding on the request, Accept-Encoding for the response).
+ */
+public enum PayloadEncoding {
+
+    IDENTITY("identity"),
+    GZIP("gzip");
+
+    private final String token;
+
+    PayloadEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * The Content-Encoding and Accept-Encoding value.
+     */
+    public String token() {
+        return token;
+    }
+
+    static byte[] gzip(byte[] bytes, int length) {
+        var compressed = new ByteArrayOutputStream(Math.max(64, length / 4));
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * A response body as the server sent it; the server decides, so this goes by its Content-Encoding.
+     */
+    static byte[] decode(byte[] wire, String contentEncoding) {
+        if (contentEncoding == null || !contentEncoding.equalsIgnoreCase("gzip")) {
+            return wire;
+        }
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(wire))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
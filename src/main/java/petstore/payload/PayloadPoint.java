@@ -0,0 +1,115 @@
+package petstore.payload;
+
+import org.json.JSONObject;
+import petstore.metrics.EndpointStats;
+import petstore.metrics.LatencyRegistry;
+
+import java.util.Locale;
+
+/**
+ * One size and encoding of a payload sweep. Server latencies are kept per endpoint, from the request
+ * going out until the last body byte is in; client time is kept per stage. Byte counts are bodies only,
+ * raw as rendered and on the wire as sent; headers are left out.
+ *
+ * @param targetBytes       the size asked for
+ * @param items             photo URLs, and tags, per pet
+ * @param petBytes          size of one rendered pet, uncompressed
+ * @param server            latencies of {@link #WRITE} and {@link #READ}
+ * @param client            latencies of the {@link #SERIALIZE}, {@link #COMPRESS}, {@link #DECOMPRESS} and {@link #PARSE} stages
+ * @param elapsedNanos      wall time of the measured round trips
+ */
+public record PayloadPoint(long targetBytes, PayloadEncoding encoding, int items, long petBytes,
+                           long rawBytesSent, long wireBytesSent, long rawBytesReceived, long wireBytesReceived,
+                           LatencyRegistry server, LatencyRegistry client, long elapsedNanos) {
+
+    public static final String WRITE = "POST pet";
+    public static final String READ = "GET pet/{petId}";
+    public static final String SERIALIZE = "serialize";
+    public static final String COMPRESS = "gzip";
+    public static final String DECOMPRESS = "gunzip";
+    public static final String PARSE = "parse";
+
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    public long requests() {
+        return server.totalCount();
+    }
+
+    public double errorRate() {
+        return requests() == 0 ? 0 : (double) server.totalErrors() / requests();
+    }
+
+    public double requestsPerSecond() {
+        return elapsedNanos == 0 ? 0 : requests() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Pet bytes moved per second in both directions, uncompressed; the throughput the application sees.
+     */
+    public double payloadMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (rawBytesSent + rawBytesReceived) * 1e9 / elapsedNanos / MEGABYTE;
+    }
+
+    public double wireMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (wireBytesSent + wireBytesReceived) * 1e9 / elapsedNanos / MEGABYTE;
+    }
+
+    /**
+     * Raw over wire bytes; 1 without compression.
+     */
+    public double compressionRatio() {
+        var wire = wireBytesSent + wireBytesReceived;
+        return wire == 0 ? 1 : (double) (rawBytesSent + rawBytesReceived) / wire;
+    }
+
+    public double wireBytesPerRequest() {
+        return requests() == 0 ? 0 : (double) (wireBytesSent + wireBytesReceived) / requests();
+    }
+
+    public double serverMillisAt(String endpoint, double percentile) {
+        return EndpointStats.millisAt(server.stats(endpoint).snapshot(), percentile);
+    }
+
+    public double clientMillisAt(String stage, double percentile) {
+        return EndpointStats.millisAt(client.stats(stage).snapshot(), percentile);
+    }
+
+    public String describe() {
+        return String.format(Locale.ROOT, "%s %s (%d items): write p99 %.2f ms, read p99 %.2f ms, serialize p50 %.2f ms, %.1f req/s, %.2f MB/s, ratio %.1f, %.2f%% errors",
+                encoding, size(petBytes), items, serverMillisAt(WRITE, 99), serverMillisAt(READ, 99), clientMillisAt(SERIALIZE, 50),
+                requestsPerSecond(), payloadMegabytesPerSecond(), compressionRatio(), errorRate() * 100);
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("targetBytes", targetBytes)
+                .put("encoding", encoding.name())
+                .put("items", items)
+                .put("petBytes", petBytes)
+                .put("requests", requests())
+                .put("errorRate", errorRate())
+                .put("rawBytesSent", rawBytesSent)
+                .put("wireBytesSent", wireBytesSent)
+                .put("rawBytesReceived", rawBytesReceived)
+                .put("wireBytesReceived", wireBytesReceived)
+                .put("compressionRatio", compressionRatio())
+                .put("requestsPerSecond", requestsPerSecond())
+                .put("payloadMegabytesPerSecond", payloadMegabytesPerSecond())
+                .put("wireMegabytesPerSecond", wireMegabytesPerSecond())
+                .put("server", server.toJson())
+                .put("client", client.toJson());
+    }
+
+    /**
+     * A byte count for people: 512 B, 16.0 KiB, 4.0 MiB.
+     */
+    static String size(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KiB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MiB", bytes / MEGABYTE);
+    }
+}
@@ -0,0 +1,128 @@
+package petstore.payload;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.load.RunReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a payload sweep: one point per size and encoding, and per encoding the cliff, the first size
+ * at which payload throughput falls more than the profile's cliffDrop below the best smaller size.
+ * Throughput in bytes normally climbs with the size as per-request overhead is spread over more bytes,
+ * so a fall marks the size where the store or the client starts to struggle with the body itself.
+ */
+public class PayloadReport implements RunReport {
+
+    private final PayloadSweepProfile profile;
+    private final List<PayloadPoint> points;
+
+    PayloadReport(PayloadSweepProfile profile, List<PayloadPoint> points) {
+        this.profile = profile;
+        this.points = List.copyOf(points);
+    }
+
+    public List<PayloadPoint> points() {
+        return points;
+    }
+
+    /**
+     * Requests that failed across the sweep, e.g. bodies the store refused as too large.
+     */
+    public long errors() {
+        return points.stream().mapToLong(point -> point.server().totalErrors()).sum();
+    }
+
+    /**
+     * The first point of the encoding past the cliff; null when throughput held up at every size.
+     */
+    public PayloadPoint cliff(PayloadEncoding encoding) {
+        var best = 0.0;
+        for (var point : points) {
+            if (point.encoding() != encoding) {
+                continue;
+            }
+            var throughput = point.payloadMegabytesPerSecond();
+            if (best > 0 && throughput < best * (1 - profile.cliffDrop())) {
+                return point;
+            }
+            best = Math.max(best, throughput);
+        }
+        return null;
+    }
+
+    public JSONObject toJson() {
+        var pointJson = new JSONArray();
+        points.forEach(point -> pointJson.put(point.toJson()));
+        var cliffs = new JSONObject();
+        for (var encoding : profile.encodings()) {
+            var cliff = cliff(encoding);
+            cliffs.put(encoding.name(), cliff == null ? JSONObject.NULL : new JSONObject()
+                    .put("targetBytes", cliff.targetBytes())
+                    .put("petBytes", cliff.petBytes())
+                    .put("payloadMegabytesPerSecond", cliff.payloadMegabytesPerSecond()));
+        }
+        return new JSONObject()
+                .put("profile", profile.toJson())
+                .put("cliffs", cliffs)
+                .put("points", pointJson);
+    }
+
+    @Override
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    /**
+     * Writes size against latency and throughput as CSV, one row per point, for plotting.
+     */
+    public void writeCurve(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        var csv = new StringBuilder("encoding,pet_bytes,items,wire_bytes_per_request,compression_ratio,write_p50_ms,write_p99_ms,"
+                + "read_p50_ms,read_p99_ms,serialize_p50_ms,parse_p50_ms,requests_per_second,payload_mb_per_second,error_rate\n");
+        for (var point : points) {
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.0f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.5f%n",
+                    point.encoding(), point.petBytes(), point.items(), point.wireBytesPerRequest(), point.compressionRatio(),
+                    point.serverMillisAt(PayloadPoint.WRITE, 50), point.serverMillisAt(PayloadPoint.WRITE, 99),
+                    point.serverMillisAt(PayloadPoint.READ, 50), point.serverMillisAt(PayloadPoint.READ, 99),
+                    point.clientMillisAt(PayloadPoint.SERIALIZE, 50), point.clientMillisAt(PayloadPoint.PARSE, 50),
+                    point.requestsPerSecond(), point.payloadMegabytesPerSecond(), point.errorRate()));
+        }
+        Files.writeString(path, csv);
+    }
+
+    @Override
+    public String summary() {
+        var summary = new StringBuilder();
+        summary.append(String.format("Payload sweep, %d round trips per size, %d in flight%n", profile.iterations(), profile.concurrency()));
+        summary.append(String.format("%-8s %10s %7s %11s %6s %9s %9s %9s %9s %9s %8s %8s %7s%n", "encoding", "pet", "items",
+                "wire/req", "ratio", "write p50", "write p99", "read p50", "read p99", "ser p50", "req/s", "MB/s", "errors"));
+        for (var encoding : profile.encodings()) {
+            var cliff = cliff(encoding);
+            for (var point : points) {
+                if (point.encoding() != encoding) {
+                    continue;
+                }
+                summary.append(String.format("%-8s %10s %7d %11s %6.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8.1f %8.2f %6.2f%%%s%n",
+                        encoding.token(), PayloadPoint.size(point.petBytes()), point.items(),
+                        PayloadPoint.size((long) point.wireBytesPerRequest()), point.compressionRatio(),
+                        point.serverMillisAt(PayloadPoint.WRITE, 50), point.serverMillisAt(PayloadPoint.WRITE, 99),
+                        point.serverMillisAt(PayloadPoint.READ, 50), point.serverMillisAt(PayloadPoint.READ, 99),
+                        point.clientMillisAt(PayloadPoint.SERIALIZE, 50), point.requestsPerSecond(),
+                        point.payloadMegabytesPerSecond(), point.errorRate() * 100, point == cliff ? "  <- cliff" : ""));
+            }
+        }
+        summary.append("Latencies in ms; write and read are server round trips, ser is client serialisation; MB/s is uncompressed pet bytes")
+                .append(System.lineSeparator());
+        return summary.toString();
+    }
+}
@@ -0,0 +1,168 @@
+package petstore.payload;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import petstore.TestData;
+import petstore.client.AsyncPetStoreClient;
+import petstore.data.PayloadBuffer;
+import petstore.metrics.LatencyRegistry;
+
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends pets of growing size to the store and reads them back, once per encoding. A round trip renders
+ * the pet, gzips it if asked, posts it, gets it back by id and deletes it again so the store does not fill
+ * up with megabyte pets; the delete is not measured. Both answers must carry every tag. Requests go through
+ * the JDK client, which hands over response bodies as they came off the wire, so compressed and raw
+ * sizes are both known exactly.
+ */
+public class PayloadSweep {
+
+    private final PayloadSweepProfile profile;
+    private final ThreadLocal<PayloadBuffer> buffers = ThreadLocal.withInitial(() -> new PayloadBuffer(64 * 1024));
+
+    public PayloadSweep(PayloadSweepProfile profile) {
+        this.profile = profile;
+    }
+
+    public PayloadReport run() throws InterruptedException {
+        var threadIndex = new AtomicInteger();
+        var workers = Executors.newFixedThreadPool(profile.concurrency(), runnable -> {
+            var thread = new Thread(runnable, "petstore-payload-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        var points = new ArrayList<PayloadPoint>();
+        try (var client = new AsyncPetStoreClient(profile.baseUri(), profile.concurrency(), null)) {
+            for (var encoding : profile.encodings()) {
+                for (var size : profile.sizes()) {
+                    var point = point(client, workers, size, encoding);
+                    points.add(point);
+                    System.out.println("Payload step: " + point.describe());
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new PayloadReport(profile, points);
+    }
+
+    private PayloadPoint point(AsyncPetStoreClient client, ExecutorService workers, long size, PayloadEncoding encoding)
+            throws InterruptedException {
+        var items = LargePet.itemsFor(size, TestData.uniqueId());
+        workers.invokeAll(Collections.nCopies(profile.warmup(), roundTrip(client, items, encoding, new Tally())));
+        var tally = new Tally();
+        var start = System.nanoTime();
+        workers.invokeAll(Collections.nCopies(profile.iterations(), roundTrip(client, items, encoding, tally)));
+        var elapsed = System.nanoTime() - start;
+        return new PayloadPoint(size, encoding, items, tally.petBytes, tally.rawBytesSent.sum(), tally.wireBytesSent.sum(),
+                tally.rawBytesReceived.sum(), tally.wireBytesReceived.sum(), tally.server, tally.client, elapsed);
+    }
+
+    private Callable<Void> roundTrip(AsyncPetStoreClient client, int items, PayloadEncoding encoding, Tally tally) {
+        return () -> {
+            var petId = TestData.uniqueId();
+            var buffer = buffers.get();
+            var serializeStart = System.nanoTime();
+            LargePet.render(buffer.clear(), petId, items);
+            var raw = buffer.bytes();
+            var rawLength = buffer.length();
+            var compressStart = System.nanoTime();
+            var body = encoding == PayloadEncoding.GZIP ? PayloadEncoding.gzip(raw, rawLength) : null;
+            var compressEnd = System.nanoTime();
+            tally.client.record(PayloadPoint.SERIALIZE, compressStart - serializeStart, true);
+            if (body != null) {
+                tally.client.record(PayloadPoint.COMPRESS, compressEnd - compressStart, true);
+            }
+            tally.petBytes = rawLength;
+            tally.rawBytesSent.add(rawLength);
+            tally.wireBytesSent.add(body == null ? rawLength : body.length);
+
+            var write = client.requestTo("pet")
+                    .header("Content-Type", "application/json")
+                    .header("Accept-Encoding", encoding.token())
+                    .POST(body == null
+                            ? HttpRequest.BodyPublishers.ofByteArray(raw, 0, rawLength)
+                            : HttpRequest.BodyPublishers.ofByteArray(body));
+            if (body != null) {
+                write.header("Content-Encoding", encoding.token());
+            }
+            try {
+                if (exchange(client, write.build(), PayloadPoint.WRITE, items, encoding, tally)) {
+                    exchange(client, client.requestTo("pet/" + petId).header("Accept-Encoding", encoding.token()).GET().build(),
+                            PayloadPoint.READ, items, encoding, tally);
+                }
+            } finally {
+                try {
+                    client.send(client.requestTo("pet/" + petId).DELETE().build(), HttpResponse.BodyHandlers.discarding()).join();
+                } catch (CompletionException e) {
+                    //Best effort; a pet left behind does not change the measurements
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Sends one request and checks the pet that comes back.
+     *
+     * @return true when the store answered 200 with every tag
+     */
+    private static boolean exchange(AsyncPetStoreClient client, HttpRequest request, String endpoint, int items,
+                                    PayloadEncoding encoding, Tally tally) {
+        var start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).join();
+        } catch (CompletionException e) {
+            tally.server.record(endpoint, System.nanoTime() - start, false);
+            return false;
+        }
+        var latency = System.nanoTime() - start;
+        var wire = response.body();
+        var decodeStart = System.nanoTime();
+        var decoded = wire;
+        var parseStart = decodeStart;
+        var ok = response.statusCode() == 200;
+        if (ok) {
+            try {
+                decoded = PayloadEncoding.decode(wire, response.headers().firstValue("Content-Encoding").orElse(null));
+                parseStart = System.nanoTime();
+                var tags = new JSONObject(new String(decoded, StandardCharsets.UTF_8)).optJSONArray("tags");
+                ok = tags != null && tags.length() == items;
+            } catch (JSONException | UncheckedIOException e) {
+                ok = false;
+            }
+        }
+        var parseEnd = System.nanoTime();
+        tally.server.record(endpoint, latency, ok);
+        if (encoding == PayloadEncoding.GZIP) {
+            tally.client.record(PayloadPoint.DECOMPRESS, parseStart - decodeStart, true);
+        }
+        tally.client.record(PayloadPoint.PARSE, parseEnd - parseStart, true);
+        tally.rawBytesReceived.add(decoded.length);
+        tally.wireBytesReceived.add(wire.length);
+        return ok;
+    }
+
+    private static final class Tally {
+        private final LatencyRegistry server = new LatencyRegistry();
+        private final LatencyRegistry client = new LatencyRegistry();
+        private final LongAdder rawBytesSent = new LongAdder();
+        private final LongAdder wireBytesSent = new LongAdder();
+        private final LongAdder rawBytesReceived = new LongAdder();
+        private final LongAdder wireBytesReceived = new LongAdder();
+        private volatile long petBytes;
+    }
+}
@@ -0,0 +1,64 @@
+package petstore.payload;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A payload-size sweep: the pet sizes to send, the encodings to send them with, and how many round trips
+ * each combination gets.
+ *
+ * @param sizes       target pet body sizes in bytes, uncompressed
+ * @param encodings   every size is run once per encoding
+ * @param iterations  measured write-and-read round trips per size and encoding
+ * @param warmup      unmeasured round trips before them, so the first size does not pay for a cold JVM
+ * @param concurrency round trips in flight at once
+ * @param cliffDrop   share by which payload throughput must fall below the best smaller size to count as the cliff
+ */
+public record PayloadSweepProfile(String baseUri, List<Long> sizes, List<PayloadEncoding> encodings, int iterations,
+                                  int warmup, int concurrency, double cliffDrop) {
+
+    public PayloadSweepProfile {
+        sizes = sizes.stream().sorted().toList();
+        encodings = List.copyOf(encodings);
+        if (sizes.isEmpty() || encodings.isEmpty()) {
+            throw new IllegalArgumentException("A payload sweep needs at least one size and one encoding");
+        }
+        if (iterations < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Payload iterations and concurrency must be at least 1, were " + iterations + " and " + concurrency);
+        }
+        if (cliffDrop <= 0 || cliffDrop >= 1) {
+            throw new IllegalArgumentException("Payload cliffDrop must be between 0 and 1, was " + cliffDrop);
+        }
+    }
+
+    public static PayloadSweepProfile fromSettings(String baseUri) {
+        var sizes = new ArrayList<Long>();
+        for (var size : Settings.get("petstore.payload.sizes", "512,16k,128k,1m,4m").split(",")) {
+            sizes.add(Settings.parseBytes(size));
+        }
+        var encodings = new ArrayList<PayloadEncoding>();
+        for (var encoding : Settings.get("petstore.payload.encodings", "identity,gzip").split(",")) {
+            encodings.add(PayloadEncoding.valueOf(encoding.trim().toUpperCase()));
+        }
+        return new PayloadSweepProfile(baseUri, sizes, encodings,
+                Settings.getInt("petstore.payload.iterations", 20),
+                Settings.getInt("petstore.payload.warmup", 5),
+                Settings.getInt("petstore.payload.concurrency", 2),
+                Settings.getDouble("petstore.payload.cliffDrop", 0.5));
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("baseUri", baseUri)
+                .put("sizes", new JSONArray(sizes))
+                .put("encodings", new JSONArray(encodings.stream().map(PayloadEncoding::name).toList()))
+                .put("iterations", iterations)
+                .put("warmup", warmup)
+                .put("concurrency", concurrency)
+                .put("cliffDrop", cliffDrop);
+    }
+}
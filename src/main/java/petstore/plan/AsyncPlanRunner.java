@@ -0,0 +1,55 @@
+package petstore.plan;
+
+import petstore.client.AsyncPetStoreClient;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs plans on the {@link AsyncPetStoreClient}, for functional checks that are in flight together. Steps are chained
+ * with thenCompose, so no thread waits on the wire, and each is rendered when its turn comes, so it sees what earlier
+ * steps extracted. Calls are recorded like any other call of the client. No sessions are kept: every LOGIN step logs
+ * in and no session token is sent.
+ */
+public class AsyncPlanRunner {
+
+    private final AsyncPetStoreClient client;
+
+    public AsyncPlanRunner(AsyncPetStoreClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @return completes with the result once the run has passed or stopped at its first failing step
+     */
+    public CompletableFuture<PlanResult> run(ScenarioPlan plan) {
+        var run = plan.newRun();
+        //Steps run one after another, each completing before the next is sent
+        var statuses = new ArrayList<Integer>();
+        CompletableFuture<String> chain = CompletableFuture.completedFuture(null);
+        for (var step : plan.steps()) {
+            chain = chain.thenCompose(failure -> failure == null ? send(step, run, statuses) : CompletableFuture.completedFuture(failure));
+        }
+        return chain.thenApply(failure -> new PlanResult(plan, run, statuses, failure));
+    }
+
+    /**
+     * @return completes with what was wrong with the answer, or null when it passed
+     */
+    private CompletableFuture<String> send(PlanStep step, PlanRun run, List<Integer> statuses) {
+        var call = step.call(run);
+        if (step.streamsList()) {
+            //The stream is read on a completion thread, one element at a time
+            return client.send(call, HttpResponse.BodyHandlers.ofInputStream()).thenApply(response -> {
+                statuses.add(response.statusCode());
+                return step.checkList(response.statusCode(), response.body());
+            });
+        }
+        return client.send(call, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            statuses.add(response.statusCode());
+            return step.check(run, response.statusCode(), response.body());
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package petstore.plan;
+
+import java.util.List;
+
+/**
+ * How a functional run of a plan went.
+ *
+ * @param run      the values the run used and extracted, e.g. the id of a pet it added
+ * @param statuses status of every step that was sent, in order; a login answered from the session cache has none
+ * @param failure  what the first failing step got wrong; null when every step passed
+ */
+public record PlanResult(ScenarioPlan plan, PlanRun run, List<Integer> statuses, String failure) {
+
+    public PlanResult {
+        statuses = List.copyOf(statuses);
+    }
+
+    public boolean passed() {
+        return failure == null;
+    }
+
+    /**
+     * Status of the last step sent; 0 when none was.
+     */
+    public int lastStatus() {
+        return statuses.isEmpty() ? 0 : statuses.get(statuses.size() - 1);
+    }
+
+    public String describe() {
+        return passed() ? plan.name() + ": every step passed" : failure;
+    }
+}
@@ -0,0 +1,154 @@
+package petstore.plan;
+
+import petstore.TestData;
+import petstore.data.PayloadBuffer;
+import petstore.data.PayloadTemplate;
+import petstore.session.SessionCache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The values of one run of a {@link ScenarioPlan}, by variable slot, and the buffers its requests are rendered in.
+ * {@link #reset} draws new generated values and forgets extracted ones, so one run serves iteration after
+ * iteration; numbers are kept unboxed and bodies are rendered into the same buffer. Not thread-safe; a run belongs
+ * to one iteration at a time.
+ */
+public final class PlanRun {
+
+    private final ScenarioPlan plan;
+    private final long[] numbers;
+    private final String[] texts;
+    private final boolean[] numeric;
+    private final boolean[] bound;
+    private final PayloadBuffer body = new PayloadBuffer(512);
+    private final StringBuilder path = new StringBuilder(96);
+
+    PlanRun(ScenarioPlan plan) {
+        this.plan = plan;
+        var variables = plan.variables();
+        numbers = new long[variables.size()];
+        texts = new String[variables.size()];
+        numeric = new boolean[variables.size()];
+        bound = new boolean[variables.size()];
+        for (var slot = 0; slot < variables.size(); slot++) {
+            var variable = variables.get(slot);
+            if (variable.source() == Variable.Source.CONSTANT) {
+                if (variable.text() == null) {
+                    setNumber(slot, variable.number());
+                } else {
+                    setText(slot, variable.text());
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws new ids and names and forgets what earlier steps extracted; constants and inputs stay.
+     *
+     * @param returningUsers pool returning users come from; null gives unique names
+     */
+    public PlanRun reset(SessionCache returningUsers) {
+        var variables = plan.variables();
+        for (var slot = 0; slot < variables.size(); slot++) {
+            var variable = variables.get(slot);
+            switch (variable.source()) {
+                case FRESH_ID -> setNumber(slot, TestData.uniqueId());
+                case UNIQUE_NAME -> setText(slot, TestData.uniqueName(variable.text()));
+                case RETURNING_USER -> setText(slot, returningUsers == null
+                        ? TestData.uniqueName(variable.text()) : returningUsers.returningUser(ThreadLocalRandom.current()));
+                case EXTRACTED -> bound[slot] = false;
+                default -> {
+                }
+            }
+        }
+        return this;
+    }
+
+    public PlanRun set(String variable, long value) {
+        setNumber(plan.slot(variable), value);
+        return this;
+    }
+
+    public PlanRun set(String variable, String value) {
+        setText(plan.slot(variable), value);
+        return this;
+    }
+
+    public long number(String variable) {
+        var slot = plan.slot(variable);
+        check(slot);
+        return numeric[slot] ? numbers[slot] : Long.parseLong(texts[slot]);
+    }
+
+    public String text(String variable) {
+        return text(plan.slot(variable));
+    }
+
+    void setNumber(int slot, long value) {
+        numbers[slot] = value;
+        texts[slot] = null;
+        numeric[slot] = true;
+        bound[slot] = true;
+    }
+
+    void setText(int slot, String value) {
+        texts[slot] = value;
+        numeric[slot] = false;
+        bound[slot] = true;
+    }
+
+    String text(int slot) {
+        check(slot);
+        return numeric[slot] ? Long.toString(numbers[slot]) : texts[slot];
+    }
+
+    /**
+     * The value as a path parameter: a Long or a String.
+     */
+    Object value(int slot) {
+        check(slot);
+        return numeric[slot] ? (Object) numbers[slot] : texts[slot];
+    }
+
+    /**
+     * Renders the template with the values of the slots, in field order.
+     */
+    String render(PayloadTemplate template, int[] slots) {
+        body.begin(template);
+        for (var slot : slots) {
+            check(slot);
+            if (numeric[slot]) {
+                body.value(numbers[slot]);
+            } else {
+                body.value(texts[slot]);
+            }
+        }
+        return body.toString();
+    }
+
+    /**
+     * The path followed by the literals with the values of the slots in between.
+     */
+    String render(String start, String[] literals, int[] slots) {
+        path.setLength(0);
+        path.append(start).append(literals[0]);
+        for (var i = 0; i < slots.length; i++) {
+            check(slots[i]);
+            if (numeric[slots[i]]) {
+                path.append(numbers[slots[i]]);
+            } else {
+                path.append(texts[slots[i]]);
+            }
+            path.append(literals[i + 1]);
+        }
+        return path.toString();
+    }
+
+    private void check(int slot) {
+        if (!bound[slot]) {
+            var variable = plan.variables().get(slot);
+            throw new IllegalStateException("Scenario " + plan.name() + " has no value for " + variable.name()
+                    + (variable.source() == Variable.Source.INPUT ? "; set it before running the plan" : ""));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package petstore.plan;
+
+import io.restassured.response.Response;
+import petstore.client.PetStoreClient;
+import petstore.session.Session;
+import petstore.session.SessionCache;
+
+import java.util.ArrayList;
+
+/**
+ * Runs plans step by step on a {@link PetStoreClient}, for the functional tests. Every request starts from
+ * {@link PetStoreClient#request()}, so the suite's timing and capture filters see it like any other call, and
+ * a run stops at its first failing step. The load engines run the same plans with their own timing.
+ */
+public class PlanRunner {
+
+    private final PetStoreClient client;
+    private final SessionCache sessions;
+
+    /**
+     * @param sessions sessions LOGIN steps borrow and cache; null logs in on every LOGIN step. {@link #run(ScenarioPlan)}
+     *                 draws unique users, so only a run handed in with its own users can borrow
+     */
+    public PlanRunner(PetStoreClient client, SessionCache sessions) {
+        this.client = client;
+        this.sessions = sessions;
+    }
+
+    public PlanResult run(ScenarioPlan plan) {
+        return run(plan, plan.newRun());
+    }
+
+    public PlanResult run(ScenarioPlan plan, PlanRun run) {
+        var statuses = new ArrayList<Integer>();
+        for (var step : plan.steps()) {
+            var session = step.borrow(run, sessions);
+            if (step.satisfiedBy(session)) {
+                continue;
+            }
+            var request = client.request();
+            if (session != null) {
+                session.authorize(request);
+            }
+            Response response = step.call(run).send(request);
+            statuses.add(response.statusCode());
+            String failure;
+            String body = null;
+            if (step.streamsList()) {
+                failure = step.checkList(response.statusCode(), response.asInputStream());
+            } else {
+                body = response.asString();
+                failure = step.check(run, response.statusCode(), body);
+            }
+            step.settle(run, sessions, failure == null, body, response.header(Session.EXPIRES_HEADER));
+            if (failure != null) {
+                return new PlanResult(plan, run, statuses, failure);
+            }
+        }
+        return new PlanResult(plan, run, statuses, null);
+    }
+}
@@ -0,0 +1,239 @@
+package petstore.plan;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import petstore.ApiCall;
+import petstore.check.StreamingListCheck;
+import petstore.data.PayloadTemplate;
+import petstore.session.Session;
+import petstore.session.SessionCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * One compiled step of a {@link ScenarioPlan}. Every name is already resolved to a variable slot, so a runner only
+ * renders the call from a {@link PlanRun} with {@link #call} and hands the answer to {@link #check} or
+ * {@link #checkList}; sessions go through {@link #borrow} before sending and {@link #settle} after. The HTTP engine
+ * and timing stay with the runner.
+ */
+public final class PlanStep {
+
+    public enum Kind {
+        CALL,
+        //Borrows or caches a session
+        LOGIN,
+        //Drops the cached session
+        LOGOUT
+    }
+
+    private final String description;
+    private final Kind kind;
+    private final String method;
+    private final String path;
+    private final String endpoint;
+    private final int[] pathSlots;
+    private final String[] queryLiterals;
+    private final int[] querySlots;
+    private final PayloadTemplate body;
+    private final int[] bodySlots;
+    private final int expectedStatus;
+    private final int[] valueSlots;
+    private final String[] texts;
+    private final StreamingListCheck listCheck;
+    private final long minElements;
+    private final int[] extractSlots;
+    private final String[] extractFields;
+    private final int userSlot;
+    private final int authorizedSlot;
+
+    PlanStep(String description, Kind kind, String method, String path, String endpoint, int[] pathSlots, String[] queryLiterals,
+             int[] querySlots, PayloadTemplate body, int[] bodySlots, int expectedStatus, int[] valueSlots, String[] texts,
+             StreamingListCheck listCheck, long minElements, int[] extractSlots, String[] extractFields, int userSlot, int authorizedSlot) {
+        this.description = description;
+        this.kind = kind;
+        this.method = method;
+        this.path = path;
+        this.endpoint = endpoint;
+        this.pathSlots = pathSlots;
+        this.queryLiterals = queryLiterals;
+        this.querySlots = querySlots;
+        this.body = body;
+        this.bodySlots = bodySlots;
+        this.expectedStatus = expectedStatus;
+        this.valueSlots = valueSlots;
+        this.texts = texts;
+        this.listCheck = listCheck;
+        this.minElements = minElements;
+        this.extractSlots = extractSlots;
+        this.extractFields = extractFields;
+        this.userSlot = userSlot;
+        this.authorizedSlot = authorizedSlot;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * The key latency is recorded under, e.g. "GET user/{username}"; matches the PetStoreRequests constants.
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public int expectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * The call with this run's values; the path keeps its placeholders, filled from the path parameters.
+     */
+    public ApiCall call(PlanRun run) {
+        var target = queryLiterals.length == 0 ? path : run.render(path, queryLiterals, querySlots);
+        var params = switch (pathSlots.length) {
+            case 0 -> List.of();
+            case 1 -> List.of(run.value(pathSlots[0]));
+            default -> {
+                var values = new Object[pathSlots.length];
+                for (var i = 0; i < values.length; i++) {
+                    values[i] = run.value(pathSlots[i]);
+                }
+                yield List.of(values);
+            }
+        };
+        return new ApiCall(method, target, params, body == null ? null : run.render(body, bodySlots));
+    }
+
+    /**
+     * The session the step uses, looked up once: a LOGIN step borrows its user's session, the only lookup that
+     * counts towards the cache's hit rate, and a step {@link Step#authorizedAs} a user gets that user's session
+     * to send the token of.
+     *
+     * @param sessions null when the runner keeps no sessions
+     * @return null when there is no live session or the step needs none
+     */
+    public Session borrow(PlanRun run, SessionCache sessions) {
+        if (sessions == null) {
+            return null;
+        }
+        if (kind == Kind.LOGIN) {
+            return sessions.lookup(run.text(userSlot));
+        }
+        return authorizedSlot < 0 ? null : sessions.current(run.text(authorizedSlot));
+    }
+
+    /**
+     * Whether what {@link #borrow} returned stands in for sending the step: a LOGIN whose user has a session.
+     */
+    public boolean satisfiedBy(Session borrowed) {
+        return kind == Kind.LOGIN && borrowed != null;
+    }
+
+    /**
+     * After the answer: caches the session of a LOGIN that passed, and drops the user's session on a LOGOUT
+     * whether or not it passed.
+     *
+     * @param body         the answer body; only read for a LOGIN that passed
+     * @param expiresAfter the answer's {@link Session#EXPIRES_HEADER}, or null
+     */
+    public void settle(PlanRun run, SessionCache sessions, boolean passed, String body, String expiresAfter) {
+        if (sessions == null) {
+            return;
+        }
+        if (kind == Kind.LOGIN && passed) {
+            sessions.put(Session.fromLogin(run.text(userSlot), body, expiresAfter, sessions.settings().ttl()));
+        } else if (kind == Kind.LOGOUT) {
+            sessions.invalidate(run.text(userSlot));
+        }
+    }
+
+    /**
+     * Whether the answer is streamed through {@link #checkList} rather than read with {@link #check}.
+     */
+    public boolean streamsList() {
+        return listCheck != null;
+    }
+
+    /**
+     * Whether {@link #check} needs the body; when not, the runner may discard it unread. A login's body
+     * carries the session.
+     */
+    public boolean readsBody() {
+        return valueSlots.length > 0 || texts.length > 0 || extractSlots.length > 0 || kind == Kind.LOGIN;
+    }
+
+    /**
+     * Checks the answer and stores what the step extracts in the run.
+     *
+     * @param body the answer body; may be null when the step does not {@link #readsBody()}
+     * @return null when the answer passed, else what was wrong with it
+     */
+    public String check(PlanRun run, int status, String body) {
+        if (status != expectedStatus) {
+            return description + ": expected status " + expectedStatus + ", was " + status;
+        }
+        for (var slot : valueSlots) {
+            var expected = run.text(slot);
+            if (!body.contains(expected)) {
+                return description + ": answer does not contain " + expected;
+            }
+        }
+        for (var expected : texts) {
+            if (!body.contains(expected)) {
+                return description + ": answer does not contain " + expected;
+            }
+        }
+        if (extractSlots.length > 0) {
+            JSONObject json;
+            try {
+                json = new JSONObject(body);
+            } catch (JSONException e) {
+                return description + ": answer is not a JSON object";
+            }
+            for (var i = 0; i < extractSlots.length; i++) {
+                var value = json.opt(extractFields[i]);
+                if (value == null || JSONObject.NULL.equals(value)) {
+                    return description + ": answer has no " + extractFields[i];
+                }
+                if (value instanceof Integer || value instanceof Long) {
+                    run.setNumber(extractSlots[i], ((Number) value).longValue());
+                } else {
+                    run.setText(extractSlots[i], value.toString());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Streams a list answer through the step's check, one element at a time. The body is closed in every case,
+     * also when the status is wrong and nothing is read, so the connection or stream goes back to the client.
+     *
+     * @return null when the answer passed, else what was wrong with it
+     */
+    public String checkList(int status, InputStream body) {
+        try (body) {
+            if (status != expectedStatus) {
+                return description + ": expected status " + expectedStatus + ", was " + status;
+            }
+            var result = listCheck.check(body);
+            if (!result.passed()) {
+                return description + ": " + result.describe();
+            }
+            if (result.elements() < minElements) {
+                return description + ": expected at least " + minElements + " elements, got " + result.elements();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,187 @@
+package petstore.plan;
+
+import petstore.check.StreamingListCheck;
+import petstore.data.Payloads;
+
+/**
+ * The pet store flows as compiled plans. {@link petstore.PetStoreTests} runs them once per test with a
+ * {@link PlanRunner}; {@link petstore.load.LoadScenario} hands them to the load engines, so a functional run and a
+ * load run send the same requests and apply the same checks. The row plans are run per data sheet row through
+ * {@link petstore.data.DataKind}.
+ */
+public final class Plans {
+
+    private static final long CATEGORY_ID = 898888;
+    private static final String PASSWORD = "test345167";
+
+    //_1_petStoreOrderTest
+    public static final ScenarioPlan PLACE_ORDER = Scenario.named("place order")
+            .freshId("orderId")
+            .step(placeOrder().expectValue("orderId"))
+            .compile();
+
+    //Order placed, read back by the id the store answered with, and cancelled
+    public static final ScenarioPlan ORDER_LIFECYCLE = Scenario.named("order lifecycle")
+            .freshId("orderId")
+            .step(placeOrder().extract("placedOrderId", "id"))
+            .step(Step.get("store/order/{orderId}").bind("orderId", "placedOrderId").expectValue("placedOrderId"))
+            .step(Step.delete("store/order/{orderId}").bind("orderId", "placedOrderId"))
+            .compile();
+
+    //_2_petFindByStatusTest
+    public static final ScenarioPlan FIND_AVAILABLE = Scenario.named("find available pets")
+            .constant("status", "available")
+            .step(Step.get("pet/findByStatus?status={status}").expectList(StreamingListCheck.fieldEquals("status", "available"), 1))
+            .compile();
+
+    //_3_petDeletionWithInvalidOrderIdTest
+    public static final ScenarioPlan DELETE_MISSING_ORDER = Scenario.named("delete missing order")
+            .step(Step.delete("store/order/{orderId}").set("orderId", 11111).expect(404).expectText("Order Not Found"))
+            .compile();
+
+    //_4_addNewPetTest
+    public static final ScenarioPlan ADD_PET = Scenario.named("add pet")
+            .freshId("petId")
+            .constant("categoryId", CATEGORY_ID)
+            .step(addPet())
+            .compile();
+
+    //_5_updateExistingPetTest, on a pet added before
+    public static final ScenarioPlan UPDATE_PET = Scenario.named("update pet")
+            .input("petId")
+            .constant("categoryId", CATEGORY_ID)
+            .step(updatePet())
+            .compile();
+
+    //_4_addNewPetTest followed by _5_updateExistingPetTest
+    public static final ScenarioPlan ADD_AND_UPDATE_PET = Scenario.named("add and update pet")
+            .freshId("petId")
+            .constant("categoryId", CATEGORY_ID)
+            .step(addPet())
+            .step(updatePet())
+            .compile();
+
+    //_6_userLogoutTest, logging out a user that has a session
+    public static final ScenarioPlan USER_LOGOUT = Scenario.named("user logout")
+            .returningUser("userName", "rostestlogoutuser")
+            .constant("password", PASSWORD)
+            .step(Step.login("userName", "password"))
+            .step(Step.logout("userName").expectText("ok"))
+            .compile();
+
+    //_7_userOperationsTest
+    public static final ScenarioPlan USER_OPERATIONS = Scenario.named("user operations")
+            .freshId("userId")
+            .returningUser("userName", "rostestuser")
+            .constant("password", PASSWORD)
+            .constant("firstName", "testuserfirstname")
+            .constant("lastName", "testuserlastname")
+            .step(createUser().set("email", "testuser123@gmail.com").set("phone", "12121212"))
+            .step(Step.get("user/{username}").bind("username", "userName"))
+            .step(Step.login("userName", "password"))
+            .step(Step.put("user/{username}").body(Payloads.USER).bind("id", "userId").bind("username", "userName")
+                    .set("email", "testuserupdated123@gmail.com").set("phone", "12121256").authorizedAs("userName"))
+            .compile();
+
+    //A fresh login on every pass, bypassing the session cache
+    public static final ScenarioPlan LOGIN = Scenario.named("login")
+            .returningUser("userName", "loaduser")
+            .constant("password", PASSWORD)
+            .step(Step.get("user/login?username={username}&password={password}").bind("username", "userName"))
+            .compile();
+
+    //_8_deleteIncorrectUserTest
+    public static final ScenarioPlan DELETE_MISSING_USER = Scenario.named("delete missing user")
+            .step(Step.delete("user/{username}").set("username", 1222).expect(404))
+            .compile();
+
+    //_9_incorrectUserCredentialsTest
+    public static final ScenarioPlan INCORRECT_LOGIN = Scenario.named("incorrect login")
+            .step(Step.get("user/login?username={username}&password={password}")
+                    .set("username", "testssdffffffffsdsdsfff").set("password", "invalidpassword").expect(404))
+            .compile();
+
+    //_10_incorrectOrderIdTest
+    public static final ScenarioPlan DELETE_OVERLONG_ORDER_ID = Scenario.named("delete overlong order id")
+            .step(Step.delete("store/order/{orderId}")
+                    .set("orderId", "1111111111111111111111111111111111111111111111111111111111111111111111111111").expect(404))
+            .compile();
+
+    //_11_userObviousPasswordTest; the store accepts the password, so this fails against it
+    public static final ScenarioPlan OBVIOUS_PASSWORD = Scenario.named("user with obvious password")
+            .freshId("userId")
+            .uniqueName("userName", "rostestuser")
+            .constant("firstName", "testuserfirstname")
+            .constant("lastName", "testuserlastname")
+            .step(createUser().set("email", "testuser123@gmail.com").set("password", "password").set("phone", "12121212").expect(404))
+            .compile();
+
+    //_12_userIncorrectIdTest; the store accepts the second user, so this fails against it
+    public static final ScenarioPlan DUPLICATE_USER_ID = Scenario.named("user with a taken id")
+            .freshId("userId")
+            .uniqueName("userName", "rostestuser")
+            .uniqueName("secondUserName", "rostestuser")
+            .constant("password", "password12adr")
+            .constant("firstName", "testuserfirstname")
+            .constant("lastName", "testuserlastname")
+            .step(createUser().set("email", "testuser123@gmail.com").set("phone", "12121212"))
+            .step(createUser().bind("username", "secondUserName").set("email", "testuser123@gmail.com").set("phone", "12121212").expect(404))
+            .compile();
+
+    //A pet row of a data sheet, petstore.data.DataKind.PET; every column is an input
+    public static final ScenarioPlan PET_ROW = Scenario.named("add pet from a data row")
+            .input("id")
+            .input("categoryId")
+            .input("categoryName")
+            .input("name")
+            .step(Step.post("pet").body(Payloads.PET).set("status", "available").expectValue("name"))
+            .compile();
+
+    //An order row of a data sheet, petstore.data.DataKind.ORDER
+    public static final ScenarioPlan ORDER_ROW = Scenario.named("place order from a data row")
+            .input("id")
+            .input("petId")
+            .input("quantity")
+            .input("status")
+            .step(Step.post("store/order").body(Payloads.ORDER).expectValue("id"))
+            .compile();
+
+    //A user row of a data sheet, petstore.data.DataKind.USER
+    public static final ScenarioPlan USER_ROW = Scenario.named("create user from a data row")
+            .input("id")
+            .input("username")
+            .input("firstName")
+            .input("lastName")
+            .input("email")
+            .input("password")
+            .input("phone")
+            .step(Step.post("user").body(Payloads.USER))
+            .compile();
+
+    private Plans() {
+    }
+
+    private static Step placeOrder() {
+        return Step.post("store/order").body(Payloads.ORDER).bind("id", "orderId")
+                .set("petId", 1).set("quantity", 1).set("status", "placed");
+    }
+
+    private static Step addPet() {
+        return Step.post("pet").body(Payloads.PET).bind("id", "petId")
+                .set("categoryName", "category").set("name", "new_dog").set("status", "available")
+                .expectValue("categoryId").expectText("new_dog");
+    }
+
+    private static Step updatePet() {
+        return Step.put("pet").body(Payloads.PET).bind("id", "petId")
+                .set("categoryName", "string").set("name", "MyDogieNameUpdated").set("status", "available")
+                .expectValue("petId").expectText("MyDogieNameUpdated");
+    }
+
+    /**
+     * A user body with the scenario's userId, userName, firstName, lastName and password unless the step says otherwise.
+     */
+    private static Step createUser() {
+        return Step.post("user").body(Payloads.USER).bind("id", "userId").bind("username", "userName");
+    }
+}
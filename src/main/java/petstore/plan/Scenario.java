@@ -0,0 +1,211 @@
+package petstore.plan;
+
+import petstore.plan.Variable.Source;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A scenario as declared: its variables and its steps in order, e.g.
+ * <pre>{@code
+ * Scenario.named("place order")
+ *         .freshId("orderId")
+ *         .step(Step.post("store/order").body(Payloads.ORDER).bind("id", "orderId").expectValue("orderId"))
+ *         .compile();
+ * }</pre>
+ * {@link #compile()} resolves every placeholder, body field and check to a variable slot once, and fails on a name
+ * that has no value, so a typo shows when the plan is built rather than halfway through a load run.
+ */
+public final class Scenario {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([^}/]+)}");
+
+    private final String name;
+    private final Map<String, Variable> variables = new LinkedHashMap<>();
+    private final List<Step> steps = new ArrayList<>();
+
+    private Scenario(String name) {
+        this.name = name;
+    }
+
+    public static Scenario named(String name) {
+        return new Scenario(name);
+    }
+
+    /**
+     * A new entity id on every run.
+     */
+    public Scenario freshId(String variable) {
+        return declare(new Variable(variable, Source.FRESH_ID, null, 0));
+    }
+
+    /**
+     * The prefix followed by a new id on every run.
+     */
+    public Scenario uniqueName(String variable, String prefix) {
+        return declare(new Variable(variable, Source.UNIQUE_NAME, prefix, 0));
+    }
+
+    /**
+     * A user from the pool of returning users of the runner's session cache, likely to have a session already;
+     * a unique name with the prefix when the runner has no cache.
+     */
+    public Scenario returningUser(String variable, String prefix) {
+        return declare(new Variable(variable, Source.RETURNING_USER, prefix, 0));
+    }
+
+    public Scenario constant(String variable, long value) {
+        return declare(new Variable(variable, Source.CONSTANT, null, value));
+    }
+
+    public Scenario constant(String variable, String value) {
+        return declare(new Variable(variable, Source.CONSTANT, value, 0));
+    }
+
+    /**
+     * A value the caller sets with {@link PlanRun#set} before running the plan, e.g. a pet an earlier test added.
+     */
+    public Scenario input(String variable) {
+        return declare(new Variable(variable, Source.INPUT, null, 0));
+    }
+
+    public Scenario step(Step step) {
+        steps.add(step);
+        return this;
+    }
+
+    public ScenarioPlan compile() {
+        return new Compilation().compile();
+    }
+
+    private Scenario declare(Variable variable) {
+        if (variables.putIfAbsent(variable.name(), variable) != null) {
+            throw new IllegalArgumentException("Scenario " + name + " declares " + variable.name() + " twice");
+        }
+        return this;
+    }
+
+    /**
+     * Variable slots as they are handed out: the declared variables first, then the constants of single
+     * steps and the variables steps extract, in step order.
+     */
+    private final class Compilation {
+        private final List<Variable> table = new ArrayList<>(variables.values());
+        private final Map<String, Integer> slots = new HashMap<>();
+
+        private ScenarioPlan compile() {
+            for (var i = 0; i < table.size(); i++) {
+                slots.put(table.get(i).name(), i);
+            }
+            var compiled = new ArrayList<PlanStep>();
+            for (var i = 0; i < steps.size(); i++) {
+                compiled.add(compile(i + 1, steps.get(i)));
+            }
+            return new ScenarioPlan(name, table, slots, compiled);
+        }
+
+        private PlanStep compile(int number, Step step) {
+            var query = step.path.indexOf('?');
+            var path = query < 0 ? step.path : step.path.substring(0, query);
+            var endpoint = step.method + " " + path;
+            var where = "Scenario " + name + ", step " + number + " (" + endpoint + ")";
+            var used = new HashSet<String>();
+
+            var pathSlots = new ArrayList<Integer>();
+            var matcher = PLACEHOLDER.matcher(path);
+            while (matcher.find()) {
+                pathSlots.add(resolve(step, where, matcher.group(1), used));
+            }
+            var queryLiterals = new ArrayList<String>();
+            var querySlots = new ArrayList<Integer>();
+            if (query >= 0) {
+                var queryText = step.path.substring(query);
+                matcher = PLACEHOLDER.matcher(queryText);
+                var at = 0;
+                while (matcher.find()) {
+                    queryLiterals.add(queryText.substring(at, matcher.start()));
+                    querySlots.add(resolve(step, where, matcher.group(1), used));
+                    at = matcher.end();
+                }
+                queryLiterals.add(queryText.substring(at));
+            }
+            var bodySlots = new ArrayList<Integer>();
+            if (step.body != null) {
+                for (var field : step.body.fields()) {
+                    bodySlots.add(resolve(step, where, field, used));
+                }
+            }
+            for (var name : step.bindings.keySet()) {
+                if (!used.contains(name)) {
+                    throw new IllegalArgumentException(where + " binds " + name + ", which is neither a placeholder nor a body field");
+                }
+            }
+            for (var name : step.constants.keySet()) {
+                if (!used.contains(name)) {
+                    throw new IllegalArgumentException(where + " sets " + name + ", which is neither a placeholder nor a body field");
+                }
+            }
+            var valueSlots = new ArrayList<Integer>();
+            for (var variable : step.expectedValues) {
+                valueSlots.add(variable(where, variable));
+            }
+            var userSlot = step.userVariable == null ? -1 : variable(where, step.userVariable);
+            var authorizedSlot = step.authorizedAs == null ? -1 : variable(where, step.authorizedAs);
+
+            //Extracted variables only become usable from the next step on
+            var extractSlots = new ArrayList<Integer>();
+            for (var variable : step.extractions.keySet()) {
+                var declared = variables.get(variable);
+                if (declared != null && declared.source() != Source.EXTRACTED) {
+                    throw new IllegalArgumentException(where + " extracts " + variable + ", which the scenario already declares");
+                }
+                if (!slots.containsKey(variable)) {
+                    table.add(new Variable(variable, Source.EXTRACTED, null, 0));
+                    slots.put(variable, table.size() - 1);
+                }
+                extractSlots.add(slots.get(variable));
+            }
+
+            return new PlanStep(where, step.kind, step.method, path, endpoint, ints(pathSlots), queryLiterals.toArray(new String[0]),
+                    ints(querySlots), step.body, ints(bodySlots), step.expectedStatus, ints(valueSlots),
+                    step.expectedTexts.toArray(new String[0]), step.listCheck, step.minElements, ints(extractSlots),
+                    step.extractions.values().toArray(new String[0]), userSlot, authorizedSlot);
+        }
+
+        /**
+         * The slot that fills a placeholder or body field: the step's constant, else the bound or same-named variable.
+         */
+        private int resolve(Step step, String where, String name, Set<String> used) {
+            used.add(name);
+            var constant = step.constants.get(name);
+            if (constant == null) {
+                return variable(where, step.bindings.getOrDefault(name, name));
+            }
+            table.add(constant instanceof Long number
+                    ? new Variable(name, Source.CONSTANT, null, number)
+                    : new Variable(name, Source.CONSTANT, (String) constant, 0));
+            return table.size() - 1;
+        }
+
+        private int variable(String where, String variable) {
+            var slot = slots.get(variable);
+            if (slot == null && steps.stream().anyMatch(step -> step.extractions.containsKey(variable))) {
+                throw new IllegalArgumentException(where + " uses " + variable + " before a step extracts it");
+            }
+            if (slot == null) {
+                throw new IllegalArgumentException(where + " uses " + variable + ", which the scenario does not declare");
+            }
+            return slot;
+        }
+    }
+
+    private static int[] ints(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
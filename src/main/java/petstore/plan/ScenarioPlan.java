@@ -0,0 +1,77 @@
+package petstore.plan;
+
+import petstore.session.SessionCache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled {@link Scenario}: immutable, shared by every runner and thread. Its steps hold the resolved variable
+ * slots, precompiled body templates and checks; what changes from one run to the next lives in a {@link PlanRun}.
+ */
+public final class ScenarioPlan {
+
+    private final String name;
+    private final List<Variable> variables;
+    private final Map<String, Integer> slots;
+    private final List<PlanStep> steps;
+    private final ThreadLocal<PlanRun> localRuns = ThreadLocal.withInitial(this::newRun);
+
+    ScenarioPlan(String name, List<Variable> variables, Map<String, Integer> slots, List<PlanStep> steps) {
+        this.name = name;
+        this.variables = List.copyOf(variables);
+        this.slots = Map.copyOf(slots);
+        this.steps = List.copyOf(steps);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<PlanStep> steps() {
+        return steps;
+    }
+
+    /**
+     * A run of its own, with fresh ids and unique names; for a caller that sets inputs or keeps the run's values.
+     */
+    public PlanRun newRun() {
+        return newRun(null);
+    }
+
+    /**
+     * A run of its own, for runners whose iterations overlap and so cannot share the thread's {@link #localRun}.
+     *
+     * @param returningUsers pool returning users come from; null gives unique names
+     */
+    public PlanRun newRun(SessionCache returningUsers) {
+        return new PlanRun(this).reset(returningUsers);
+    }
+
+    /**
+     * The calling thread's run, reset for the next iteration; for runners that finish an iteration before
+     * starting another on the same thread, so iterations reuse its buffers instead of allocating their own.
+     *
+     * @param returningUsers pool returning users come from; null gives unique names
+     */
+    public PlanRun localRun(SessionCache returningUsers) {
+        return localRuns.get().reset(returningUsers);
+    }
+
+    List<Variable> variables() {
+        return variables;
+    }
+
+    int slot(String variable) {
+        var slot = slots.get(variable);
+        if (slot == null) {
+            throw new IllegalArgumentException("Scenario " + name + " has no variable " + variable);
+        }
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,145 @@
+package petstore.plan;
+
+import petstore.check.StreamingListCheck;
+import petstore.data.PayloadTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One request of a {@link Scenario} as declared: method and path, the body template, the status it must answer with,
+ * what the answer must contain and which values it hands on to later steps. A placeholder in the path, e.g.
+ * "user/{username}" or "pet/findByStatus?status={status}", and every field of the body template take the scenario
+ * variable of the same name, unless {@link #bind} names another variable or {@link #set} gives a constant.
+ */
+public final class Step {
+
+    final PlanStep.Kind kind;
+    final String method;
+    final String path;
+    final Map<String, String> bindings = new HashMap<>();
+    final Map<String, Object> constants = new HashMap<>();
+    final List<String> expectedValues = new ArrayList<>();
+    final List<String> expectedTexts = new ArrayList<>();
+    //Variable to JSON field of the answer, in declaration order
+    final Map<String, String> extractions = new LinkedHashMap<>();
+    PayloadTemplate body;
+    int expectedStatus = 200;
+    StreamingListCheck listCheck;
+    long minElements;
+    String userVariable;
+    String authorizedAs;
+
+    private Step(PlanStep.Kind kind, String method, String path) {
+        this.kind = kind;
+        this.method = method;
+        this.path = path;
+    }
+
+    public static Step get(String path) {
+        return new Step(PlanStep.Kind.CALL, "GET", path);
+    }
+
+    public static Step post(String path) {
+        return new Step(PlanStep.Kind.CALL, "POST", path);
+    }
+
+    public static Step put(String path) {
+        return new Step(PlanStep.Kind.CALL, "PUT", path);
+    }
+
+    public static Step delete(String path) {
+        return new Step(PlanStep.Kind.CALL, "DELETE", path);
+    }
+
+    /**
+     * Logs the user in and expects a session in the answer. A runner with a session cache borrows a cached session
+     * instead of sending anything, and caches the session of a login it does send.
+     */
+    public static Step login(String userVariable, String passwordVariable) {
+        var step = new Step(PlanStep.Kind.LOGIN, "GET", "user/login?username={username}&password={password}")
+                .bind("username", userVariable)
+                .bind("password", passwordVariable)
+                .expectText("logged in user session:");
+        step.userVariable = userVariable;
+        return step;
+    }
+
+    /**
+     * Logs the user out; a runner with a session cache drops the user's session whether or not the logout succeeded.
+     */
+    public static Step logout(String userVariable) {
+        var step = new Step(PlanStep.Kind.LOGOUT, "GET", "user/logout");
+        step.userVariable = userVariable;
+        return step;
+    }
+
+    public Step body(PayloadTemplate template) {
+        body = template;
+        return this;
+    }
+
+    /**
+     * Fills the placeholder or body field with another variable than the one of the same name.
+     */
+    public Step bind(String name, String variable) {
+        bindings.put(name, variable);
+        return this;
+    }
+
+    public Step set(String name, long value) {
+        constants.put(name, value);
+        return this;
+    }
+
+    public Step set(String name, String value) {
+        constants.put(name, value);
+        return this;
+    }
+
+    public Step expect(int status) {
+        expectedStatus = status;
+        return this;
+    }
+
+    /**
+     * The answer must contain the variable's value, e.g. the id of the order just placed.
+     */
+    public Step expectValue(String variable) {
+        expectedValues.add(variable);
+        return this;
+    }
+
+    public Step expectText(String text) {
+        expectedTexts.add(text);
+        return this;
+    }
+
+    /**
+     * The answer is a JSON array, streamed through the check instead of being buffered, with at least minElements elements.
+     */
+    public Step expectList(StreamingListCheck check, long minElements) {
+        listCheck = check;
+        this.minElements = minElements;
+        return this;
+    }
+
+    /**
+     * Stores a top-level field of the JSON answer in the variable, for the steps after this one.
+     */
+    public Step extract(String variable, String field) {
+        extractions.put(variable, field);
+        return this;
+    }
+
+    /**
+     * Sends the user's session token with the request, when the runner holds one.
+     */
+    public Step authorizedAs(String userVariable) {
+        authorizedAs = userVariable;
+        return this;
+    }
+}
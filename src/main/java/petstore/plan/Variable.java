@@ -0,0 +1,24 @@
+package petstore.plan;
+
+/**
+ * A named value of a scenario and where it comes from on each run.
+ *
+ * @param text   the value of a text constant, or the prefix of a generated name; null otherwise
+ * @param number the value of a number constant
+ */
+record Variable(String name, Source source, String text, long number) {
+
+    enum Source {
+        //TestData.uniqueId() on every run
+        FRESH_ID,
+        //TestData.uniqueName(prefix) on every run
+        UNIQUE_NAME,
+        //A returning user from the runner's session cache, or a unique name when it has none
+        RETURNING_USER,
+        CONSTANT,
+        //Set by the caller through PlanRun.set and kept across runs
+        INPUT,
+        //Taken from the response of an earlier step
+        EXTRACTED
+    }
+}
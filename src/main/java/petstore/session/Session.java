@@ -0,0 +1,70 @@
+package petstore.session;
+
+import io.restassured.specification.RequestSpecification;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * A logged-in user: the session id the store handed out at login and when the session runs out.
+ *
+ * @param expiresAtMillis wall-clock time after which the session is not used any more
+ */
+public record Session(String userName, String token, long expiresAtMillis) {
+
+    /**
+     * Header the token is sent in; the pet store's api_key security scheme.
+     */
+    public static final String TOKEN_HEADER = "api_key";
+
+    /**
+     * Login response header with the time the session runs out.
+     */
+    public static final String EXPIRES_HEADER = "X-Expires-After";
+
+    private static final String SESSION_PREFIX = "logged in user session:";
+    private static final DateTimeFormatter EXPIRES_FORMAT = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ROOT);
+
+    /**
+     * Reads a login response, e.g. {"code":200,"message":"logged in user session:1700000000000"} with
+     * X-Expires-After: Tue Nov 14 22:13:20 UTC 2023. The session expires at that time or after the ttl,
+     * whichever comes first.
+     *
+     * @param expiresAfter the X-Expires-After header, or null
+     */
+    public static Session fromLogin(String userName, String body, String expiresAfter, Duration ttl) {
+        var now = System.currentTimeMillis();
+        var expiresAt = now + ttl.toMillis();
+        if (expiresAfter != null) {
+            try {
+                expiresAt = Math.min(expiresAt, ZonedDateTime.parse(expiresAfter, EXPIRES_FORMAT).toInstant().toEpochMilli());
+            } catch (DateTimeParseException e) {
+                //Keep the configured ttl
+            }
+        }
+        String token;
+        try {
+            var message = new JSONObject(body).optString("message", "");
+            token = message.startsWith(SESSION_PREFIX) ? message.substring(SESSION_PREFIX.length()) : message;
+        } catch (JSONException e) {
+            token = body;
+        }
+        return new Session(userName, token, expiresAt);
+    }
+
+    public boolean expired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    /**
+     * Adds the token to a request; the store ignores it where no api_key is required.
+     */
+    public RequestSpecification authorize(RequestSpecification request) {
+        return request.header(TOKEN_HEADER, token);
+    }
+}
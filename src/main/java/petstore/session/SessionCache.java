@@ -0,0 +1,137 @@
+package petstore.session;
+
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logged-in users, so scenarios borrow a session instead of logging in on every pass. The cache is
+ * bounded: beyond the maximum size the least recently borrowed session is evicted, and a session past
+ * its ttl or the store's X-Expires-After is dropped when it is next looked up. Logging in stays the
+ * caller's job, so it is timed as a step like any other; the cache only says whether it is needed.
+ */
+public class SessionCache {
+
+    private final SessionSettings settings;
+    private final Map<String, Session> sessions;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder logins = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SessionCache(SessionSettings settings) {
+        this.settings = settings;
+        //Access order makes the eldest entry the least recently borrowed one
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                if (size() > settings.maxSize()) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static SessionCache fromSettings() {
+        return new SessionCache(SessionSettings.fromSettings());
+    }
+
+    public SessionSettings settings() {
+        return settings;
+    }
+
+    /**
+     * @return the user's live session, or null when the caller has to log in; always null with the cache disabled
+     */
+    public Session lookup(String userName) {
+        var session = live(userName);
+        (session == null ? misses : hits).increment();
+        return session;
+    }
+
+    /**
+     * The user's live session without counting a borrow, e.g. to send the token of a session borrowed earlier.
+     */
+    public Session current(String userName) {
+        return live(userName);
+    }
+
+    /**
+     * Keeps the session of a successful login.
+     */
+    public void put(Session session) {
+        logins.increment();
+        if (settings.enabled()) {
+            synchronized (sessions) {
+                sessions.put(session.userName(), session);
+            }
+        }
+    }
+
+    /**
+     * Forgets the user's session, e.g. after logging out.
+     */
+    public void invalidate(String userName) {
+        synchronized (sessions) {
+            if (sessions.remove(userName) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * One of a fixed pool of user names, so load iterations come back as users that already have a session.
+     */
+    public String returningUser(Random random) {
+        return "loaduser" + random.nextInt(settings.users());
+    }
+
+    private Session live(String userName) {
+        if (!settings.enabled()) {
+            return null;
+        }
+        synchronized (sessions) {
+            var session = sessions.get(userName);
+            if (session != null && session.expired(System.currentTimeMillis())) {
+                sessions.remove(userName);
+                expirations.increment();
+                session = null;
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Share of lookups answered from the cache; 0 before the first lookup.
+     */
+    public double hitRate() {
+        var lookups = hits.sum() + misses.sum();
+        return lookups == 0 ? 0 : (double) hits.sum() / lookups;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("settings", settings.toJson())
+                .put("size", size())
+                .put("hits", hits.sum())
+                .put("misses", misses.sum())
+                .put("hitRate", hitRate())
+                .put("logins", logins.sum())
+                .put("evictions", evictions.sum())
+                .put("expirations", expirations.sum())
+                .put("invalidations", invalidations.sum());
+    }
+}
@@ -0,0 +1,39 @@
+package petstore.session;
+
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.time.Duration;
+
+/**
+ * Sizing and lifetime of the session cache.
+ *
+ * @param enabled  false logs in on every borrow, as the scenarios did before sessions were cached
+ * @param maxSize  sessions kept; the least recently borrowed one is evicted beyond that
+ * @param ttl      longest a session is reused, even when the store's X-Expires-After is later
+ * @param users    size of the pool of returning users the load scenarios draw from
+ */
+public record SessionSettings(boolean enabled, int maxSize, Duration ttl, int users) {
+
+    public SessionSettings {
+        if (maxSize < 1 || users < 1) {
+            throw new IllegalArgumentException("Session cache size and user pool must be at least 1, were " + maxSize + " and " + users);
+        }
+    }
+
+    public static SessionSettings fromSettings() {
+        return new SessionSettings(
+                Settings.getBoolean("petstore.session.cache", true),
+                Settings.getInt("petstore.session.maxSize", 1000),
+                Settings.getDuration("petstore.session.ttl", Duration.ofMinutes(30)),
+                Settings.getInt("petstore.session.users", 100));
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("enabled", enabled)
+                .put("maxSize", maxSize)
+                .put("ttlSeconds", ttl.toMillis() / 1000.0)
+                .put("users", users);
+    }
+}
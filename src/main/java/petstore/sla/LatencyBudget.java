@@ -0,0 +1,34 @@
+package petstore.sla;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Latency budget for a test method, enforced by {@link SlaListener}. Repeat the test with
+ * {@code @Test(invocationCount = K)}; the listener adds {@link #warmup()} unmeasured invocations
+ * in front of those K and fails the last invocation when the budget is exceeded, e.g.
+ * <pre>
+ * &#64;LatencyBudget(endpoint = PetStoreRequests.FIND_BY_STATUS, percentile = 95, millis = 200, warmup = 5)
+ * &#64;Test(invocationCount = 20)
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Repeatable(LatencyBudgets.class)
+public @interface LatencyBudget {
+
+    /**
+     * Endpoint key as recorded by the timing filter (see the PetStoreRequests constants);
+     * empty means the whole test method.
+     */
+    String endpoint() default "";
+
+    double percentile() default 95.0;
+
+    long millis();
+
+    int warmup() default 0;
+}
@@ -0,0 +1,256 @@
+package petstore.sla;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.IAnnotationTransformer;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.annotations.ITestAnnotation;
+import petstore.Settings;
+import petstore.metrics.EndpointStats;
+import petstore.metrics.LatencyRegistry;
+import petstore.metrics.TimingFilter;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enforces {@link LatencyBudget}s. Adds the warm-up invocations to the test's invocation count,
+ * times every RestAssured call made on the invoking thread, and once the last invocation of a
+ * method has run compares the measured percentiles with the budgets. A miss fails that last
+ * invocation; every budget's outcome is logged to the TestNG report, set as the "sla" result
+ * attribute and written to petstore.sla.report (default target/sla-report.json).
+ * With petstore.sla.enforce=false budgets are reported but never fail a test.
+ */
+public class SlaListener implements IAnnotationTransformer, ISuiteListener, IInvokedMethodListener {
+
+    /**
+     * Key under which the duration of the whole test method is recorded.
+     */
+    public static final String TEST_METHOD = "test method";
+
+    private static final ThreadLocal<Invocation> current = new ThreadLocal<>();
+    private static final ConcurrentHashMap<String, MethodSla> methods = new ConcurrentHashMap<>();
+
+    private final boolean enforce = Settings.getBoolean("petstore.sla.enforce", true);
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        if (testMethod == null) {
+            return;
+        }
+        var budgets = testMethod.getAnnotationsByType(LatencyBudget.class);
+        if (budgets.length > 0) {
+            annotation.setInvocationCount(annotation.getInvocationCount() + warmup(budgets));
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        RestAssured.filters(new InvocationTimer());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        var results = new JSONObject();
+        methods.forEach((name, sla) -> results.put(name, sla.toJson()));
+        var path = Path.of(Settings.get("petstore.sla.report", "target/sla-report.json"));
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, new JSONObject().put("suite", suite.getName()).put("methods", results).toString(2));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        var sla = method.isTestMethod() ? slaFor(method.getTestMethod()) : null;
+        if (sla != null) {
+            current.set(new Invocation(sla, sla.started.getAndIncrement() < sla.warmup, System.nanoTime()));
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        var invocation = current.get();
+        if (invocation == null || !method.isTestMethod()) {
+            return;
+        }
+        current.remove();
+        var sla = invocation.sla;
+        if (!invocation.warmup) {
+            for (var sample : invocation.samples) {
+                sla.measured.record(sample.endpoint, sample.nanos, true);
+            }
+            sla.measured.record(TEST_METHOD, System.nanoTime() - invocation.startNanos, testResult.isSuccess());
+        }
+        if (sla.completed.incrementAndGet() == sla.invocations) {
+            evaluate(sla, testResult);
+        }
+    }
+
+    private void evaluate(MethodSla sla, ITestResult testResult) {
+        var violations = new ArrayList<String>();
+        Reporter.setCurrentTestResult(testResult);
+        for (var outcome : sla.evaluate()) {
+            Reporter.log(outcome.describe());
+            if (!outcome.passed()) {
+                violations.add(outcome.describe());
+            }
+        }
+        testResult.setAttribute("sla", sla.toJson().toString());
+        if (enforce && !violations.isEmpty() && testResult.isSuccess()) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new AssertionError("Latency budget exceeded: " + String.join("; ", violations)));
+        }
+    }
+
+    private static MethodSla slaFor(ITestNGMethod testMethod) {
+        var javaMethod = testMethod.getConstructorOrMethod().getMethod();
+        var budgets = javaMethod == null ? new LatencyBudget[0] : javaMethod.getAnnotationsByType(LatencyBudget.class);
+        if (budgets.length == 0) {
+            return null;
+        }
+        return methods.computeIfAbsent(testMethod.getQualifiedName(),
+                name -> new MethodSla(List.of(budgets), warmup(budgets), testMethod.getInvocationCount()));
+    }
+
+    private static int warmup(LatencyBudget[] budgets) {
+        return Arrays.stream(budgets).mapToInt(LatencyBudget::warmup).max().orElse(0);
+    }
+
+    /**
+     * Records calls made by the test thread while an invocation with budgets is running.
+     */
+    private static final class InvocationTimer implements OrderedFilter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+            var invocation = current.get();
+            if (invocation == null) {
+                return ctx.next(requestSpec, responseSpec);
+            }
+            var start = System.nanoTime();
+            try {
+                return ctx.next(requestSpec, responseSpec);
+            } finally {
+                invocation.samples.add(new Sample(TimingFilter.endpointKey(requestSpec.getMethod(), requestSpec.getUserDefinedPath()),
+                        System.nanoTime() - start));
+            }
+        }
+
+        /**
+         * Just outside the {@link TimingFilter}, so budgets and the latency report measure the same span.
+         */
+        @Override
+        public int getOrder() {
+            return TimingFilter.ORDER - 1;
+        }
+    }
+
+    private record Sample(String endpoint, long nanos) {
+    }
+
+    private static final class Invocation {
+        private final MethodSla sla;
+        private final boolean warmup;
+        private final long startNanos;
+        private final List<Sample> samples = new ArrayList<>();
+
+        private Invocation(MethodSla sla, boolean warmup, long startNanos) {
+            this.sla = sla;
+            this.warmup = warmup;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private record Outcome(LatencyBudget budget, long samples, double actualMillis) {
+
+        boolean passed() {
+            return samples > 0 && actualMillis <= budget.millis();
+        }
+
+        String describe() {
+            var endpoint = budget.endpoint().isEmpty() ? TEST_METHOD : budget.endpoint();
+            if (samples == 0) {
+                return String.format("%s p%s: no measured calls", endpoint, percentile(budget));
+            }
+            return String.format("%s p%s %.1f ms %s budget %d ms over %d samples", endpoint, percentile(budget),
+                    actualMillis, passed() ? "within" : "exceeds", budget.millis(), samples);
+        }
+
+        JSONObject toJson() {
+            return new JSONObject()
+                    .put("endpoint", budget.endpoint().isEmpty() ? TEST_METHOD : budget.endpoint())
+                    .put("percentile", budget.percentile())
+                    .put("budgetMs", budget.millis())
+                    .put("actualMs", actualMillis)
+                    .put("samples", samples)
+                    .put("passed", passed());
+        }
+
+        private static String percentile(LatencyBudget budget) {
+            return budget.percentile() == Math.rint(budget.percentile())
+                    ? String.valueOf((long) budget.percentile())
+                    : String.valueOf(budget.percentile());
+        }
+    }
+
+    private static final class MethodSla {
+        private final List<LatencyBudget> budgets;
+        private final int warmup;
+        private final int invocations;
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final LatencyRegistry measured = new LatencyRegistry();
+
+        private MethodSla(List<LatencyBudget> budgets, int warmup, int invocations) {
+            this.budgets = budgets;
+            this.warmup = warmup;
+            this.invocations = invocations;
+        }
+
+        private List<Outcome> evaluate() {
+            var outcomes = new ArrayList<Outcome>();
+            for (var budget : budgets) {
+                var histogram = measured.stats(budget.endpoint().isEmpty() ? TEST_METHOD : budget.endpoint()).snapshot();
+                outcomes.add(new Outcome(budget, histogram.getTotalCount(),
+                        EndpointStats.millisAt(histogram, budget.percentile())));
+            }
+            return outcomes;
+        }
+
+        private JSONObject toJson() {
+            var budgetJson = new JSONArray();
+            evaluate().forEach(outcome -> budgetJson.put(outcome.toJson()));
+            return new JSONObject()
+                    .put("warmup", warmup)
+                    .put("invocations", invocations)
+                    .put("budgets", budgetJson)
+                    .put("endpoints", measured.toJson());
+        }
+    }
+}
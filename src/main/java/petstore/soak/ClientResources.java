@@ -0,0 +1,40 @@
+package petstore.soak;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.json.JSONObject;
+import petstore.load.LoadGenerator;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * What the load generator itself holds at one point in time. Growth here points at the client, not
+ * the server: a heap or connection leak in the test JVM also shows up as rising latency.
+ *
+ * @param heapUsedBytes       heap in use, including garbage not yet collected
+ * @param leasedConnections   pooled connections busy with a request (-1 with the async engine)
+ * @param openConnections     pooled connections, busy or idle (-1 with the async engine)
+ * @param openFileDescriptors sockets and files open in the JVM (-1 where the platform does not report it)
+ */
+record ClientResources(long heapUsedBytes, int threads, int leasedConnections, int openConnections, long openFileDescriptors) {
+
+    static ClientResources sample(LoadGenerator generator) {
+        var heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        var threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        var pool = generator.connectionPoolStats();
+        var os = ManagementFactory.getOperatingSystemMXBean();
+        var descriptors = os instanceof UnixOperatingSystemMXBean unix ? unix.getOpenFileDescriptorCount() : -1;
+        return new ClientResources(heap, threads,
+                pool == null ? -1 : pool.getLeased(),
+                pool == null ? -1 : pool.getLeased() + pool.getAvailable(),
+                descriptors);
+    }
+
+    JSONObject toJson() {
+        return new JSONObject()
+                .put("heapUsedMb", heapUsedBytes / (1024.0 * 1024.0))
+                .put("threads", threads)
+                .put("leasedConnections", leasedConnections)
+                .put("openConnections", openConnections)
+                .put("openFileDescriptors", openFileDescriptors);
+    }
+}
@@ -0,0 +1,59 @@
+package petstore.soak;
+
+import org.json.JSONObject;
+import petstore.Settings;
+import petstore.load.LoadProfile;
+import petstore.load.ScenarioMix;
+
+import java.time.Duration;
+
+/**
+ * A long steady load run cut into time windows.
+ *
+ * @param load           rate, workers and engine of the run; its duration and mix come from the soak settings
+ * @param window         length of each latency window a trend is fitted over
+ * @param sampleInterval how often the client's heap, threads and connections are sampled
+ * @param maxGrowth      relative growth per hour of a window series (latency, heap, ...) that counts as drift
+ * @param minWindows     completed windows needed before a trend is judged
+ * @param minSamples     calls an endpoint needs in a window for that window to count towards its latency trend
+ */
+public record SoakProfile(LoadProfile load, Duration window, Duration sampleInterval, double maxGrowth, int minWindows,
+                          long minSamples) {
+
+    public SoakProfile {
+        if (window.isNegative() || window.isZero() || sampleInterval.isNegative() || sampleInterval.isZero()) {
+            throw new IllegalArgumentException("Soak window and sample interval must be positive");
+        }
+        if (sampleInterval.compareTo(window) > 0) {
+            throw new IllegalArgumentException("Soak sample interval " + sampleInterval + " is longer than the window " + window);
+        }
+        if (minWindows < 3) {
+            throw new IllegalArgumentException("A trend needs at least 3 windows, was " + minWindows);
+        }
+    }
+
+    public static SoakProfile fromSettings(String baseUri) {
+        var load = LoadProfile.fromSettings(baseUri);
+        return new SoakProfile(
+                new LoadProfile(load.baseUri(), load.rate(),
+                        Settings.getDuration("petstore.soak.duration", Duration.ofHours(2)),
+                        load.workers(),
+                        ScenarioMix.parse(Settings.get("petstore.soak.mix", "PLACE_ORDER=50,USER_OPERATIONS=30,USER_LOGOUT=20")),
+                        load.maxErrorRate(), load.engine(), load.arrivals()),
+                Settings.getDuration("petstore.soak.window", Duration.ofMinutes(5)),
+                Settings.getDuration("petstore.soak.sampleInterval", Duration.ofSeconds(10)),
+                Settings.getDouble("petstore.soak.maxGrowth", 0.10),
+                Settings.getInt("petstore.soak.minWindows", 6),
+                Settings.getLong("petstore.soak.minSamples", 20));
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("load", load.toJson())
+                .put("windowSeconds", window.toMillis() / 1000.0)
+                .put("sampleIntervalSeconds", sampleInterval.toMillis() / 1000.0)
+                .put("maxGrowthPerHour", maxGrowth)
+                .put("minWindows", minWindows)
+                .put("minSamples", minSamples);
+    }
+}
@@ -0,0 +1,86 @@
+package petstore.soak;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.load.LoadReport;
+import petstore.load.RunReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of a soak run: the overall load report, every window, and the trends fitted through them.
+ */
+public class SoakReport implements RunReport {
+
+    private final SoakProfile profile;
+    private final LoadReport load;
+    private final List<SoakWindow> windows;
+    private final List<Trend> trends;
+
+    SoakReport(SoakProfile profile, LoadReport load, List<SoakWindow> windows, List<Trend> trends) {
+        this.profile = profile;
+        this.load = load;
+        this.windows = windows;
+        this.trends = trends;
+    }
+
+    public LoadReport load() {
+        return load;
+    }
+
+    public int windowCount() {
+        return windows.size();
+    }
+
+    /**
+     * Descriptions of the latency series that drift upwards.
+     */
+    public List<String> serverDrift() {
+        return trends.stream().filter(trend -> trend.drifting() && !trend.client()).map(Trend::describe).toList();
+    }
+
+    /**
+     * Descriptions of the client resource series that grow; these make a server drift suspect.
+     */
+    public List<String> clientGrowth() {
+        return trends.stream().filter(trend -> trend.drifting() && trend.client()).map(Trend::describe).toList();
+    }
+
+    public JSONObject toJson() {
+        var windowJson = new JSONArray();
+        windows.forEach(window -> windowJson.put(window.toJson()));
+        var trendJson = new JSONArray();
+        trends.forEach(trend -> trendJson.put(trend.toJson()));
+        return new JSONObject()
+                .put("profile", profile.toJson())
+                .put("load", load.toJson())
+                .put("windows", windowJson)
+                .put("trends", trendJson)
+                .put("serverDrift", new JSONArray(serverDrift()))
+                .put("clientGrowth", new JSONArray(clientGrowth()));
+    }
+
+    @Override
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    @Override
+    public String summary() {
+        var summary = new StringBuilder(load.summary());
+        summary.append(String.format("Soak: %d windows of %ds, %d trends fitted%n", windows.size(),
+                profile.window().toSeconds(), trends.size()));
+        serverDrift().forEach(drift -> summary.append("  drifting: ").append(drift).append(System.lineSeparator()));
+        clientGrowth().forEach(growth -> summary.append("  growing: ").append(growth).append(System.lineSeparator()));
+        if (!serverDrift().isEmpty() && !clientGrowth().isEmpty()) {
+            summary.append("  the client grows too, so the latency drift may be the load generator's own").append(System.lineSeparator());
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,174 @@
+package petstore.soak;
+
+import org.HdrHistogram.Histogram;
+import petstore.load.LoadGenerator;
+import petstore.metrics.EndpointStats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Runs the soak profile on a {@link LoadGenerator} while a monitor thread samples the client every
+ * sample interval and closes a {@link SoakWindow} every window, from the difference between consecutive
+ * histogram snapshots. When the run ends, a trend is fitted through every window series; the first
+ * window is left out as warm-up.
+ */
+public class SoakRunner {
+
+    private final SoakProfile profile;
+    private final List<SoakWindow> windows = new ArrayList<>();
+    private final Map<String, Histogram> previousLatencies = new HashMap<>();
+    private final Map<String, Long> previousErrors = new HashMap<>();
+
+    private LoadGenerator generator;
+    private long runStartNanos;
+    private long windowStartNanos;
+    private long minHeap;
+    private int maxThreads;
+    private int maxLeased;
+    private int maxOpen;
+    private long maxDescriptors;
+
+    public SoakRunner(SoakProfile profile) {
+        this.profile = profile;
+    }
+
+    public SoakReport run() throws InterruptedException {
+        generator = new LoadGenerator(profile.load());
+        var monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "petstore-soak-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        runStartNanos = System.nanoTime();
+        windowStartNanos = runStartNanos;
+        resetResources();
+        var intervalMillis = profile.sampleInterval().toMillis();
+        monitor.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+
+        var load = generator.run();
+
+        monitor.shutdown();
+        if (!monitor.awaitTermination(30, TimeUnit.SECONDS)) {
+            monitor.shutdownNow();
+        }
+        //The last, partial window still holds the calls made since the previous one closed
+        closeWindow(System.nanoTime());
+        return new SoakReport(profile, load, List.copyOf(windows), trends());
+    }
+
+    private void sample() {
+        try {
+            var resources = ClientResources.sample(generator);
+            minHeap = Math.min(minHeap, resources.heapUsedBytes());
+            maxThreads = Math.max(maxThreads, resources.threads());
+            maxLeased = Math.max(maxLeased, resources.leasedConnections());
+            maxOpen = Math.max(maxOpen, resources.openConnections());
+            maxDescriptors = Math.max(maxDescriptors, resources.openFileDescriptors());
+            var now = System.nanoTime();
+            //Half a sample interval of slack keeps windows aligned to the schedule instead of one sample late
+            if (now - windowStartNanos >= profile.window().toNanos() - profile.sampleInterval().toNanos() / 2) {
+                closeWindow(now);
+            }
+        } catch (RuntimeException e) {
+            //A failed sample must not cancel the schedule for the rest of a multi-hour run
+            e.printStackTrace();
+        }
+    }
+
+    private void closeWindow(long now) {
+        var endpoints = new TreeMap<String, SoakWindow.Latency>();
+        for (var stats : generator.registry().all()) {
+            var snapshot = stats.snapshot();
+            var delta = snapshot.copy();
+            var before = previousLatencies.put(stats.endpoint(), snapshot);
+            if (before != null) {
+                delta.subtract(before);
+            }
+            var errors = stats.errors();
+            var errorDelta = errors - previousErrors.getOrDefault(stats.endpoint(), 0L);
+            previousErrors.put(stats.endpoint(), errors);
+            if (delta.getTotalCount() > 0) {
+                endpoints.put(stats.endpoint(), new SoakWindow.Latency(delta.getTotalCount(), errorDelta,
+                        EndpointStats.millisAt(delta, 50), EndpointStats.millisAt(delta, 99)));
+            }
+        }
+        if (endpoints.isEmpty() && !windows.isEmpty()) {
+            return;
+        }
+        var window = new SoakWindow(seconds(windowStartNanos), seconds(now), endpoints,
+                new ClientResources(minHeap == Long.MAX_VALUE ? 0 : minHeap, maxThreads, maxLeased, maxOpen, maxDescriptors));
+        windows.add(window);
+        System.out.printf("Soak window %d (%.0f-%.0fs): %d calls, heap %.0f MB, %d threads, %d connections%n",
+                windows.size(), window.startSeconds(), window.endSeconds(),
+                endpoints.values().stream().mapToLong(SoakWindow.Latency::count).sum(),
+                window.client().heapUsedBytes() / (1024.0 * 1024.0), maxThreads, maxOpen);
+        windowStartNanos = now;
+        resetResources();
+    }
+
+    private List<Trend> trends() {
+        var trends = new ArrayList<Trend>();
+        var measured = windows.size() > 1 ? windows.subList(1, windows.size()) : List.<SoakWindow>of();
+        var endpoints = new TreeMap<String, Boolean>();
+        measured.forEach(window -> window.endpoints().keySet().forEach(endpoint -> endpoints.put(endpoint, true)));
+        for (var endpoint : endpoints.keySet()) {
+            latencyTrend(trends, measured, endpoint, "p50Ms", SoakWindow.Latency::p50Ms);
+            latencyTrend(trends, measured, endpoint, "p99Ms", SoakWindow.Latency::p99Ms);
+        }
+        clientTrend(trends, measured, "heapUsedMb", client -> client.heapUsedBytes() / (1024.0 * 1024.0));
+        clientTrend(trends, measured, "threads", ClientResources::threads);
+        clientTrend(trends, measured, "openConnections", ClientResources::openConnections);
+        clientTrend(trends, measured, "openFileDescriptors", ClientResources::openFileDescriptors);
+        return trends;
+    }
+
+    private void latencyTrend(List<Trend> trends, List<SoakWindow> measured, String endpoint, String metric,
+                              ToDoubleFunction<SoakWindow.Latency> value) {
+        var seconds = new ArrayList<Double>();
+        var values = new ArrayList<Double>();
+        for (var window : measured) {
+            var latency = window.endpoints().get(endpoint);
+            if (latency != null && latency.count() >= profile.minSamples()) {
+                seconds.add(window.midSeconds());
+                values.add(value.applyAsDouble(latency));
+            }
+        }
+        if (seconds.size() >= profile.minWindows()) {
+            trends.add(Trend.fit(endpoint + " " + metric, false, seconds, values, profile.maxGrowth()));
+        }
+    }
+
+    private void clientTrend(List<Trend> trends, List<SoakWindow> measured, String metric, ToDoubleFunction<ClientResources> value) {
+        var seconds = new ArrayList<Double>();
+        var values = new ArrayList<Double>();
+        for (var window : measured) {
+            var sampled = value.applyAsDouble(window.client());
+            if (sampled >= 0) {
+                seconds.add(window.midSeconds());
+                values.add(sampled);
+            }
+        }
+        if (seconds.size() >= profile.minWindows()) {
+            trends.add(Trend.fit(metric, true, seconds, values, profile.maxGrowth()));
+        }
+    }
+
+    private void resetResources() {
+        minHeap = Long.MAX_VALUE;
+        maxThreads = 0;
+        maxLeased = -1;
+        maxOpen = -1;
+        maxDescriptors = -1;
+    }
+
+    private double seconds(long nanos) {
+        return (nanos - runStartNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,41 @@
+package petstore.soak;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One time bucket of a soak run: per-endpoint latency of the calls that completed in it, and the
+ * client resources sampled during it. Heap is the lowest sample of the window, which tracks the live
+ * set far better than any single reading; threads and connections are the highest.
+ *
+ * @param startSeconds offset of the window from the start of the run
+ */
+record SoakWindow(double startSeconds, double endSeconds, Map<String, Latency> endpoints, ClientResources client) {
+
+    record Latency(long count, long errors, double p50Ms, double p99Ms) {
+
+        JSONObject toJson() {
+            return new JSONObject()
+                    .put("count", count)
+                    .put("errors", errors)
+                    .put("p50Ms", p50Ms)
+                    .put("p99Ms", p99Ms);
+        }
+    }
+
+    double midSeconds() {
+        return (startSeconds + endSeconds) / 2;
+    }
+
+    JSONObject toJson() {
+        var endpointJson = new JSONObject();
+        new TreeMap<>(endpoints).forEach((endpoint, latency) -> endpointJson.put(endpoint, latency.toJson()));
+        return new JSONObject()
+                .put("startSeconds", startSeconds)
+                .put("endSeconds", endSeconds)
+                .put("endpoints", endpointJson)
+                .put("client", client.toJson());
+    }
+}
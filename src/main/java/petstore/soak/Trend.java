@@ -0,0 +1,62 @@
+package petstore.soak;
+
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * Least-squares line through one window series, e.g. the p99 of "POST store/order" or the client heap.
+ * Growth is the slope per hour relative to the series mean; it only counts as drift when the slope
+ * is also clearly above zero given the scatter around the line (t statistic above 2).
+ *
+ * @param series what was fitted, e.g. "POST store/order p99Ms" or "client heapUsedMb"
+ * @param client true for the load generator's own resources
+ */
+record Trend(String series, boolean client, int points, double first, double last, double growthPerHour, double tStatistic,
+             boolean drifting) {
+
+    private static final double SIGNIFICANT_T = 2.0;
+
+    /**
+     * @param seconds window mid-points, seconds from the start of the run
+     */
+    static Trend fit(String series, boolean client, List<Double> seconds, List<Double> values, double maxGrowth) {
+        var n = seconds.size();
+        var meanX = seconds.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        var meanY = values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        var sxx = 0.0;
+        var sxy = 0.0;
+        for (var i = 0; i < n; i++) {
+            sxx += (seconds.get(i) - meanX) * (seconds.get(i) - meanX);
+            sxy += (seconds.get(i) - meanX) * (values.get(i) - meanY);
+        }
+        var slope = sxx == 0 ? 0.0 : sxy / sxx;
+        var residuals = 0.0;
+        for (var i = 0; i < n; i++) {
+            var fitted = meanY + slope * (seconds.get(i) - meanX);
+            residuals += (values.get(i) - fitted) * (values.get(i) - fitted);
+        }
+        var standardError = n > 2 && sxx > 0 ? Math.sqrt(residuals / (n - 2) / sxx) : 0.0;
+        var t = standardError == 0 ? (slope > 0 ? Double.POSITIVE_INFINITY : 0.0) : slope / standardError;
+        var growth = meanY == 0 ? 0.0 : slope * 3600 / meanY;
+        return new Trend(series, client, n, values.get(0), values.get(n - 1), growth, t,
+                growth > maxGrowth && t > SIGNIFICANT_T);
+    }
+
+    String describe() {
+        return String.format("%s %s %.1f%%/h (%.2f -> %.2f over %d windows)", client ? "client" : "server", series,
+                growthPerHour * 100, first, last, points);
+    }
+
+    JSONObject toJson() {
+        return new JSONObject()
+                .put("series", series)
+                .put("client", client)
+                .put("windows", points)
+                .put("first", first)
+                .put("last", last)
+                .put("growthPerHour", growthPerHour)
+                .put("tStatistic", Double.isInfinite(tStatistic) ? Double.MAX_VALUE : tStatistic)
+                .put("drifting", drifting);
+    }
+}
@@ -0,0 +1,349 @@
+package petstore.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process stand-in for the Swagger pet store v2 API (pet, store/order and user endpoints),
+ * listening on an ephemeral loopback port. Status codes and messages follow the public pet store,
+ * including its lack of validation on user creation. Like the public store behind its gzip filter it
+ * accepts gzip request bodies and gzips responses of at least {@link #MIN_GZIP_SIZE} bytes for clients that accept it.
+ */
+public class PetStoreStub implements AutoCloseable {
+
+    public static final String CONTEXT = "/v2/";
+
+    /**
+     * Smaller responses go out uncompressed; the header and trailer would eat the saving.
+     */
+    public static final int MIN_GZIP_SIZE = 256;
+
+    private static volatile PetStoreStub shared;
+
+    private final Map<Long, JSONObject> pets = new ConcurrentHashMap<>();
+    private final Map<Long, JSONObject> orders = new ConcurrentHashMap<>();
+    private final Map<String, JSONObject> users = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private PetStoreStub(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+        seedPets();
+    }
+
+    public static PetStoreStub start() throws IOException {
+        return start(0);
+    }
+
+    public static PetStoreStub start(int port) throws IOException {
+        //Headers and body go out in separate writes; with Nagle on, small bodies wait for the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        var threadIndex = new AtomicInteger();
+        var executor = Executors.newCachedThreadPool(runnable -> {
+            var thread = new Thread(runnable, "petstore-stub-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        var stub = new PetStoreStub(server, executor);
+        server.createContext(CONTEXT, stub::handle);
+
+        //The dispatcher thread inherits the daemon flag of the thread that starts the server,
+        //so starting it from a daemon thread keeps the stub from holding the JVM open
+        var failure = new AtomicReference<RuntimeException>();
+        var starter = new Thread(() -> {
+            try {
+                server.start();
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        }, "petstore-stub-start");
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while starting the pet store stub", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return stub;
+    }
+
+    /**
+     * The stub shared by everything in this JVM, started on first use.
+     */
+    public static PetStoreStub shared() {
+        if (shared == null) {
+            synchronized (PetStoreStub.class) {
+                if (shared == null) {
+                    try {
+                        shared = start();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not start the pet store stub", e);
+                    }
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * The configured pet store URI, or the shared stub when none is configured.
+     */
+    public static String uriOrStub(String configuredUri) {
+        return configuredUri == null || configuredUri.isBlank() ? shared().baseUri() : configuredUri;
+    }
+
+    public String baseUri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + CONTEXT;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void seedPets() {
+        var statuses = new String[]{"available", "pending", "sold"};
+        for (var id = 1; id <= 12; id++) {
+            pets.put((long) id, new JSONObject()
+                    .put("id", id)
+                    .put("category", new JSONObject().put("id", 1).put("name", "Dogs"))
+                    .put("name", "doggie")
+                    .put("photoUrls", new JSONArray().put("string"))
+                    .put("tags", new JSONArray().put(new JSONObject().put("id", 0).put("name", "string")))
+                    .put("status", statuses[id % statuses.length]));
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var path = exchange.getRequestURI().getRawPath().substring(CONTEXT.length());
+            var segments = path.isEmpty() ? new String[0] : path.split("/");
+            var method = exchange.getRequestMethod();
+            var in = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                    ? new GZIPInputStream(exchange.getRequestBody())
+                    : exchange.getRequestBody();
+            var body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            try {
+                var reply = route(method, segments, query(exchange.getRequestURI().getRawQuery()), body, exchange);
+                send(exchange, reply.status(), reply.body());
+            } catch (JSONException e) {
+                send(exchange, 400, message(400, "unknown", "bad input"));
+            }
+        }
+    }
+
+    private Reply route(String method, String[] segments, Map<String, String> query, String body, HttpExchange exchange) {
+        if (segments.length == 0) {
+            return notFound();
+        }
+        switch (segments[0]) {
+            case "pet":
+                return pet(method, Arrays.copyOfRange(segments, 1, segments.length), query, body);
+            case "store":
+                return store(method, Arrays.copyOfRange(segments, 1, segments.length), body);
+            case "user":
+                return user(method, Arrays.copyOfRange(segments, 1, segments.length), query, body, exchange);
+            default:
+                return notFound();
+        }
+    }
+
+    private Reply pet(String method, String[] segments, Map<String, String> query, String body) {
+        if (segments.length == 0) {
+            if (!method.equals("POST") && !method.equals("PUT")) {
+                return new Reply(405, "");
+            }
+            var pet = new JSONObject(body);
+            var id = pet.optLong("id", 0);
+            pet.put("id", id);
+            pets.put(id, pet);
+            return new Reply(200, pet.toString());
+        }
+        if (segments[0].equals("findByStatus") && method.equals("GET")) {
+            var statuses = Arrays.asList(query.getOrDefault("status", "").split(","));
+            var found = new JSONArray();
+            for (var pet : pets.values()) {
+                if (statuses.contains(pet.optString("status"))) {
+                    found.put(pet);
+                }
+            }
+            return new Reply(200, found.toString());
+        }
+        var id = parseId(segments[0]);
+        var pet = id == null ? null : pets.get(id);
+        switch (method) {
+            case "GET":
+                return pet == null ? new Reply(404, message(1, "error", "Pet not found")) : new Reply(200, pet.toString());
+            case "DELETE":
+                return id == null || pets.remove(id) == null ? new Reply(404, "") : new Reply(200, message(200, "unknown", segments[0]));
+            default:
+                return new Reply(405, "");
+        }
+    }
+
+    private Reply store(String method, String[] segments, String body) {
+        if (segments.length == 0 || !segments[0].equals("order")) {
+            if (segments.length == 1 && segments[0].equals("inventory") && method.equals("GET")) {
+                var inventory = new JSONObject();
+                for (var pet : pets.values()) {
+                    var status = pet.optString("status", "unknown");
+                    inventory.put(status, inventory.optInt(status) + 1);
+                }
+                return new Reply(200, inventory.toString());
+            }
+            return notFound();
+        }
+        if (segments.length == 1) {
+            if (!method.equals("POST")) {
+                return new Reply(405, "");
+            }
+            var order = new JSONObject(body);
+            var id = order.optLong("id", 0);
+            var normalised = new JSONObject()
+                    .put("id", id)
+                    .put("petId", order.optLong("petId", 0))
+                    .put("quantity", order.optInt("quantity", 0))
+                    .put("shipDate", order.optString("shipDate", null))
+                    .put("status", order.optString("status", "placed"))
+                    .put("complete", order.optBoolean("complete", false));
+            orders.put(id, normalised);
+            return new Reply(200, normalised.toString());
+        }
+        var id = parseId(segments[1]);
+        switch (method) {
+            case "GET":
+                var order = id == null ? null : orders.get(id);
+                return order == null ? new Reply(404, message(1, "error", "Order not found")) : new Reply(200, order.toString());
+            case "DELETE":
+                return id == null || orders.remove(id) == null
+                        ? new Reply(404, message(404, "unknown", "Order Not Found"))
+                        : new Reply(200, message(200, "unknown", segments[1]));
+            default:
+                return new Reply(405, "");
+        }
+    }
+
+    private Reply user(String method, String[] segments, Map<String, String> query, String body, HttpExchange exchange) {
+        if (segments.length == 0) {
+            if (!method.equals("POST")) {
+                return new Reply(405, "");
+            }
+            var user = new JSONObject(body);
+            users.put(user.optString("username"), user);
+            return new Reply(200, message(200, "unknown", String.valueOf(user.optLong("id", 0))));
+        }
+        var name = URLDecoder.decode(segments[0], StandardCharsets.UTF_8);
+        if ((name.equals("createWithArray") || name.equals("createWithList")) && method.equals("POST")) {
+            var created = new JSONArray(body);
+            for (var i = 0; i < created.length(); i++) {
+                var user = created.getJSONObject(i);
+                users.put(user.optString("username"), user);
+            }
+            return new Reply(200, message(200, "unknown", "ok"));
+        }
+        if (name.equals("login") && method.equals("GET")) {
+            exchange.getResponseHeaders().add("X-Rate-Limit", "5000");
+            exchange.getResponseHeaders().add("X-Expires-After", new Date(System.currentTimeMillis() + 3_600_000).toString());
+            return new Reply(200, message(200, "unknown", "logged in user session:" + System.nanoTime()));
+        }
+        if (name.equals("logout") && method.equals("GET")) {
+            return new Reply(200, message(200, "unknown", "ok"));
+        }
+        switch (method) {
+            case "GET":
+                var user = users.get(name);
+                return user == null ? new Reply(404, message(1, "error", "User not found")) : new Reply(200, user.toString());
+            case "PUT":
+                var updated = new JSONObject(body);
+                users.remove(name);
+                users.put(updated.optString("username", name), updated);
+                return new Reply(200, message(200, "unknown", String.valueOf(updated.optLong("id", 0))));
+            case "DELETE":
+                return users.remove(name) == null ? new Reply(404, "") : new Reply(200, message(200, "unknown", name));
+            default:
+                return new Reply(405, "");
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        var query = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (var pair : rawQuery.split("&")) {
+            var separator = pair.indexOf('=');
+            var key = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            var value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            query.merge(key, value, (first, second) -> first + "," + second);
+        }
+        return query;
+    }
+
+    private static String message(int code, String type, String message) {
+        return new JSONObject().put("code", code).put("type", type).put("message", message).toString();
+    }
+
+    private static Reply notFound() {
+        return new Reply(404, message(404, "unknown", "not found"));
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (bytes.length >= MIN_GZIP_SIZE && acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            var compressed = new ByteArrayOutputStream(bytes.length / 4);
+            try (var gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private record Reply(int status, String body) {
+    }
+}
@@ -0,0 +1,152 @@
+package petstore.visibility;
+
+import petstore.metrics.LatencyRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Write history of one probe pet. Every write is a new version, carried in the pet's name, with a status
+ * that follows from the version, so any read tells which version it saw. Only the pet's writer issues
+ * versions, one at a time, so acknowledgements arrive in version order.
+ */
+final class ProbePet {
+
+    static final String[] STATUSES = {"available", "pending", "sold"};
+
+    private static final String NAME_PREFIX = "visibility-probe-v";
+    private static final long FAILED = -1;
+
+    final long id;
+
+    //Acknowledgement time by version: 0 while the write is in flight, FAILED when it was not acknowledged
+    private long[] ackNanos = new long[64];
+    private int issued;
+    private final int[] seen = new int[ReadEndpoint.values().length];
+
+    /**
+     * @param createdNanos when version 0, the pet as created, was acknowledged
+     */
+    ProbePet(long id, long createdNanos) {
+        this.id = id;
+        ackNanos[0] = createdNanos;
+    }
+
+    static String name(int version) {
+        return NAME_PREFIX + version;
+    }
+
+    static String status(int version) {
+        return STATUSES[version % STATUSES.length];
+    }
+
+    /**
+     * The version a read pet carries; -1 when the name is not a probe name.
+     */
+    static int version(String name) {
+        if (name == null || !name.startsWith(NAME_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(NAME_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    synchronized int issue() {
+        issued++;
+        if (issued == ackNanos.length) {
+            ackNanos = Arrays.copyOf(ackNanos, ackNanos.length * 2);
+        }
+        return issued;
+    }
+
+    /**
+     * Records the acknowledgement; a read that already showed the version saw it with no lag.
+     */
+    synchronized void acked(int version, long nanos, LatencyRegistry lags) {
+        ackNanos[version] = nanos;
+        for (var read : ReadEndpoint.values()) {
+            if (seen[read.ordinal()] >= version) {
+                lags.record(read.endpoint(), 0, true);
+            }
+        }
+    }
+
+    synchronized void failed(int version) {
+        ackNanos[version] = FAILED;
+    }
+
+    /**
+     * Records a read that showed the given version. Every acknowledged version up to it that this endpoint had
+     * not shown yet became visible by the time the read completed.
+     *
+     * @return how long a newer version had been acknowledged when the read was sent; -1 when the read was current
+     */
+    synchronized long observed(ReadEndpoint read, int version, long sentNanos, long doneNanos, LatencyRegistry lags) {
+        if (version > issued) {
+            return -1;
+        }
+        for (var shown = seen[read.ordinal()] + 1; shown <= version; shown++) {
+            if (ackNanos[shown] > 0) {
+                lags.record(read.endpoint(), Math.max(0, doneNanos - ackNanos[shown]), true);
+            }
+        }
+        seen[read.ordinal()] = Math.max(seen[read.ordinal()], version);
+        for (var newer = version + 1; newer <= issued; newer++) {
+            if (ackNanos[newer] > 0) {
+                return ackNanos[newer] <= sentNanos ? sentNanos - ackNanos[newer] : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records a read that did not show the pet at all.
+     *
+     * @param status the status the read asked for; null when any status would have shown the pet
+     * @return how long the version the read should have shown had been acknowledged; -1 when the pet may
+     * rightly be absent, because its latest version has another status or a newer write is still in flight
+     */
+    synchronized long missing(String status, long sentNanos) {
+        for (var expected = issued; expected >= 0; expected--) {
+            if (ackNanos[expected] > 0 && ackNanos[expected] <= sentNanos) {
+                if (expected != issued || (status != null && !status.equals(status(expected)))) {
+                    return -1;
+                }
+                return sentNanos - ackNanos[expected];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether the endpoint has shown the version, or a newer one.
+     */
+    synchronized boolean shown(ReadEndpoint read, int version) {
+        return seen[read.ordinal()] >= version;
+    }
+
+    /**
+     * Acknowledged versions the endpoint never showed, not even through a newer one.
+     */
+    synchronized int unseen(ReadEndpoint read) {
+        var unseen = 0;
+        for (var version = seen[read.ordinal()] + 1; version <= issued; version++) {
+            if (ackNanos[version] > 0) {
+                unseen++;
+            }
+        }
+        return unseen;
+    }
+
+    synchronized int acknowledged() {
+        var acknowledged = 0;
+        for (var version = 1; version <= issued; version++) {
+            if (ackNanos[version] > 0) {
+                acknowledged++;
+            }
+        }
+        return acknowledged;
+    }
+}
@@ -0,0 +1,26 @@
+package petstore.visibility;
+
+/**
+ * The reads a visibility probe polls for the writes it made.
+ */
+public enum ReadEndpoint {
+
+    //One probe pet at a time
+    BY_ID("GET pet/{petId}"),
+
+    //One status at a time, in turn, the way consumers ask for it; every probe pet with that status is checked
+    FIND_BY_STATUS("GET pet/findByStatus");
+
+    private final String endpoint;
+
+    ReadEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * The endpoint key the reads are recorded under.
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,65 @@
+package petstore.visibility;
+
+import org.json.JSONObject;
+import petstore.metrics.EndpointStats;
+import petstore.metrics.LatencyRegistry;
+
+import java.util.Map;
+
+/**
+ * What one write rate of a visibility probe measured. Lags run from a write's acknowledgement to the
+ * completion of the first read that showed it, or a newer version, per read endpoint. A stale read showed
+ * an older version than one acknowledged before the read was sent; its staleness is how long that was.
+ *
+ * @param requests   latency of the writes and reads themselves
+ * @param lags       write-to-read visibility lag per read endpoint
+ * @param staleness  one entry per stale pet in a read, per read endpoint
+ * @param staleReads reads with at least one stale pet, per read endpoint
+ * @param unseen     acknowledged writes an endpoint did not show before the chase timed out, per read endpoint
+ */
+public record VisibilityPhase(double writeRate, long writesAcknowledged, long writesFailed, LatencyRegistry requests,
+                              LatencyRegistry lags, LatencyRegistry staleness, Map<ReadEndpoint, Long> staleReads,
+                              Map<ReadEndpoint, Long> unseen, long elapsedNanos) {
+
+    public VisibilityPhase {
+        staleReads = Map.copyOf(staleReads);
+        unseen = Map.copyOf(unseen);
+    }
+
+    public long reads(ReadEndpoint read) {
+        return requests.stats(read.endpoint()).count();
+    }
+
+    public double staleRatio(ReadEndpoint read) {
+        var reads = reads(read);
+        return reads == 0 ? 0 : (double) staleReads.getOrDefault(read, 0L) / reads;
+    }
+
+    public double lagMillisAt(ReadEndpoint read, double percentile) {
+        return EndpointStats.millisAt(lags.stats(read.endpoint()).snapshot(), percentile);
+    }
+
+    public double achievedWriteRate() {
+        return elapsedNanos == 0 ? 0 : (writesAcknowledged + writesFailed) * 1e9 / elapsedNanos;
+    }
+
+    public JSONObject toJson() {
+        var reads = new JSONObject();
+        for (var read : staleReads.keySet()) {
+            reads.put(read.name(), new JSONObject()
+                    .put("reads", reads(read))
+                    .put("staleReads", staleReads.get(read))
+                    .put("staleRatio", staleRatio(read))
+                    .put("unseenWrites", unseen.getOrDefault(read, 0L))
+                    .put("lag", lags.stats(read.endpoint()).toJson())
+                    .put("staleness", staleness.stats(read.endpoint()).toJson()));
+        }
+        return new JSONObject()
+                .put("writeRate", writeRate)
+                .put("achievedWriteRate", achievedWriteRate())
+                .put("writesAcknowledged", writesAcknowledged)
+                .put("writesFailed", writesFailed)
+                .put("reads", reads)
+                .put("requests", requests.toJson());
+    }
+}
@@ -0,0 +1,266 @@
+package petstore.visibility;
+
+import org.json.JSONObject;
+import petstore.ApiCall;
+import petstore.PetStoreCalls;
+import petstore.TestData;
+import petstore.check.StreamingListCheck;
+import petstore.client.ConnectionPoolSettings;
+import petstore.client.PetStoreClient;
+import petstore.metrics.LatencyRegistry;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how long a pet update takes to show up in the read endpoints. Per write rate, a fresh set of probe
+ * pets is created and writers update them at the rate. Every acknowledged write is chased on each read endpoint:
+ * read at once, then again every poll interval until it shows. Every read is also checked for stale pets,
+ * including the pets other writes left in a findByStatus list. The probe pets are deleted at the end of each phase.
+ */
+public class VisibilityProbe {
+
+    private static final String CATEGORY = "visibility";
+
+    private final VisibilityProfile profile;
+
+    public VisibilityProbe(VisibilityProfile profile) {
+        this.profile = profile;
+    }
+
+    public VisibilityReport run() throws InterruptedException {
+        var pool = ConnectionPoolSettings.fromSettings();
+        var connections = profile.writers() + profile.readers();
+        var sized = new ConnectionPoolSettings(Math.max(pool.maxTotal(), connections), Math.max(pool.maxPerRoute(), connections),
+                pool.keepAlive(), pool.idleTimeout(), pool.evictInterval());
+        var phases = new ArrayList<VisibilityPhase>();
+        try (var client = new PetStoreClient(profile.baseUri(), sized)) {
+            for (var rate : profile.writeRates()) {
+                var phase = new Phase(client, rate).run();
+                phases.add(phase);
+                System.out.printf("Visibility phase at %.1f writes/s: %d acknowledged, lag p99 %s%n", rate, phase.writesAcknowledged(),
+                        profile.reads().stream().map(read -> read.name() + " " + phase.lagMillisAt(read, 99) + " ms").toList());
+            }
+        }
+        return new VisibilityReport(profile, phases);
+    }
+
+    /**
+     * One write rate: its probe pets, threads and tallies.
+     */
+    private final class Phase {
+        private final PetStoreClient client;
+        private final double rate;
+        private final List<ProbePet> pets = new ArrayList<>();
+        private final Map<Long, ProbePet> petsById = new HashMap<>();
+        private final LatencyRegistry requests = new LatencyRegistry();
+        private final LatencyRegistry lags = new LatencyRegistry();
+        private final LatencyRegistry staleness = new LatencyRegistry();
+        private final Map<ReadEndpoint, LongAdder> staleReads = new EnumMap<>(ReadEndpoint.class);
+        private final LongAdder writesFailed = new LongAdder();
+        //Chases queued or running; the phase waits for them before it ends
+        private final AtomicInteger chases = new AtomicInteger();
+        private volatile ScheduledExecutorService readers;
+        private long writeDeadline;
+
+        private Phase(PetStoreClient client, double rate) {
+            this.client = client;
+            this.rate = rate;
+            profile.reads().forEach(read -> staleReads.put(read, new LongAdder()));
+        }
+
+        VisibilityPhase run() throws InterruptedException {
+            for (var i = 0; i < profile.pets(); i++) {
+                var id = TestData.uniqueId();
+                var response = PetStoreCalls.addPet(id, 1, CATEGORY, ProbePet.name(0)).send(client.request());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Could not create probe pet " + id + ": " + response.statusCode());
+                }
+                response.asByteArray();
+                var pet = new ProbePet(id, System.nanoTime());
+                pets.add(pet);
+                petsById.put(id, pet);
+            }
+            var threadIndex = new AtomicInteger();
+            readers = Executors.newScheduledThreadPool(profile.readers(), runnable -> {
+                var thread = new Thread(runnable, "petstore-visibility-reader-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            var writers = new ArrayList<Thread>();
+            var start = System.nanoTime();
+            writeDeadline = start + profile.duration().toNanos();
+            for (var writer = 0; writer < profile.writers(); writer++) {
+                var index = writer;
+                var thread = new Thread(() -> write(index, start), "petstore-visibility-writer-" + index);
+                thread.setDaemon(true);
+                thread.start();
+                writers.add(thread);
+            }
+            for (var writer : writers) {
+                writer.join();
+            }
+            var elapsed = System.nanoTime() - start;
+            //Every chase ends by the timeout; the margin covers a read still on the wire
+            var chaseDeadline = System.nanoTime() + profile.timeout().toNanos() + TimeUnit.SECONDS.toNanos(5);
+            while (chases.get() > 0 && System.nanoTime() < chaseDeadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            readers.shutdownNow();
+            for (var pet : pets) {
+                try {
+                    PetStoreCalls.deletePet(pet.id).send(client.request()).asByteArray();
+                } catch (Exception e) {
+                    //Best effort; a leftover probe pet does not disturb the next phase, which uses new ids
+                }
+            }
+            var stale = new EnumMap<ReadEndpoint, Long>(ReadEndpoint.class);
+            var unseen = new EnumMap<ReadEndpoint, Long>(ReadEndpoint.class);
+            for (var read : profile.reads()) {
+                stale.put(read, staleReads.get(read).sum());
+                unseen.put(read, pets.stream().mapToLong(pet -> pet.unseen(read)).sum());
+            }
+            return new VisibilityPhase(rate, pets.stream().mapToLong(ProbePet::acknowledged).sum(), writesFailed.sum(),
+                    requests, lags, staleness, stale, unseen, elapsed);
+        }
+
+        /**
+         * Updates the writer's own pets in turn, at its share of the rate, and sets readers on every acknowledged write.
+         */
+        private void write(int writer, long start) {
+            var owned = new ArrayList<ProbePet>();
+            for (var i = writer; i < pets.size(); i += profile.writers()) {
+                owned.add(pets.get(i));
+            }
+            var intervalNanos = (long) (profile.writers() * 1e9 / rate);
+            //Writers start staggered so their writes interleave
+            var next = start + intervalNanos * writer / profile.writers();
+            for (var turn = 0; next < writeDeadline; turn++, next += intervalNanos) {
+                parkUntil(next);
+                var pet = owned.get(turn % owned.size());
+                var version = pet.issue();
+                var call = PetStoreCalls.updatePet(pet.id, 1, CATEGORY, ProbePet.name(version), ProbePet.status(version));
+                var sent = System.nanoTime();
+                var ok = false;
+                try {
+                    var response = call.send(client.request());
+                    ok = response.statusCode() == 200;
+                    response.asByteArray();
+                } catch (Exception e) {
+                    //RestAssured rethrows IOExceptions unchecked; the write counts as failed
+                }
+                var done = System.nanoTime();
+                requests.record(call.endpoint(), done - sent, ok);
+                if (!ok) {
+                    pet.failed(version);
+                    writesFailed.increment();
+                    continue;
+                }
+                pet.acked(version, done, lags);
+                for (var read : profile.reads()) {
+                    chases.incrementAndGet();
+                    readers.execute(() -> chase(read, pet, version, done + profile.timeout().toNanos()));
+                }
+            }
+        }
+
+        /**
+         * Reads until the endpoint shows the version, or a newer one, or until the chase times out.
+         */
+        private void chase(ReadEndpoint read, ProbePet pet, int version, long giveUpNanos) {
+            try {
+                if (!pet.shown(read, version)) {
+                    if (read == ReadEndpoint.BY_ID) {
+                        poll(read, PetStoreCalls.getPet(pet.id), null, List.of(pet));
+                    } else {
+                        poll(read, PetStoreCalls.findByStatus(ProbePet.status(version)), ProbePet.status(version), pets);
+                    }
+                }
+                if (!pet.shown(read, version) && System.nanoTime() < giveUpNanos) {
+                    chases.incrementAndGet();
+                    readers.schedule(() -> chase(read, pet, version, giveUpNanos), profile.pollInterval().toNanos(), TimeUnit.NANOSECONDS);
+                }
+            } catch (RejectedExecutionException e) {
+                //The phase is over
+                chases.decrementAndGet();
+            } finally {
+                chases.decrementAndGet();
+            }
+        }
+
+        /**
+         * Sends one read and checks every pet it was expected to cover.
+         *
+         * @param status the status asked for; null when the read covers a pet whatever its status
+         */
+        private void poll(ReadEndpoint read, ApiCall call, String status, List<ProbePet> covered) {
+            var sent = System.nanoTime();
+            var shown = new HashMap<Long, Integer>();
+            var ok = false;
+            try {
+                var response = call.send(client.request());
+                if (response.statusCode() != 200) {
+                    response.asByteArray();
+                    //A probe pet by id that is not found is missing, not a failed read
+                    ok = response.statusCode() == 404 && read == ReadEndpoint.BY_ID;
+                } else if (read == ReadEndpoint.BY_ID) {
+                    collect(new JSONObject(response.asString()), shown);
+                    ok = true;
+                } else {
+                    //A findByStatus list holds every pet with the status; streamed, only the probe pets are kept
+                    ok = StreamingListCheck.every("is a pet", pet -> collect(pet, shown)).check(response.asInputStream()).passed();
+                }
+            } catch (Exception e) {
+                //An unreadable body, or an IOException RestAssured rethrew unchecked
+                ok = false;
+            }
+            var done = System.nanoTime();
+            requests.record(call.endpoint(), done - sent, ok);
+            if (!ok) {
+                return;
+            }
+            var stale = false;
+            for (var pet : covered) {
+                var version = shown.get(pet.id);
+                var age = version == null ? pet.missing(status, sent)
+                        : version < 0 ? -1 : pet.observed(read, version, sent, done, lags);
+                if (age >= 0) {
+                    staleness.record(read.endpoint(), age, true);
+                    stale = true;
+                }
+            }
+            if (stale) {
+                staleReads.get(read).increment();
+            }
+        }
+
+        /**
+         * Notes the version of a probe pet; other pets are passed over.
+         *
+         * @return true, so a list check streams on to the next pet
+         */
+        private boolean collect(JSONObject pet, Map<Long, Integer> shown) {
+            if (petsById.containsKey(pet.optLong("id"))) {
+                shown.put(pet.optLong("id"), ProbePet.version(pet.optString("name", null)));
+            }
+            return true;
+        }
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
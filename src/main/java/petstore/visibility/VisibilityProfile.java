@@ -0,0 +1,73 @@
+package petstore.visibility;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.Settings;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A visibility probe: how hard the writers push, how often the readers look, and for how long.
+ *
+ * @param writeRates  pet updates per second across all writers; each rate is a phase of its own
+ * @param pets        probe pets the writes are spread over
+ * @param writers     threads writing; each owns a share of the pets, so a pet's versions reach the store in order
+ * @param readers     threads reading; every acknowledged write is chased on each read endpoint until it shows
+ * @param reads       endpoints a write is chased on
+ * @param pollInterval pause before reading again when a write did not show yet; it bounds how precisely a longer
+ *                     lag can be measured
+ * @param duration    how long each phase writes
+ * @param timeout     how long a write is chased before it counts as unseen
+ */
+public record VisibilityProfile(String baseUri, List<Double> writeRates, int pets, int writers, int readers,
+                                List<ReadEndpoint> reads, Duration pollInterval, Duration duration, Duration timeout) {
+
+    public VisibilityProfile {
+        writeRates = List.copyOf(writeRates);
+        reads = List.copyOf(reads);
+        if (writeRates.isEmpty() || writeRates.stream().anyMatch(rate -> rate <= 0)) {
+            throw new IllegalArgumentException("Visibility write rates must be positive, were " + writeRates);
+        }
+        if (reads.isEmpty()) {
+            throw new IllegalArgumentException("A visibility probe needs at least one read endpoint, set petstore.visibility.reads");
+        }
+        if (writers < 1 || readers < 1 || pets < writers) {
+            throw new IllegalArgumentException("A visibility probe needs a writer, a reader and a pet per writer, were "
+                    + writers + ", " + readers + " and " + pets);
+        }
+    }
+
+    public static VisibilityProfile fromSettings(String baseUri) {
+        var rates = new ArrayList<Double>();
+        for (var rate : Settings.get("petstore.visibility.writeRate", "5,20").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        var reads = new ArrayList<ReadEndpoint>();
+        for (var read : Settings.get("petstore.visibility.reads", "by_id,find_by_status").split(",")) {
+            reads.add(ReadEndpoint.valueOf(read.trim().toUpperCase()));
+        }
+        return new VisibilityProfile(baseUri, rates,
+                Settings.getInt("petstore.visibility.pets", 20),
+                Settings.getInt("petstore.visibility.writers", 2),
+                Settings.getInt("petstore.visibility.readers", 4),
+                reads,
+                Settings.getDuration("petstore.visibility.pollInterval", Duration.ofMillis(25)),
+                Settings.getDuration("petstore.visibility.duration", Duration.ofSeconds(30)),
+                Settings.getDuration("petstore.visibility.timeout", Duration.ofSeconds(10)));
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+                .put("baseUri", baseUri)
+                .put("writeRates", new JSONArray(writeRates))
+                .put("pets", pets)
+                .put("writers", writers)
+                .put("readers", readers)
+                .put("reads", new JSONArray(reads.stream().map(ReadEndpoint::name).toList()))
+                .put("pollIntervalMs", pollInterval.toMillis())
+                .put("durationSeconds", duration.toMillis() / 1000.0)
+                .put("timeoutSeconds", timeout.toMillis() / 1000.0);
+    }
+}
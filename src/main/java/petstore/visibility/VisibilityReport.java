@@ -0,0 +1,64 @@
+package petstore.visibility;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import petstore.load.RunReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of a visibility probe, one phase per write rate.
+ */
+public class VisibilityReport implements RunReport {
+
+    private final VisibilityProfile profile;
+    private final List<VisibilityPhase> phases;
+
+    VisibilityReport(VisibilityProfile profile, List<VisibilityPhase> phases) {
+        this.profile = profile;
+        this.phases = List.copyOf(phases);
+    }
+
+    public List<VisibilityPhase> phases() {
+        return phases;
+    }
+
+    public JSONObject toJson() {
+        var phaseJson = new JSONArray();
+        phases.forEach(phase -> phaseJson.put(phase.toJson()));
+        return new JSONObject()
+                .put("profile", profile.toJson())
+                .put("phases", phaseJson);
+    }
+
+    @Override
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, toJson().toString(2));
+    }
+
+    @Override
+    public String summary() {
+        var summary = new StringBuilder();
+        summary.append(String.format("Visibility probe, %d pets, %d writers, %d readers polling every %d ms%n", profile.pets(),
+                profile.writers(), profile.readers(), profile.pollInterval().toMillis()));
+        summary.append(String.format("%9s %-15s %8s %9s %9s %9s %9s %8s %7s %7s%n", "writes/s", "read", "writes", "lag p50",
+                "lag p90", "lag p99", "lag max", "reads", "stale", "unseen"));
+        for (var phase : phases) {
+            for (var read : profile.reads()) {
+                summary.append(String.format("%9.1f %-15s %8d %9.2f %9.2f %9.2f %9.2f %8d %6.2f%% %7d%n", phase.achievedWriteRate(),
+                        read.name(), phase.writesAcknowledged(), phase.lagMillisAt(read, 50), phase.lagMillisAt(read, 90),
+                        phase.lagMillisAt(read, 99), phase.lagMillisAt(read, 100), phase.reads(read),
+                        phase.staleRatio(read) * 100, phase.unseen().getOrDefault(read, 0L)));
+            }
+        }
+        summary.append("Lags in ms from write acknowledgement to the first read that showed it; stale is the share of reads"
+                + " that showed an older version").append(System.lineSeparator());
+        return summary.toString();
+    }
+}
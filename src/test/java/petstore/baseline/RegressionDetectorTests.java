@@ -0,0 +1,154 @@
+package petstore.baseline;
+
+import org.HdrHistogram.Histogram;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class RegressionDetectorTests {
+
+    private static final String ENDPOINT = "GET pet/findByStatus";
+
+    //p50 only, no absolute latency floor, so the tolerance and the spread of the baseline decide
+    private final RegressionDetector detector = new RegressionDetector(settings(0.0));
+
+    @Test(groups = {"Unit"}, description = "Verify nothing is compared before the minimum number of baseline runs")
+    public void tooFewBaselineRunsTest() {
+
+        //Act
+        var report = detector.compare(run(5000, 0, 0), List.of(run(1000, 0, 0), run(1000, 0, 0)));
+
+        //Assert
+        Assert.assertTrue(report.comparisons().isEmpty());
+        Assert.assertFalse(report.regressed());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a quiet baseline flags a latency beyond the relative tolerance either way")
+    public void latencyToleranceTest() {
+
+        //Arrange
+        var baseline = List.of(run(1000, 0, 0), run(1000, 0, 0), run(1000, 0, 0));
+
+        //Act
+        var slower = comparison(detector.compare(run(1200, 0, 0), baseline), "p50Ms");
+        var withinTolerance = comparison(detector.compare(run(1050, 0, 0), baseline), "p50Ms");
+        var faster = comparison(detector.compare(run(800, 0, 0), baseline), "p50Ms");
+
+        //Assert
+        Assert.assertEquals(slower.verdict(), RegressionReport.Verdict.REGRESSED);
+        Assert.assertEquals(slower.baseline(), 1.0);
+        Assert.assertEquals(slower.band(), 0.1, 1e-9);
+        Assert.assertEquals(withinTolerance.verdict(), RegressionReport.Verdict.UNCHANGED);
+        Assert.assertEquals(faster.verdict(), RegressionReport.Verdict.IMPROVED);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a noisy baseline widens the band to the configured standard deviations around the median")
+    public void latencySigmaBandTest() {
+
+        //Arrange
+        //Median 1.2 ms, standard deviation 0.2 ms, so the band is 3 * 0.2 ms
+        var baseline = List.of(run(1400, 0, 0), run(1000, 0, 0), run(1200, 0, 0));
+
+        //Act
+        var inside = comparison(detector.compare(run(1700, 0, 0), baseline), "p50Ms");
+        var outside = comparison(detector.compare(run(1900, 0, 0), baseline), "p50Ms");
+
+        //Assert
+        Assert.assertEquals(inside.baseline(), 1.2);
+        Assert.assertEquals(inside.band(), 0.6, 1e-9);
+        Assert.assertEquals(inside.verdict(), RegressionReport.Verdict.UNCHANGED);
+        Assert.assertEquals(outside.verdict(), RegressionReport.Verdict.REGRESSED);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a latency change below the absolute minimum delta is never flagged")
+    public void latencyMinDeltaTest() {
+
+        //Arrange
+        var floored = new RegressionDetector(settings(1.0));
+        var baseline = List.of(run(1000, 0, 0), run(1000, 0, 0), run(1000, 0, 0));
+
+        //Act
+        var comparison = comparison(floored.compare(run(1500, 0, 0), baseline), "p50Ms");
+
+        //Assert
+        Assert.assertEquals(comparison.band(), 1.0);
+        Assert.assertEquals(comparison.verdict(), RegressionReport.Verdict.UNCHANGED);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a rise in the error rate beyond the minimum delta is a regression")
+    public void errorRateTest() {
+
+        //Arrange
+        var baseline = List.of(run(1000, 0, 0), run(1000, 0, 0), run(1000, 0, 0));
+
+        //Act
+        var failing = detector.compare(run(1000, 5, 0), baseline);
+        var onePercent = comparison(detector.compare(run(1000, 1, 0), baseline), "errorRate");
+
+        //Assert
+        Assert.assertEquals(comparison(failing, "errorRate").verdict(), RegressionReport.Verdict.REGRESSED);
+        Assert.assertEquals(comparison(failing, "errorRate").current(), 0.05);
+        Assert.assertTrue(failing.regressed());
+        Assert.assertEquals(onePercent.verdict(), RegressionReport.Verdict.UNCHANGED);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify throughput regresses when it falls, and is only compared for runs that have one")
+    public void throughputTest() {
+
+        //Arrange
+        var baseline = List.of(run(1000, 0, 100), run(1000, 0, 100), run(1000, 0, 100));
+
+        //Act
+        var lower = comparison(detector.compare(run(1000, 0, 80), baseline), "requestsPerSecond");
+        var higher = comparison(detector.compare(run(1000, 0, 120), baseline), "requestsPerSecond");
+        var none = detector.compare(run(1000, 0, 0), baseline);
+
+        //Assert
+        Assert.assertEquals(lower.verdict(), RegressionReport.Verdict.REGRESSED);
+        Assert.assertEquals(higher.verdict(), RegressionReport.Verdict.IMPROVED);
+        Assert.assertTrue(none.comparisons().stream().noneMatch(comparison -> comparison.metric().equals("requestsPerSecond")));
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify endpoints with fewer calls than the minimum are skipped")
+    public void minSamplesTest() {
+
+        //Arrange
+        var baseline = List.of(run(1000, 0, 0), run(1000, 0, 0), run(1000, 0, 0));
+        var histogram = new Histogram(3);
+        histogram.recordValueWithCount(5000, 10);
+        var sparse = new RunRecord("suite", null, "current", "stub", Instant.now(), 0,
+                Map.of(ENDPOINT, new RunRecord.Endpoint(histogram, 0)));
+
+        //Act
+        var report = detector.compare(sparse, baseline);
+
+        //Assert
+        Assert.assertTrue(report.comparisons().isEmpty());
+    }
+
+    private static BaselineSettings settings(double minDeltaMs) {
+        return new BaselineSettings(true, Path.of("target/unused-baselines"), Path.of("target"), "current", "stub",
+                5, 3, List.of(50.0), 3.0, 0.10, minDeltaMs, 0.01, 20, 50);
+    }
+
+    /**
+     * A run whose 100 calls of the endpoint all took the given time, values below 2048 being recorded exactly.
+     */
+    private static RunRecord run(long micros, long errors, double requestsPerSecond) {
+        var histogram = new Histogram(3);
+        histogram.recordValueWithCount(micros, 100);
+        return new RunRecord("suite", null, "revision", "stub", Instant.now(), requestsPerSecond,
+                Map.of(ENDPOINT, new RunRecord.Endpoint(histogram, errors)));
+    }
+
+    private static RegressionReport.Comparison comparison(RegressionReport report, String metric) {
+        return report.comparisons().stream()
+                .filter(comparison -> comparison.metric().equals(metric))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + metric + " comparison in " + report.comparisons()));
+    }
+}
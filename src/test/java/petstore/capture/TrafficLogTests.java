@@ -0,0 +1,153 @@
+package petstore.capture;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TrafficLogTests {
+
+    private static final Exchange ORDER = new Exchange(1_000, 25_000_000, "POST store/order", "POST", "store/order",
+            List.of(Map.entry("Content-Type", "application/json; charset=utf8"), Map.entry("Accept", "*/*")),
+            "{\"id\":6178881}".getBytes(StandardCharsets.UTF_8), 200,
+            List.of(Map.entry("Content-Type", "application/json")), "{\"id\":6178881,\"status\":\"placed\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final Exchange LOGIN = new Exchange(30_000_000, 4_000_000, "GET user/login", "GET",
+            "user/login?username=K%C3%B6ter&password=x", List.of(), new byte[0], 404,
+            List.of(Map.entry("X-Note", "K\u00f6ter not found")), "not found".getBytes(StandardCharsets.UTF_8));
+
+    @Test(groups = {"Unit"}, description = "Verify every field of the exchanges written is read back in order")
+    public void roundTripTest() throws IOException {
+
+        //Arrange
+        var file = tempLog();
+        var before = System.currentTimeMillis();
+        try (var writer = new TrafficLogWriter(file)) {
+            writer.append(ORDER);
+            writer.append(LOGIN);
+        }
+
+        //Act
+        var read = new ArrayList<Exchange>();
+        long captureStart;
+        try (var reader = new TrafficLogReader(file)) {
+            captureStart = reader.captureStartMillis();
+            while (reader.next()) {
+                read.add(new Exchange(reader.startOffsetNanos(), reader.durationNanos(), reader.endpoint(), reader.method(),
+                        reader.path(), reader.requestHeaders(), bytes(reader.requestBody()), reader.status(),
+                        reader.responseHeaders(), bytes(reader.responseBody())));
+            }
+        }
+
+        //Assert
+        Assert.assertTrue(captureStart >= before && captureStart <= System.currentTimeMillis());
+        Assert.assertEquals(read.size(), 2);
+        assertSame(read.get(0), ORDER);
+        assertSame(read.get(1), LOGIN);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify bodies read from the log stay valid after the cursor has moved on")
+    public void bodiesOutliveCursorTest() throws IOException {
+
+        //Arrange
+        var file = tempLog();
+        try (var writer = new TrafficLogWriter(file)) {
+            writer.append(ORDER);
+            writer.append(LOGIN);
+        }
+
+        //Act
+        ByteBuffer firstBody;
+        try (var reader = new TrafficLogReader(file)) {
+            reader.next();
+            firstBody = reader.responseBody();
+            reader.next();
+        }
+
+        //Assert
+        Assert.assertEquals(bytes(firstBody), ORDER.responseBody());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a log is cut back to the bytes written and an empty one has no records")
+    public void emptyLogTest() throws IOException {
+
+        //Arrange
+        var file = tempLog();
+        new TrafficLogWriter(file).close();
+
+        //Act
+        boolean hasRecord;
+        try (var reader = new TrafficLogReader(file)) {
+            hasRecord = reader.next();
+        }
+
+        //Assert
+        Assert.assertEquals(Files.size(file), TrafficLogWriter.HEADER_BYTES);
+        Assert.assertFalse(hasRecord);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify the records of a capture that was never closed can be read")
+    public void unclosedCaptureTest() throws IOException {
+
+        //Arrange
+        var file = tempLog();
+        var writer = new TrafficLogWriter(file);
+        writer.append(ORDER);
+
+        //Act
+        var records = 0;
+        try (var reader = new TrafficLogReader(file)) {
+            while (reader.next()) {
+                records++;
+            }
+        } finally {
+            writer.close();
+        }
+
+        //Assert
+        Assert.assertEquals(records, 1);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a file that is not a traffic log is refused", expectedExceptions = IOException.class)
+    public void notATrafficLogTest() throws IOException {
+
+        //Arrange
+        var file = tempLog();
+        Files.writeString(file, "this is not a traffic log");
+
+        //Act
+        new TrafficLogReader(file).close();
+    }
+
+    private static void assertSame(Exchange actual, Exchange expected) {
+        Assert.assertEquals(actual.startOffsetNanos(), expected.startOffsetNanos());
+        Assert.assertEquals(actual.durationNanos(), expected.durationNanos());
+        Assert.assertEquals(actual.endpoint(), expected.endpoint());
+        Assert.assertEquals(actual.method(), expected.method());
+        Assert.assertEquals(actual.path(), expected.path());
+        Assert.assertEquals(actual.requestHeaders(), expected.requestHeaders());
+        Assert.assertEquals(actual.requestBody(), expected.requestBody());
+        Assert.assertEquals(actual.status(), expected.status());
+        Assert.assertEquals(actual.responseHeaders(), expected.responseHeaders());
+        Assert.assertEquals(actual.responseBody(), expected.responseBody());
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        var bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static Path tempLog() throws IOException {
+        var file = Files.createTempFile("traffic", ".pstl");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
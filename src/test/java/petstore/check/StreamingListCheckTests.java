@@ -0,0 +1,111 @@
+package petstore.check;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+public class StreamingListCheckTests {
+
+    private final StreamingListCheck available = StreamingListCheck.fieldEquals("status", "available");
+
+    @Test(groups = {"Unit"}, description = "Verify every element of a matching array passes and is counted")
+    public void everyElementPassesTest() {
+
+        //Act
+        var result = available.check(new StringReader(" [ {\"id\":1,\"status\":\"available\"}, {\"id\":2,\"status\":\"available\"} ] "));
+
+        //Assert
+        Assert.assertTrue(result.passed(), result.describe());
+        Assert.assertEquals(result.elements(), 2);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify an empty array passes with no elements")
+    public void emptyArrayTest() {
+
+        //Act
+        var result = available.check(new StringReader("[]"));
+
+        //Assert
+        Assert.assertTrue(result.passed(), result.describe());
+        Assert.assertEquals(result.elements(), 0);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify the check stops at the first element that breaks the rule without reading on")
+    public void stopsAtFirstViolationTest() {
+
+        //Arrange
+        //Whatever follows the breaking element is never parsed
+        var body = "[{\"status\":\"available\"},{\"id\":9,\"status\":\"sold\"},not json at all";
+
+        //Act
+        var result = available.check(new StringReader(body));
+
+        //Assert
+        Assert.assertFalse(result.passed());
+        Assert.assertEquals(result.elements(), 1);
+        Assert.assertEquals(result.violation(), "element 1 breaks status == \"available\": {\"id\":9,\"status\":\"sold\"}");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify an element that is not an object breaks the rule")
+    public void nonObjectElementTest() {
+
+        //Act
+        var result = available.check(new StringReader("[\"available\"]"));
+
+        //Assert
+        Assert.assertEquals(result.violation(), "element 0 breaks status == \"available\": available");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a body that is not an array, or is cut off, is reported as such")
+    public void malformedBodyTest() {
+
+        //Act
+        var notArray = available.check(new StringReader("{\"status\":\"available\"}"));
+        var badSeparator = available.check(new StringReader("[{\"status\":\"available\"};{}]"));
+        var truncated = available.check(new StringReader("[{\"status\":\"available\"},{\"status\":\"avail"));
+
+        //Assert
+        Assert.assertEquals(notArray.violation(), "body is not a JSON array");
+        Assert.assertEquals(badSeparator.violation(), "malformed array after element 0");
+        Assert.assertEquals(truncated.elements(), 1);
+        Assert.assertTrue(truncated.violation().startsWith("malformed JSON at element 1: "), truncated.violation());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a long breaking element is shortened in the violation")
+    public void longElementQuotedShortTest() {
+
+        //Arrange
+        var name = "x".repeat(500);
+
+        //Act
+        var result = available.check(new StringReader("[{\"name\":\"" + name + "\"}]"));
+
+        //Assert
+        Assert.assertTrue(result.violation().endsWith("..."));
+        Assert.assertTrue(result.violation().length() < 300, result.violation());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a UTF-8 body stream is decoded and closed")
+    public void inputStreamDecodedAndClosedTest() {
+
+        //Arrange
+        var closed = new boolean[1];
+        var body = new ByteArrayInputStream("[{\"name\":\"K\u00f6ter\",\"status\":\"available\"}]".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        var named = StreamingListCheck.every("name is K\u00f6ter", pet -> pet.optString("name").equals("K\u00f6ter"));
+
+        //Act
+        var result = named.check(body);
+
+        //Assert
+        Assert.assertTrue(result.passed(), result.describe());
+        Assert.assertTrue(closed[0]);
+    }
+}
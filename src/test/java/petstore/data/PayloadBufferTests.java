@@ -0,0 +1,96 @@
+package petstore.data;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PayloadBufferTests {
+
+    private static final PayloadTemplate NAMED = PayloadTemplate.compile("named", "{\"id\": ${id}, \"name\": \"${name}\", \"ok\": ${ok}}");
+
+    @Test(groups = {"Unit"}, description = "Verify a template is split into its fields in order and renders them between its literals")
+    public void renderTest() {
+
+        //Act
+        var rendered = new PayloadBuffer(8).begin(NAMED).value(-42).value("dog").value(true).toString();
+
+        //Assert
+        Assert.assertEquals(NAMED.fields(), List.of("id", "name", "ok"));
+        Assert.assertEquals(rendered, "{\"id\": -42, \"name\": \"dog\", \"ok\": true}");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify quotes, backslashes and control characters are escaped so the body stays valid JSON")
+    public void escapingTest() {
+
+        //Arrange
+        var name = "say \"hi\"\\ \n\t\u0001 end";
+
+        //Act
+        var rendered = new PayloadBuffer(16).begin(NAMED).value(1).value(name).value(false).toString();
+
+        //Assert
+        Assert.assertEquals(rendered, "{\"id\": 1, \"name\": \"say \\\"hi\\\"\\\\ \\u000a\\u0009\\u0001 end\", \"ok\": false}");
+        Assert.assertEquals(new JSONObject(rendered).getString("name"), name);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify text beyond ASCII is written as UTF-8, a lone surrogate as the replacement character")
+    public void utf8Test() {
+
+        //Arrange
+        var name = "K\u00f6ter \u20ac \uD83D\uDC36 \uD800.";
+        var written = "K\u00f6ter \u20ac \uD83D\uDC36 \uFFFD.";
+
+        //Act
+        var buffer = new PayloadBuffer(4).begin(NAMED).value(1).value(name).value(true);
+
+        //Assert
+        Assert.assertEquals(buffer.toByteArray(), ("{\"id\": 1, \"name\": \"" + written + "\", \"ok\": true}").getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(new JSONObject(buffer.toString()).getString("name"), written);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify the extreme long values are written in full")
+    public void longBoundsTest() {
+
+        //Arrange
+        var numbers = PayloadTemplate.compile("numbers", "[${min},${max},${zero}]");
+
+        //Act
+        var rendered = new PayloadBuffer(2).begin(numbers).value(Long.MIN_VALUE).value(Long.MAX_VALUE).value(0).toString();
+
+        //Assert
+        Assert.assertEquals(rendered, "[" + Long.MIN_VALUE + "," + Long.MAX_VALUE + ",0]");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify payloads appended with raw separators form an array")
+    public void arrayTest() {
+
+        //Act
+        var buffer = new PayloadBuffer(64).clear().raw('[');
+        Payloads.order(buffer, 1, 2, 3, "placed").raw(',');
+        Payloads.order(buffer, 4, 5, 6, "approved").raw(']');
+
+        //Assert
+        var orders = new JSONArray(buffer.toString());
+        Assert.assertEquals(orders.length(), 2);
+        Assert.assertEquals(orders.getJSONObject(1).getString("status"), "approved");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify reading a payload with a field still missing is refused", expectedExceptions = IllegalStateException.class,
+            expectedExceptionsMessageRegExp = "Payload named is missing field name")
+    public void missingFieldTest() {
+
+        //Act
+        new PayloadBuffer(64).begin(NAMED).value(1).toString();
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a value beyond the template's fields is refused", expectedExceptions = IllegalStateException.class)
+    public void extraValueTest() {
+
+        //Act
+        new PayloadBuffer(64).begin(NAMED).value(1).value("dog").value(true).value(2);
+    }
+}
@@ -0,0 +1,121 @@
+package petstore.data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class RowReaderTests {
+
+    @Test(groups = {"Unit"}, description = "Verify CSV cells are split on commas outside quotes and quotes are unescaped")
+    public void csvQuotedCellsTest() throws IOException {
+
+        //Arrange
+        var file = csv("id,name,status\n1,\"dog, brown\",\"said \"\"woof\"\"\"\n");
+
+        //Act
+        var rows = readAll(file);
+
+        //Assert
+        Assert.assertEquals(rows, List.of(Map.of("id", "1", "name", "dog, brown", "status", "said \"woof\"")));
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a quoted CSV cell may span a line break")
+    public void csvMultiLineCellTest() throws IOException {
+
+        //Arrange
+        var file = csv("id,name\n1,\"first\nsecond\"\n2,third\n");
+
+        //Act
+        var rows = readAll(file);
+
+        //Assert
+        Assert.assertEquals(rows, List.of(Map.of("id", "1", "name", "first\nsecond"), Map.of("id", "2", "name", "third")));
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify blank CSV lines are skipped, cells trimmed and short rows padded")
+    public void csvBlankLinesAndShortRowsTest() throws IOException {
+
+        //Arrange
+        var file = csv("id, name ,status\n\n 7 ,cat\n\n");
+
+        //Act
+        var rows = readAll(file);
+
+        //Assert
+        Assert.assertEquals(rows, List.of(Map.of("id", "7", "name", "cat", "status", "")));
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a CSV sheet with only a header has no rows")
+    public void csvHeaderOnlyTest() throws IOException {
+
+        //Arrange
+        var file = csv("id,name\n");
+
+        //Act
+        var rows = readAll(file);
+
+        //Assert
+        Assert.assertTrue(rows.isEmpty());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify rows written to an xlsx sheet are read back by column, numbers as written")
+    public void xlsxRoundTripTest() throws IOException {
+
+        //Arrange
+        var file = Files.createTempFile("rows", ".xlsx");
+        file.toFile().deleteOnExit();
+        SpreadsheetWriter.write(file, List.of("id", "name", "status"),
+                List.<List<?>>of(List.of(12, "dog, brown", "available"), List.of(13, "cat")).iterator());
+
+        //Act
+        var rows = readAll(file);
+
+        //Assert
+        Assert.assertEquals(rows, List.of(Map.of("id", "12", "name", "dog, brown", "status", "available"),
+                Map.of("id", "13", "name", "cat", "status", "")));
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify an xlsx reader closed before the end of the sheet stops its parser")
+    public void xlsxCloseEarlyTest() throws IOException {
+
+        //Arrange
+        var file = Files.createTempFile("rows", ".xlsx");
+        file.toFile().deleteOnExit();
+        var sample = new ArrayList<List<?>>();
+        for (var id = 0; id < 2000; id++) {
+            sample.add(DataKind.PET.sample(id));
+        }
+        SpreadsheetWriter.write(file, DataKind.PET.columns(), sample.iterator());
+
+        //Act
+        Map<String, String> first;
+        try (var reader = RowReader.open(file)) {
+            first = reader.next();
+        }
+
+        //Assert
+        Assert.assertEquals(first.get("id"), "0");
+    }
+
+    private static Path csv(String content) throws IOException {
+        var file = Files.createTempFile("rows", ".csv");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<Map<String, String>> readAll(Path file) throws IOException {
+        var rows = new ArrayList<Map<String, String>>();
+        try (var reader = RowReader.open(file)) {
+            reader.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+}
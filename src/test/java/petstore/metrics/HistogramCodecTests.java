@@ -0,0 +1,45 @@
+package petstore.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HistogramCodecTests {
+
+    @Test(groups = {"Unit"}, description = "Verify a histogram decodes to the same counts and percentiles it was encoded with")
+    public void roundTripTest() {
+
+        //Arrange
+        var histogram = new Histogram(3);
+        for (var micros = 1; micros <= 100_000; micros += 7) {
+            histogram.recordValue(micros);
+        }
+        histogram.recordValueWithCount(2_500_000, 3);
+
+        //Act
+        var decoded = HistogramCodec.decode(HistogramCodec.encode(histogram));
+
+        //Assert
+        Assert.assertEquals(decoded, histogram);
+        Assert.assertEquals(decoded.getTotalCount(), histogram.getTotalCount());
+        Assert.assertEquals(decoded.getValueAtPercentile(99.9), histogram.getValueAtPercentile(99.9));
+        Assert.assertEquals(decoded.getMaxValue(), histogram.getMaxValue());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify an empty histogram survives the round trip")
+    public void emptyHistogramTest() {
+
+        //Act
+        var decoded = HistogramCodec.decode(HistogramCodec.encode(new Histogram(3)));
+
+        //Assert
+        Assert.assertEquals(decoded.getTotalCount(), 0);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify text that is no encoded histogram is refused", expectedExceptions = IllegalArgumentException.class)
+    public void corruptHistogramTest() {
+
+        //Act
+        HistogramCodec.decode("bm90IGEgaGlzdG9ncmFt");
+    }
+}
@@ -0,0 +1,170 @@
+package petstore.plan;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import petstore.check.StreamingListCheck;
+import petstore.data.PayloadTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class ScenarioTests {
+
+    private static final PayloadTemplate TAG = PayloadTemplate.compile("tag", "{\"id\": ${id}, \"name\": \"${name}\"}");
+
+    @Test(groups = {"Unit"}, description = "Verify a step that uses a variable nobody declares or extracts is refused when compiling",
+            expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Scenario typo, step 1 \\(GET pet/\\{petId}\\) uses petId, which the scenario does not declare")
+    public void undeclaredVariableTest() {
+
+        //Act
+        Scenario.named("typo")
+                .freshId("petld")
+                .step(Step.get("pet/{petId}"))
+                .compile();
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a step that uses a variable only a later step extracts is refused when compiling",
+            expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Scenario out of order, step 1 \\(GET store/order/\\{orderId}\\) uses orderId before a step extracts it")
+    public void usedBeforeExtractedTest() {
+
+        //Act
+        Scenario.named("out of order")
+                .freshId("id")
+                .constant("name", "tag")
+                .step(Step.get("store/order/{orderId}"))
+                .step(Step.post("store/order").body(TAG).extract("orderId", "id"))
+                .compile();
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a step cannot use what it extracts itself, only the steps after it",
+            expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = ".*step 1 \\(POST pet\\) uses petId before a step extracts it")
+    public void usedByExtractingStepTest() {
+
+        //Act
+        Scenario.named("self")
+                .constant("name", "tag")
+                .step(Step.post("pet").body(TAG).bind("id", "petId").extract("petId", "id"))
+                .compile();
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a binding or constant for a name the step does not have is refused")
+    public void unusedBindingTest() {
+
+        //Arrange
+        var bound = Scenario.named("bound").freshId("id").step(Step.get("pet/{id}").bind("petId", "id"));
+        var set = Scenario.named("set").freshId("id").step(Step.get("pet/{id}").set("status", "sold"));
+
+        //Act
+        var boundError = Assert.expectThrows(IllegalArgumentException.class, bound::compile);
+        var setError = Assert.expectThrows(IllegalArgumentException.class, set::compile);
+
+        //Assert
+        Assert.assertEquals(boundError.getMessage(), "Scenario bound, step 1 (GET pet/{id}) binds petId, which is neither a placeholder nor a body field");
+        Assert.assertEquals(setError.getMessage(), "Scenario set, step 1 (GET pet/{id}) sets status, which is neither a placeholder nor a body field");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a variable cannot be declared twice, nor extracted under a declared name")
+    public void duplicateVariableTest() {
+
+        //Act
+        var twice = Assert.expectThrows(IllegalArgumentException.class,
+                () -> Scenario.named("twice").freshId("id").constant("id", 1));
+        var shadowed = Assert.expectThrows(IllegalArgumentException.class,
+                () -> Scenario.named("shadowed").freshId("id").constant("name", "tag")
+                        .step(Step.post("pet").body(TAG).extract("id", "id"))
+                        .compile());
+
+        //Assert
+        Assert.assertEquals(twice.getMessage(), "Scenario twice declares id twice");
+        Assert.assertEquals(shadowed.getMessage(), "Scenario shadowed, step 1 (POST pet) extracts id, which the scenario already declares");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a compiled plan renders its calls and hands extracted values to the next step")
+    public void compiledPlanTest() {
+
+        //Arrange
+        var plan = Scenario.named("tag and find")
+                .input("tagName")
+                .constant("status", "available")
+                .step(Step.post("pet").body(TAG).set("id", 7).bind("name", "tagName").expectValue("tagName").extract("petId", "id"))
+                .step(Step.get("pet/findByStatus?status={status}&tag={name}").bind("name", "tagName"))
+                .step(Step.get("pet/{petId}").expect(404))
+                .compile();
+        var run = plan.newRun().set("tagName", "doggo");
+        var steps = plan.steps();
+
+        //Act
+        var post = steps.get(0).call(run);
+        var noValue = steps.get(0).check(run, 200, "{\"id\": 7}");
+        var passed = steps.get(0).check(run, 200, "{\"id\": 7, \"name\": \"doggo\"}");
+        var find = steps.get(1).call(run);
+        var get = steps.get(2).call(run);
+        var wrongStatus = steps.get(2).check(run, 200, null);
+
+        //Assert
+        Assert.assertEquals(post.endpoint(), "POST pet");
+        Assert.assertEquals(post.body(), "{\"id\": 7, \"name\": \"doggo\"}");
+        Assert.assertEquals(noValue, "Scenario tag and find, step 1 (POST pet): answer does not contain doggo");
+        Assert.assertNull(passed);
+        Assert.assertEquals(run.number("petId"), 7);
+        Assert.assertEquals(find.path(), "pet/findByStatus?status=available&tag=doggo");
+        Assert.assertEquals(find.endpoint(), "GET pet/findByStatus");
+        Assert.assertEquals(get.pathParams(), List.of(7L));
+        Assert.assertFalse(steps.get(2).readsBody());
+        Assert.assertEquals(wrongStatus, "Scenario tag and find, step 3 (GET pet/{petId}): expected status 404, was 200");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify an input that was never set is reported by name")
+    public void missingInputTest() {
+
+        //Arrange
+        var plan = Scenario.named("inputs").input("petId").step(Step.get("pet/{petId}")).compile();
+
+        //Act
+        var error = Assert.expectThrows(IllegalStateException.class, () -> plan.steps().get(0).call(plan.newRun()));
+
+        //Assert
+        Assert.assertEquals(error.getMessage(), "Scenario inputs has no value for petId; set it before running the plan");
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a streamed list answer is checked and closed, also when its status is wrong")
+    public void listStepTest() {
+
+        //Arrange
+        var step = Scenario.named("list")
+                .step(Step.get("pet/findByStatus?status=sold").expectList(StreamingListCheck.fieldEquals("status", "sold"), 2))
+                .compile()
+                .steps().get(0);
+        var wrongStatus = new Body("[]");
+        var tooShort = new Body("[{\"status\": \"sold\"}]");
+        var full = new Body("[{\"status\": \"sold\"}, {\"status\": \"sold\"}]");
+
+        //Act
+        var wrongStatusResult = step.checkList(500, wrongStatus);
+        var tooShortResult = step.checkList(200, tooShort);
+        var fullResult = step.checkList(200, full);
+
+        //Assert
+        Assert.assertEquals(wrongStatusResult, "Scenario list, step 1 (GET pet/findByStatus): expected status 200, was 500");
+        Assert.assertEquals(tooShortResult, "Scenario list, step 1 (GET pet/findByStatus): expected at least 2 elements, got 1");
+        Assert.assertNull(fullResult);
+        Assert.assertTrue(wrongStatus.closed && tooShort.closed && full.closed);
+    }
+
+    private static final class Body extends ByteArrayInputStream {
+        private boolean closed;
+
+        private Body(String json) {
+            super(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package petstore.session;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+public class SessionCacheTests {
+
+    private static final long LATER = Long.MAX_VALUE;
+
+    @Test(groups = {"Unit"}, description = "Verify a cached session is borrowed and counted as a hit, a missing one as a miss")
+    public void hitsAndMissesTest() {
+
+        //Arrange
+        var cache = cache(true, 10);
+        cache.put(new Session("alice", "1", LATER));
+
+        //Act
+        var hit = cache.lookup("alice");
+        var miss = cache.lookup("bob");
+
+        //Assert
+        Assert.assertEquals(hit.token(), "1");
+        Assert.assertNull(miss);
+        Assert.assertEquals(cache.hitRate(), 0.5);
+        Assert.assertEquals(cache.toJson().getLong("logins"), 1);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify an expired session is dropped on lookup and counted as an expiration")
+    public void expiredSessionTest() {
+
+        //Arrange
+        var cache = cache(true, 10);
+        cache.put(new Session("alice", "1", System.currentTimeMillis() - 1));
+
+        //Act
+        var session = cache.lookup("alice");
+
+        //Assert
+        Assert.assertNull(session);
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertEquals(cache.toJson().getLong("expirations"), 1);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify the least recently borrowed session is evicted beyond the maximum size")
+    public void leastRecentlyBorrowedEvictedTest() {
+
+        //Arrange
+        var cache = cache(true, 2);
+        cache.put(new Session("alice", "1", LATER));
+        cache.put(new Session("bob", "2", LATER));
+        cache.lookup("alice");
+
+        //Act
+        cache.put(new Session("carol", "3", LATER));
+
+        //Assert
+        Assert.assertNull(cache.current("bob"));
+        Assert.assertNotNull(cache.current("alice"));
+        Assert.assertNotNull(cache.current("carol"));
+        Assert.assertEquals(cache.toJson().getLong("evictions"), 1);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify current neither counts a borrow nor misses a live session")
+    public void currentIsUncountedTest() {
+
+        //Arrange
+        var cache = cache(true, 10);
+        cache.put(new Session("alice", "1", LATER));
+
+        //Act
+        var session = cache.current("alice");
+
+        //Assert
+        Assert.assertEquals(session.token(), "1");
+        Assert.assertEquals(cache.toJson().getLong("hits") + cache.toJson().getLong("misses"), 0);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a logout drops the session and is counted once")
+    public void invalidateTest() {
+
+        //Arrange
+        var cache = cache(true, 10);
+        cache.put(new Session("alice", "1", LATER));
+
+        //Act
+        cache.invalidate("alice");
+        cache.invalidate("alice");
+
+        //Assert
+        Assert.assertNull(cache.lookup("alice"));
+        Assert.assertEquals(cache.toJson().getLong("invalidations"), 1);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a disabled cache keeps nothing and misses every lookup")
+    public void disabledCacheTest() {
+
+        //Arrange
+        var cache = cache(false, 10);
+        cache.put(new Session("alice", "1", LATER));
+
+        //Act
+        var session = cache.lookup("alice");
+
+        //Assert
+        Assert.assertNull(session);
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertEquals(cache.hitRate(), 0.0);
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a login answer gives the session id and the earlier of ttl and X-Expires-After")
+    public void sessionFromLoginTest() {
+
+        //Arrange
+        var body = "{\"code\":200,\"type\":\"unknown\",\"message\":\"logged in user session:1700000000000\"}";
+        var inTenMinutes = ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10).withNano(0);
+        var expiresAfter = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ROOT).format(inTenMinutes);
+
+        //Act
+        var capped = Session.fromLogin("alice", body, expiresAfter, Duration.ofMinutes(30));
+        var ttlOnly = Session.fromLogin("alice", body, null, Duration.ofMinutes(1));
+        var unreadableHeader = Session.fromLogin("alice", body, "soon", Duration.ofMinutes(1));
+
+        //Assert
+        Assert.assertEquals(capped.token(), "1700000000000");
+        Assert.assertEquals(capped.expiresAtMillis(), inTenMinutes.toInstant().toEpochMilli());
+        Assert.assertTrue(ttlOnly.expiresAtMillis() <= System.currentTimeMillis() + 60_000);
+        Assert.assertFalse(ttlOnly.expired(System.currentTimeMillis()));
+        Assert.assertTrue(unreadableHeader.expiresAtMillis() <= System.currentTimeMillis() + 60_000);
+    }
+
+    private static SessionCache cache(boolean enabled, int maxSize) {
+        return new SessionCache(new SessionSettings(enabled, maxSize, Duration.ofMinutes(30), 100));
+    }
+}
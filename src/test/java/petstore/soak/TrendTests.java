@@ -0,0 +1,94 @@
+package petstore.soak;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+public class TrendTests {
+
+    //Six 10 minute windows, mid-points from the 5th to the 55th minute
+    private static final List<Double> SECONDS = List.of(300.0, 900.0, 1500.0, 2100.0, 2700.0, 3300.0);
+
+    @Test(groups = {"Unit"}, description = "Verify a steady climb is fitted exactly and counts as drift")
+    public void steadyGrowthTest() {
+
+        //Arrange
+        //One unit per minute from 100 at the first window: mean 125, slope 60 per hour
+        var values = series(i -> 100 + i * 10);
+
+        //Act
+        var trend = Trend.fit("POST store/order p99Ms", false, SECONDS, values, 0.10);
+
+        //Assert
+        Assert.assertEquals(trend.points(), 6);
+        Assert.assertEquals(trend.first(), 100.0);
+        Assert.assertEquals(trend.last(), 150.0);
+        Assert.assertEquals(trend.growthPerHour(), 60.0 / 125.0, 1e-9);
+        Assert.assertTrue(Double.isInfinite(trend.tStatistic()));
+        Assert.assertTrue(trend.drifting());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a flat series neither grows nor drifts")
+    public void flatSeriesTest() {
+
+        //Act
+        var trend = Trend.fit("client heapUsedMb", true, SECONDS, series(i -> 256), 0.10);
+
+        //Assert
+        Assert.assertEquals(trend.growthPerHour(), 0.0);
+        Assert.assertEquals(trend.tStatistic(), 0.0);
+        Assert.assertFalse(trend.drifting());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify scatter without a clear slope is not drift, however large the fitted growth")
+    public void scatterIsNotDriftTest() {
+
+        //Arrange
+        var values = series(i -> i % 2 == 0 ? 100 : 160);
+
+        //Act
+        var trend = Trend.fit("GET user/login p99Ms", false, SECONDS, values, 0.05);
+
+        //Assert
+        Assert.assertTrue(trend.growthPerHour() > 0.05, trend.describe());
+        Assert.assertTrue(trend.tStatistic() < 2, String.valueOf(trend.tStatistic()));
+        Assert.assertFalse(trend.drifting());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify clear growth below the allowed rate, or a decline, is not drift")
+    public void slowOrFallingTest() {
+
+        //Act
+        var slow = Trend.fit("POST pet p99Ms", false, SECONDS, series(i -> 100 + i), 0.10);
+        var falling = Trend.fit("POST pet p99Ms", false, SECONDS, series(i -> 150 - i * 10), 0.10);
+
+        //Assert
+        Assert.assertTrue(slow.tStatistic() > 2);
+        Assert.assertFalse(slow.drifting(), slow.describe());
+        Assert.assertTrue(falling.growthPerHour() < 0);
+        Assert.assertFalse(falling.drifting());
+    }
+
+    @Test(groups = {"Unit"}, description = "Verify a single window gives no slope")
+    public void singleWindowTest() {
+
+        //Act
+        var trend = Trend.fit("client heapUsedMb", true, List.of(300.0), List.of(512.0), 0.10);
+
+        //Assert
+        Assert.assertEquals(trend.growthPerHour(), 0.0);
+        Assert.assertFalse(trend.drifting());
+        Assert.assertEquals(trend.describe(), "client client heapUsedMb 0.0%/h (512.00 -> 512.00 over 1 windows)");
+    }
+
+    private static List<Double> series(IntToDoubleFunction value) {
+        var values = new ArrayList<Double>();
+        for (var i = 0; i < SECONDS.size(); i++) {
+            values.add(value.applyAsDouble(i));
+        }
+        return values;
+    }
+}